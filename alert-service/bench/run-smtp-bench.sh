@@ -0,0 +1,11 @@
+#!/bin/bash
+# JMH comparison of a new SMTP connection per alert against PooledJavaMailSender, on a local GreenMail.
+# Extra arguments are passed to JMH, e.g. bench/run-smtp-bench.sh -p protocol=smtps
+
+set -e
+cd "$(dirname "$0")/.."
+
+./mvnw -q test-compile exec:exec \
+  -Dexec.classpathScope=test \
+  -Dexec.executable=java \
+  -Dexec.args="-cp %classpath org.openjdk.jmh.Main SmtpSendBenchmark $*"
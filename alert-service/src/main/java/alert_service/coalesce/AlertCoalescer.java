@@ -0,0 +1,202 @@
+package alert_service.coalesce;
+
+import alert_service.config.CoalesceProperties;
+import alert_service.domain.AlertDigest;
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import common_lib.fingerprint.MessageFingerprint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Groups alerts by (service, level, message fingerprint) so an incident produces one mail per
+ * group and window instead of one per log.
+ *
+ * The first alert of a group is let through straight away; everything after it is folded and
+ * comes out of {@link #drain} as a digest once the group's window has passed. A group stays open
+ * while it keeps firing, so a long incident sends a digest per window and not a new "first" alert
+ * each time; a window with nothing in it closes the group.
+ *
+ * Folded alerts only live here until the next digest; their offsets are already committed, so a
+ * crash loses at most one window of counts, never a group's first alert.
+ */
+@Component
+@RequiredArgsConstructor
+public class AlertCoalescer {
+
+    private static final long OVERFLOW = 0L;
+
+    private final CoalesceProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Key, Group> groups = new ConcurrentHashMap<>();
+
+    private Counter folded;
+
+    private record Key(String service, Level level, long fingerprint) {
+    }
+
+    private enum Admission { SEND, FOLDED, CLOSED }
+
+    @PostConstruct
+    public void init() {
+        folded = Counter.builder("logsy.alert.coalesced")
+                .description("alerts folded into a digest instead of being sent on their own")
+                .register(meterRegistry);
+        Gauge.builder("logsy.alert.coalesce.groups", groups, Map::size)
+                .register(meterRegistry);
+    }
+
+    // true when the caller should send this alert now
+    public boolean admit(LogRecord alert, Instant now) {
+
+        if (!properties.isEnabled()) {
+            return true;
+        }
+
+        while (true) {
+            Group group = group(alert);
+            switch (group.add(alert, now, properties.getSampleInstances())) {
+                case SEND:
+                    return true;
+                case FOLDED:
+                    folded.increment();
+                    return false;
+                default:
+                    // closed by drain() between the lookup and the add; the next lookup opens a fresh one
+                }
+        }
+    }
+
+    // Digests of every group whose window has passed, or of all groups when force is set (shutdown).
+    public List<AlertDigest> drain(Instant now, boolean force) {
+
+        List<AlertDigest> digests = new ArrayList<>();
+        Instant cutoff = now.minus(properties.getWindow());
+
+        for (Map.Entry<Key, Group> entry : groups.entrySet()) {
+            Group group = entry.getValue();
+            synchronized (group) {
+                if (!force && group.windowStart.isAfter(cutoff)) {
+                    continue;
+                }
+                if (group.count > 0) {
+                    digests.add(group.digest(entry.getKey()));
+                    group.reset(now);
+                } else {
+                    group.closed = true;
+                    groups.remove(entry.getKey(), group);
+                }
+            }
+        }
+
+        return digests;
+    }
+
+    private Group group(LogRecord alert) {
+
+        Key key = new Key(alert.getService(), alert.getLevel(), MessageFingerprint.of(alert.getMessage()));
+        Group group = groups.get(key);
+        if (group != null) {
+            return group;
+        }
+
+        if (groups.size() >= properties.getMaxGroups()) {
+            key = new Key(alert.getService(), alert.getLevel(), OVERFLOW);
+        }
+        boolean overflow = key.fingerprint() == OVERFLOW;
+        return groups.computeIfAbsent(key, k -> new Group(overflow ? "(various messages)" : MessageFingerprint.template(alert.getMessage())));
+    }
+
+    private static final class Group {
+
+        private final String template;
+
+        private final Set<String> instances = new LinkedHashSet<>();
+
+        private Instant windowStart;
+
+        private boolean started;
+
+        private boolean firstSent;
+
+        private boolean closed;
+
+        private int count;
+
+        private LogRecord sample;
+
+        private Instant firstSeen;
+
+        private Instant lastSeen;
+
+        private Group(String template) {
+            this.template = template;
+        }
+
+        private synchronized Admission add(LogRecord alert, Instant now, int maxInstances) {
+
+            if (closed) {
+                return Admission.CLOSED;
+            }
+
+            if (!started) {
+                started = true;
+                windowStart = now;
+                firstSent = true;
+                return Admission.SEND;
+            }
+
+            if (count == 0) {
+                sample = alert;
+                firstSeen = now;
+            }
+            count++;
+            lastSeen = now;
+            if (alert.getInstanceId() != null && instances.size() < maxInstances) {
+                instances.add(alert.getInstanceId());
+            }
+            return Admission.FOLDED;
+        }
+
+        // callers hold the group's lock
+        private AlertDigest digest(Key key) {
+            return AlertDigest.builder()
+                    .service(key.service())
+                    .level(key.level())
+                    .fingerprint(String.format("%016x", key.fingerprint()))
+                    .template(template)
+                    .sample(sample)
+                    .count(count)
+                    .firstSeen(firstSeen)
+                    .lastSeen(lastSeen)
+                    .instances(List.copyOf(instances))
+                    .firstSent(firstSent)
+                    .build();
+        }
+
+        private void reset(Instant now) {
+            windowStart = now;
+            firstSent = false;
+            count = 0;
+            sample = null;
+            firstSeen = null;
+            lastSeen = null;
+            instances.clear();
+        }
+    }
+
+}
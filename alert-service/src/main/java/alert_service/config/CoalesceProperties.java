@@ -0,0 +1,24 @@
+package alert_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "logsy.alert.coalesce")
+public class CoalesceProperties {
+
+    // off: every alert is sent on its own, as before
+    private boolean enabled = true;
+
+    private Duration window = Duration.ofMinutes(1);
+
+    private int sampleInstances = 5;
+
+    // past this, new messages of a service and level share one catch-all group
+    private int maxGroups = 10000;
+
+}
@@ -0,0 +1,41 @@
+package alert_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Applies to every notification channel; each gets its own queue, workers and breaker.
+@Data
+@Component
+@ConfigurationProperties(prefix = "logsy.alert.dispatch")
+public class DispatchProperties {
+
+    private int queueCapacity = 1000;
+
+    private int workers = 2;
+
+    // how long the listener waits for room in a full channel queue before giving the alert back unacked
+    private Duration offerTimeout = Duration.ofSeconds(5);
+
+    // how long the listener backs off before an alert a full channel gave back is redelivered
+    private Duration fullBackoff = Duration.ofSeconds(1);
+
+    private int maxAttempts = 5;
+
+    private Duration initialBackoff = Duration.ofMillis(500);
+
+    private Duration maxBackoff = Duration.ofSeconds(30);
+
+    private double multiplier = 2.0;
+
+    // consecutive failures that open a channel's breaker, and how long it stays open
+    private int breakerFailures = 5;
+
+    private Duration breakerOpenFor = Duration.ofSeconds(30);
+
+    // time given to the workers to empty their queues on shutdown
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+}
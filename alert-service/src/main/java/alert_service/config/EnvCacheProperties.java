@@ -0,0 +1,30 @@
+package alert_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "logsy.alert.env-cache")
+public class EnvCacheProperties {
+
+    // off: every lookup goes to Redis, as before
+    private boolean enabled = true;
+
+    // past this a value is reloaded in the background while the cached one keeps being served
+    private Duration refreshAfter = Duration.ofSeconds(30);
+
+    // past this a value is reloaded before it is returned
+    private Duration ttl = Duration.ofMinutes(10);
+
+    // publish a key name (or *) here after changing it to have it reloaded at once
+    private String channel = "logsy:env:invalidate";
+
+    // keys whose keyspace notifications reload them; needs notify-keyspace-events on the server
+    private List<String> watchKeys = List.of("email_subscribers", "dispatcher_email", "dispatcher_app_password");
+
+}
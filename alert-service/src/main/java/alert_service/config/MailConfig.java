@@ -1,4 +1,5 @@
  package alert_service.config;
+import alert_service.mail.PooledJavaMailSender;
 import alert_service.utils.RedisEnvService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,8 @@ public class MailConfig {
 
     private final RedisEnvService env;
 
+    private final SmtpPoolProperties smtpPool;
+
     private volatile String fromEmail = null;
 
     public String getFromEmail() {
@@ -32,7 +35,8 @@ public class MailConfig {
 
         System.out.println("Email : " + username + "Password : " + appPassword);
 
-        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        // pooled: connections stay open and authenticated between alerts
+        JavaMailSenderImpl mailSender = smtpPool.isEnabled() ? new PooledJavaMailSender(smtpPool) : new JavaMailSenderImpl();
         mailSender.setHost("smtp.gmail.com");
         mailSender.setPort(587);
         mailSender.setUsername(username);
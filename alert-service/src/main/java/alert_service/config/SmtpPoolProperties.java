@@ -0,0 +1,35 @@
+package alert_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "logsy.alert.smtp-pool")
+public class SmtpPoolProperties {
+
+    // off: a new connection and STARTTLS handshake per send, as before
+    private boolean enabled = true;
+
+    // open SMTP connections at most; the email channel's workers are the ones borrowing them
+    private int maxTotal = 4;
+
+    private int maxIdle = 4;
+
+    private Duration maxWait = Duration.ofSeconds(10);
+
+    // servers drop connections left idle for minutes; ours are closed first
+    private Duration idleTimeout = Duration.ofMinutes(2);
+
+    private Duration evictionInterval = Duration.ofSeconds(30);
+
+    // NOOP before a pooled connection is used, so a connection the server dropped is replaced
+    private boolean testOnBorrow = true;
+
+    // servers cap messages per connection; the connection is closed once it has sent this many
+    private int maxMessagesPerConnection = 100;
+
+}
@@ -0,0 +1,19 @@
+package alert_service.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "logsy.alert.webhook")
+public class WebhookProperties {
+
+    // blank leaves the webhook channel off
+    private String url = "";
+
+    private Duration timeout = Duration.ofSeconds(5);
+
+}
@@ -1,20 +1,51 @@
 package alert_service.config;
 
+import alert_service.dispatcher.AlertDeadLetters;
+import alert_service.dispatcher.ChannelFullException;
+import common_lib.codec.CodecConfig;
+import common_lib.concurrent.KeyOrderedExecutor;
+import common_lib.domain.LogRecord;
+import common_lib.kafka.DeadLetters;
+import common_lib.kafka.JsonRecordDeserializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
-import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableKafka
 public class kafka {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DispatchProperties dispatchProperties;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrap;
 
@@ -30,8 +61,30 @@ public class kafka {
     @Value("${spring.kafka.consumer.value-deserializer}")
     private String valueDeserilizer;
 
+    @Value("${logsy.alert.json.blackbird:false}")
+    private boolean blackbird;
+
+    // must list the same services, in the same order, as the ingestor's producer
+    @Value("${logsy.codec.services:}")
+    private String codecServices;
+
+    @Value("${logsy.alert.dead-letter-topic:alert-topic.DLT}")
+    private String deadLetterTopic;
+
+    @Value("${logsy.alert.concurrency:1}")
+    private int concurrency;
+
+    @Value("${logsy.alert.parallel.threads:8}")
+    private int parallelThreads;
+
+    @Value("${logsy.alert.parallel.virtual-threads:false}")
+    private boolean parallelVirtualThreads;
+
+    @Value("${logsy.alert.parallel.max-in-flight:1000}")
+    private int parallelMaxInFlight;
+
     @Bean
-    public ConsumerFactory<String, Object> KafkaConsumer() {
+    public ConsumerFactory<String, LogRecord> KafkaConsumer() {
 
         HashMap<String, Object> props = new HashMap<String, Object>();
 
@@ -39,10 +92,103 @@ public class kafka {
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, offsetReset);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, keyDeserializer);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, valueDeserilizer);
+        // a payload the configured deserializer rejects arrives as a null value plus an exception header
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, valueDeserilizer);
+        props.put(JsonRecordDeserializer.BLACKBIRD, blackbird);
+        props.put(CodecConfig.SERVICES, codecServices);
+
+        DefaultKafkaConsumerFactory<String, LogRecord> factory = new DefaultKafkaConsumerFactory<>(props);
+        // exposes kafka.consumer.fetch.manager.records.lag(.max) per consumer
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+
+        return factory;
+
+    }
+
+    // Poison records are published as the raw bytes they arrived with, undelivered alerts as JSON.
+    @Bean
+    public KafkaTemplate<String, byte[]> deadLetterTemplate() {
+
+        HashMap<String, Object> props = new HashMap<String, Object>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props));
+    }
+
+    // partition -1: the producer picks one, whatever alert-topic's partition count is
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaTemplate<String, byte[]> deadLetterTemplate) {
+        return new DeadLetterPublishingRecoverer(deadLetterTemplate, (record, e) -> new TopicPartition(deadLetterTopic, -1));
+    }
+
+    @Bean
+    public DeadLetters deadLetters(DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        return new DeadLetters(deadLetterRecoverer, Counter.builder("logsy.alert.dead_letters")
+                .description("alert-topic records that could not be parsed and went to the dead-letter topic")
+                .register(meterRegistry));
+    }
+
+    // alerts already consumed and committed that a channel could not deliver
+    @Bean
+    public AlertDeadLetters alertDeadLetters(KafkaTemplate<String, byte[]> deadLetterTemplate) {
+        return new AlertDeadLetters(deadLetterTemplate, deadLetterTopic, Counter.builder("logsy.alert.undelivered")
+                .description("alerts a notification channel gave up on or still held at shutdown, sent to the dead-letter topic")
+                .register(meterRegistry));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, LogRecord> kafkaListenerContainerFactory(ConsumerFactory<String, LogRecord> consumerFactory, DeadLetters deadLetters) {
+
+        ConcurrentKafkaListenerContainerFactory<String, LogRecord> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency);
+        // records that failed to deserialize skip the listener and go straight to the DLT
+        factory.setCommonErrorHandler(errorHandler(deadLetters));
+
+        return factory;
+    }
+
+    // Offsets are committed after the listener returns, i.e. after every alert in the poll was handed over.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, LogRecord> batchListenerContainerFactory(ConsumerFactory<String, LogRecord> consumerFactory, DeadLetters deadLetters) {
+
+        ConcurrentKafkaListenerContainerFactory<String, LogRecord> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.setCommonErrorHandler(errorHandler(deadLetters));
+
+        return factory;
+    }
+
+    // A full notification channel is backpressure, not a bad record: seek back and redeliver until there is room.
+    // Each attempt returns to poll(), so a long backlog does not exceed max.poll.interval.ms.
+    private DefaultErrorHandler errorHandler(DeadLetters deadLetters) {
+        DefaultErrorHandler handler = new DefaultErrorHandler(deadLetters::publish, new FixedBackOff(0L, 0L));
+        handler.setBackOffFunction((record, e) -> ChannelFullException.isCause(e)
+                ? new FixedBackOff(dispatchProperties.getFullBackoff().toMillis(), FixedBackOff.UNLIMITED_ATTEMPTS)
+                : null);
+        return handler;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "logsy.alert.listener", havingValue = "parallel")
+    public KeyOrderedExecutor alertWorkers() {
 
-        return new DefaultKafkaConsumerFactory<>(props);
+        Executor executor;
+        if (parallelVirtualThreads && Runtime.version().feature() >= 21) {
+            executor = new VirtualThreadTaskExecutor("alert-worker-");
+        } else {
+            if (parallelVirtualThreads) {
+                System.out.println("⚠️ virtual threads need Java 21+, using " + parallelThreads + " platform threads");
+            }
+            executor = Executors.newFixedThreadPool(parallelThreads);
+        }
 
+        return new KeyOrderedExecutor(executor, parallelMaxInFlight);
     }
 
 }
@@ -1,20 +1,20 @@
 package alert_service.consumer;
 
+import alert_service.dispatcher.ChannelFullException;
 import alert_service.dispatcher.impl.AlertDispatcherServiceImpl;
-import alert_service.domain.Logs;
+import common_lib.domain.LogRecord;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(name = "logsy.alert.listener", havingValue = "record", matchIfMissing = true)
 public class AlertConsumer {
 
     private final AlertDispatcherServiceImpl dispatch;
 
-    private ObjectMapper objectMapper = new ObjectMapper();
-
 //    @KafkaListener(
 //            topics = "${spring.kafka.consumer.topic}",
 //            groupId = "${spring.kafka.consumer.group-id}"
@@ -23,13 +23,15 @@ public class AlertConsumer {
             topics = "alert-topic",
             groupId = "log-alert-group"
     )
-    public void AlertReciver(String rawlogs) throws  Exception{
+    public void AlertReciver(LogRecord logs) throws  Exception{
         try {
-            Logs logs = objectMapper.readValue(rawlogs, Logs.class);
             System.out.println("📥 Received logs: " + logs);
 
             dispatch.dispatch(logs);
 
+        } catch (ChannelFullException e) {
+            // not acked: the container's error handler backs off and redelivers it
+            throw e;
         } catch (Exception e) {
             System.err.println("❌ Failed to process alert: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,92 @@
+package alert_service.consumer;
+
+import alert_service.dispatcher.ChannelFullException;
+import alert_service.dispatcher.impl.AlertDispatcherServiceImpl;
+import common_lib.concurrent.KeyOrderedExecutor;
+import common_lib.domain.LogRecord;
+import common_lib.kafka.DeadLetters;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Slots in the channels are reserved on the poll thread in offset order, and the poll stops at the first alert
+// a channel has no room for: everything before it is handed over, nothing after it is. Offsets are committed
+// up to that alert and the error handler redelivers from there, so no alert is dispatched twice. Only the
+// coalescing and queueing of reserved alerts fans out, ordered per key (the producing service).
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "logsy.alert.listener", havingValue = "parallel")
+public class AlertParallelConsumer {
+
+    private final AlertDispatcherServiceImpl dispatch;
+
+    private final KeyOrderedExecutor workers;
+
+    private final DeadLetters deadLetters;
+
+    @KafkaListener(
+            topics = "alert-topic",
+            groupId = "log-alert-group",
+            containerFactory = "batchListenerContainerFactory"
+    )
+    public void AlertReciver(List<ConsumerRecord<String, LogRecord>> records) {
+
+        List<CompletableFuture<Void>> sends = new ArrayList<>(records.size());
+        int stoppedAt = -1;
+        Exception cause = null;
+
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, LogRecord> record = records.get(i);
+            if (deadLetters.route(record)) {
+                continue;
+            }
+            try {
+                dispatch.reserve();
+            } catch (ChannelFullException | InterruptedException e) {
+                stoppedAt = i;
+                cause = e;
+                break;
+            }
+            try {
+                Object key = record.key() != null ? record.key() : record.partition();
+                sends.add(workers.submit(key, () -> handle(record.value())));
+            } catch (InterruptedException e) {
+                dispatch.release();
+                stoppedAt = i;
+                cause = e;
+                break;
+            }
+        }
+
+        if (cause instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+
+        // what was submitted is handed over; wait for it before the offsets move
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+
+        if (stoppedAt >= 0) {
+            throw new BatchListenerFailedException("alert not handed over", cause, stoppedAt);
+        }
+    }
+
+    private void handle(LogRecord logs) {
+        try {
+            System.out.println("📥 Received logs: " + logs);
+
+            dispatch.dispatchReserved(logs);
+
+        } catch (Exception e) {
+            System.err.println("❌ Failed to process alert: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+}
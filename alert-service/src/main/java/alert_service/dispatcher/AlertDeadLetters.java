@@ -0,0 +1,75 @@
+package alert_service.dispatcher;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alerts the channels could not deliver, published to the alert dead-letter topic instead of only
+ * being logged: those a channel gave up on after max-attempts, and those still queued or in flight
+ * when it stopped.
+ *
+ * A plain alert goes out as its LogRecord JSON, so it can be replayed onto alert-topic as it is;
+ * a digest goes out as AlertDigest JSON. Headers name the payload, the channel and the reason.
+ */
+public class AlertDeadLetters {
+
+    public static final String PAYLOAD_HEADER = "logsy.alert.payload";
+
+    public static final String CHANNEL_HEADER = "logsy.alert.channel";
+
+    public static final String REASON_HEADER = "logsy.alert.reason";
+
+    private static final long SEND_TIMEOUT_SECONDS = 10;
+
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final KafkaTemplate<String, byte[]> template;
+
+    private final String topic;
+
+    private final Counter published;
+
+    public AlertDeadLetters(KafkaTemplate<String, byte[]> template, String topic, Counter published) {
+        this.template = template;
+        this.topic = topic;
+        this.published = published;
+    }
+
+    // channel is null when the delivery never made it into any channel; waits for the broker's ack
+    public void publish(String channel, NotificationChannel.Delivery delivery, String reason) {
+
+        try {
+            boolean alert = delivery.alert() != null;
+            String service = alert ? delivery.alert().getService() : delivery.digest().getService();
+            byte[] value = mapper.writeValueAsBytes(alert ? delivery.alert() : delivery.digest());
+
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, service, value);
+            record.headers().add(PAYLOAD_HEADER, bytes(alert ? "alert" : "digest"));
+            if (channel != null) {
+                record.headers().add(CHANNEL_HEADER, bytes(channel));
+            }
+            record.headers().add(REASON_HEADER, bytes(reason));
+
+            template.send(record).get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            published.increment();
+            System.err.println("☠️ " + delivery.describe() + " sent to " + topic + ": " + reason);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("❌ lost " + delivery.describe() + ", interrupted publishing it to " + topic);
+        } catch (Exception e) {
+            System.err.println("❌ lost " + delivery.describe() + ", could not publish it to " + topic + ": " + e.getMessage());
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
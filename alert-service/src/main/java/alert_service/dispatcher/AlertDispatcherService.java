@@ -1,9 +1,12 @@
 package alert_service.dispatcher;
 
-import alert_service.domain.Logs;
+import alert_service.domain.AlertDigest;
+import common_lib.domain.LogRecord;
 
 public interface AlertDispatcherService {
 
-    public void dispatch(Logs alert) throws Exception;
+    public void dispatch(LogRecord alert) throws Exception;
+
+    public void dispatchDigest(AlertDigest digest) throws Exception;
 
 }
@@ -0,0 +1,20 @@
+package alert_service.dispatcher;
+
+// A channel's queue stayed full for offer-timeout; the alert was handed to no channel and must be redelivered.
+public class ChannelFullException extends Exception {
+
+    public ChannelFullException(String channel) {
+        super(channel + " queue is full");
+    }
+
+    // whether e, or anything that caused it, is a ChannelFullException
+    public static boolean isCause(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ChannelFullException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,62 @@
+package alert_service.dispatcher;
+
+/**
+ * Consecutive-failure breaker for one notification channel. While open, the channel's workers
+ * wait instead of sending, so its queue holds the alerts until the other end is back; after the
+ * open period a single trial send decides whether it closes again.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+
+    private final long openForMs;
+
+    private State state = State.CLOSED;
+
+    private int failures;
+
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openForMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openForMs = openForMs;
+    }
+
+    // 0 when the caller may send now, otherwise how long to wait before asking again
+    public synchronized long acquire(long now) {
+        switch (state) {
+            case CLOSED:
+                return 0;
+            case OPEN:
+                long wait = openedAt + openForMs - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                state = State.HALF_OPEN;
+                return 0;
+            default:
+                // a trial is in flight
+                return Math.max(1, Math.min(openForMs, 1000));
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    public synchronized void onFailure(long now) {
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = now;
+            failures = 0;
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+}
@@ -0,0 +1,214 @@
+package alert_service.dispatcher;
+
+import alert_service.config.DispatchProperties;
+import alert_service.domain.AlertDigest;
+import alert_service.notifier.NotificationStrategy;
+import common_lib.domain.LogRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One notification strategy behind its own bounded queue and workers, so a slow or failing
+ * channel only backs up itself. Each alert is retried with exponential backoff up to
+ * max-attempts; failures feed the channel's {@link CircuitBreaker}.
+ *
+ * The queue is in memory: an alert counts as handed over once it is in every channel's queue,
+ * and queues are emptied on shutdown. What a channel gives up on, and what is still queued when
+ * shutdown-timeout runs out, goes to {@link AlertDeadLetters}; a crash loses what was queued. A slot is
+ * {@link #reserve reserved} before anything is queued, so the dispatcher can take one in every
+ * channel or in none and never hands an alert to only some of them.
+ */
+public class NotificationChannel {
+
+    // exactly one of alert and digest is set
+    public record Delivery(LogRecord alert, AlertDigest digest) {
+
+        void sendTo(NotificationStrategy strategy) throws Exception {
+            if (alert != null) {
+                strategy.Notify(alert);
+            } else if (digest.isSingle()) {
+                strategy.Notify(digest.getSample());
+            } else {
+                strategy.NotifyDigest(digest);
+            }
+        }
+
+        String describe() {
+            return alert != null ? alert.getLevel() + " alert from " + alert.getService()
+                    : digest.getLevel() + " digest x" + digest.getCount() + " from " + digest.getService();
+        }
+    }
+
+    private final String name;
+
+    private final NotificationStrategy strategy;
+
+    private final DispatchProperties properties;
+
+    private final AlertDeadLetters deadLetters;
+
+    private final BlockingQueue<Delivery> queue = new LinkedBlockingQueue<>();
+
+    // free slots in the queue, which holds at most queue-capacity deliveries
+    private final Semaphore room;
+
+    private final CircuitBreaker breaker;
+
+    private final ExecutorService workers;
+
+    private final Counter sent;
+
+    private final Counter failed;
+
+    private final Counter full;
+
+    private final Counter retried;
+
+    private volatile boolean stopping;
+
+    public NotificationChannel(String name, NotificationStrategy strategy, DispatchProperties properties,
+                               AlertDeadLetters deadLetters, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.strategy = strategy;
+        this.properties = properties;
+        this.deadLetters = deadLetters;
+        this.room = new Semaphore(properties.getQueueCapacity());
+        this.breaker = new CircuitBreaker(properties.getBreakerFailures(), properties.getBreakerOpenFor().toMillis());
+
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), r -> {
+            Thread t = new Thread(r, "notify-" + name + "-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        sent = meterRegistry.counter("logsy.alert.channel.sent", "channel", name);
+        failed = meterRegistry.counter("logsy.alert.channel.failed", "channel", name);
+        full = meterRegistry.counter("logsy.alert.channel.full", "channel", name);
+        retried = meterRegistry.counter("logsy.alert.channel.retried", "channel", name);
+        Gauge.builder("logsy.alert.channel.queued", queue, BlockingQueue::size)
+                .tag("channel", name)
+                .register(meterRegistry);
+        Gauge.builder("logsy.alert.channel.open", breaker, b -> b.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .tag("channel", name)
+                .register(meterRegistry);
+
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // Waits up to offer-timeout for a free slot; false when the queue stayed full (or the channel is stopping).
+    public boolean reserve() throws InterruptedException {
+        if (!stopping && room.tryAcquire(properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            return true;
+        }
+        full.increment();
+        return false;
+    }
+
+    // Fills a slot taken by reserve().
+    public void put(Delivery delivery) {
+        queue.add(delivery);
+    }
+
+    // Gives back a slot taken by reserve() that is not going to be filled.
+    public void release() {
+        room.release();
+    }
+
+
+    public void shutdown() {
+        stopping = true;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                // interrupted workers dead-letter the delivery they were on
+                workers.shutdownNow();
+                workers.awaitTermination(1, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        List<Delivery> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            System.err.println("⚠️ " + name + " stopped with " + left.size() + " alerts still queued");
+            left.forEach(delivery -> deadLetters.publish(name, delivery, "still queued at shutdown"));
+        }
+    }
+
+    private void work() {
+        Delivery delivery = null;
+        try {
+            while (!stopping || !queue.isEmpty()) {
+                delivery = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (delivery != null) {
+                    room.release();
+                    deliver(delivery);
+                    delivery = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            if (delivery != null) {
+                deadLetters.publish(name, delivery, "interrupted at shutdown");
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(Delivery delivery) throws InterruptedException {
+
+        long backoff = properties.getInitialBackoff().toMillis();
+
+        for (int attempt = 1; ; attempt++) {
+
+            for (long wait = breaker.acquire(System.currentTimeMillis()); wait > 0; wait = breaker.acquire(System.currentTimeMillis())) {
+                Thread.sleep(wait);
+            }
+
+            try {
+                delivery.sendTo(strategy);
+                breaker.onSuccess();
+                sent.increment();
+                return;
+            } catch (InterruptedException e) {
+                // shutdownNow(): not the channel's fault, and work() dead-letters the delivery
+                throw e;
+            } catch (Exception e) {
+                breaker.onFailure(System.currentTimeMillis());
+
+                if (attempt >= properties.getMaxAttempts()) {
+                    failed.increment();
+                    System.err.println("❌ " + name + " gave up on " + delivery.describe() + " after " + attempt + " attempts: " + e.getMessage());
+                    deadLetters.publish(name, delivery, "gave up after " + attempt + " attempts: " + e.getMessage());
+                    return;
+                }
+
+                retried.increment();
+                // jittered, so workers that failed together do not retry together
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+                backoff = Math.min((long) (backoff * properties.getMultiplier()), properties.getMaxBackoff().toMillis());
+            }
+        }
+    }
+
+}
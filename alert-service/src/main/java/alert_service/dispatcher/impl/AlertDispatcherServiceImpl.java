@@ -1,23 +1,142 @@
 package alert_service.dispatcher.impl;
 
+import alert_service.coalesce.AlertCoalescer;
+import alert_service.config.DispatchProperties;
+import alert_service.dispatcher.AlertDeadLetters;
 import alert_service.dispatcher.AlertDispatcherService;
-import alert_service.domain.Logs;
-import alert_service.notifier.impl.EmailNotifier;
-import jakarta.mail.MessagingException;
+import alert_service.dispatcher.ChannelFullException;
+import alert_service.dispatcher.NotificationChannel;
+import alert_service.domain.AlertDigest;
+import alert_service.notifier.NotificationStrategy;
+import common_lib.domain.LogRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Hands every alert to each enabled NotificationStrategy's channel; the listener thread never waits on a send,
+// only for room in the queues, and an alert some channel has no room for is handed to none of them.
 @Component
 public class AlertDispatcherServiceImpl implements AlertDispatcherService {
 
     @Autowired
-    private EmailNotifier emailNotifier;
+    private Map<String, NotificationStrategy> strategies;
+
+    @Autowired
+    private AlertCoalescer coalescer;
+
+    @Autowired
+    private DispatchProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
+    @Autowired
+    private AlertDeadLetters deadLetters;
+
+    private final List<NotificationChannel> channels = new ArrayList<>();
+
+    @PostConstruct
+    public void init() {
+        strategies.forEach((name, strategy) -> {
+            if (strategy.isEnabled()) {
+                channels.add(new NotificationChannel(name, strategy, properties, deadLetters, meterRegistry));
+            }
+        });
+        System.out.println("📡 Alert channels: " + channels.stream().map(NotificationChannel::getName).toList());
+    }
+
+    // Throws ChannelFullException, before the coalescer has seen the alert, when a channel had no room for it.
     @Override
-    public void dispatch(Logs alert) throws MessagingException {
+    public void dispatch(LogRecord alert) throws InterruptedException, ChannelFullException {
+        reserve();
+        dispatchReserved(alert);
+    }
+
+    // Second half of dispatch(), for a caller that took the slots with reserve() itself; never blocks.
+    public void dispatchReserved(LogRecord alert) {
+
+        boolean send;
+        try {
+            send = coalescer.admit(alert, Instant.now());
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
 
-       emailNotifier.Notify(alert);
+        if (send) {
+            put(new NotificationChannel.Delivery(alert, null));
+        } else {
+            release();
+        }
+    }
+
+    @Override
+    public void dispatchDigest(AlertDigest digest) throws InterruptedException, ChannelFullException {
+        reserve();
+        put(new NotificationChannel.Delivery(null, digest));
+    }
+
+    // drained digests exist nowhere else, so this waits for room rather than give one up
+    @Scheduled(fixedDelayString = "${logsy.alert.coalesce.flush-interval-ms:1000}")
+    public void flush() {
+        send(coalescer.drain(Instant.now(), false), true);
+    }
+
+    // whatever is still folded is queued, then the channels get to empty their queues
+    @PreDestroy
+    public void shutdown() {
+        send(coalescer.drain(Instant.now(), true), false);
+        channels.forEach(NotificationChannel::shutdown);
+    }
+
+    // A slot in every channel, or in none of them; the slots are for one dispatchReserved() call.
+    public void reserve() throws InterruptedException, ChannelFullException {
+        for (int i = 0; i < channels.size(); i++) {
+            if (!channels.get(i).reserve()) {
+                channels.subList(0, i).forEach(NotificationChannel::release);
+                throw new ChannelFullException(channels.get(i).getName());
+            }
+        }
+    }
+
+    // Gives back the slots of a reserve() that is not followed by dispatchReserved().
+    public void release() {
+        channels.forEach(NotificationChannel::release);
+    }
+
+    private void put(NotificationChannel.Delivery delivery) {
+        for (NotificationChannel channel : channels) {
+            channel.put(delivery);
+        }
+    }
 
+    private void send(List<AlertDigest> digests, boolean wait) {
+        try {
+            for (AlertDigest digest : digests) {
+                while (true) {
+                    try {
+                        dispatchDigest(digest);
+                        break;
+                    } catch (ChannelFullException e) {
+                        if (!wait) {
+                            deadLetters.publish(null, new NotificationChannel.Delivery(null, digest), e.getMessage() + " on shutdown");
+                            break;
+                        }
+                        System.err.println("⚠️ " + e.getMessage() + ", digest from " + digest.getService() + " is waiting for room");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
 }
@@ -0,0 +1,48 @@
+package alert_service.domain;
+
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+// Alerts of one (service, level, message fingerprint) group folded over a coalescing window.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AlertDigest {
+
+    private String service;
+
+    private Level level;
+
+    private String fingerprint;
+
+    // the message with its variable parts masked
+    private String template;
+
+    // the first alert folded into this digest
+    private LogRecord sample;
+
+    private int count;
+
+    private Instant firstSeen;
+
+    private Instant lastSeen;
+
+    private List<String> instances;
+
+    // the group's first alert was already sent on its own when it arrived
+    private boolean firstSent;
+
+    // one alert nobody has been told about yet is better sent as a plain alert
+    public boolean isSingle() {
+        return count == 1 && !firstSent;
+    }
+
+}
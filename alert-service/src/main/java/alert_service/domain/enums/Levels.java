@@ -1,10 +0,0 @@
-package alert_service.domain.enums;
-
-public enum Levels {
-    INFO,
-    DEBUG,
-    WARN,
-    FATAL,
-    TRACE,
-    ERROR
-}
@@ -0,0 +1,173 @@
+package alert_service.mail;
+
+import alert_service.config.SmtpPoolProperties;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.apache.commons.pool2.BasePooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JavaMailSenderImpl that keeps its SMTP connections open between sends instead of connecting,
+ * authenticating and running STARTTLS for every message.
+ *
+ * Connections come from a commons-pool2 pool: checked with a NOOP when borrowed, closed after
+ * idle-timeout by the evictor, and retired after max-messages-per-connection. A connection that
+ * fails a send is discarded rather than returned.
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private final SmtpPoolProperties properties;
+
+    private final GenericObjectPool<Connection> pool;
+
+    static final class Connection {
+
+        private final Transport transport;
+
+        private int sent;
+
+        private Connection(Transport transport) {
+            this.transport = transport;
+        }
+    }
+
+    public PooledJavaMailSender(SmtpPoolProperties properties) {
+        this.properties = properties;
+
+        GenericObjectPoolConfig<Connection> config = new GenericObjectPoolConfig<>();
+        config.setMaxTotal(properties.getMaxTotal());
+        config.setMaxIdle(properties.getMaxIdle());
+        config.setMinIdle(0);
+        config.setMaxWait(properties.getMaxWait());
+        config.setTestOnBorrow(properties.isTestOnBorrow());
+        config.setTestWhileIdle(true);
+        config.setMinEvictableIdleDuration(properties.getIdleTimeout());
+        config.setTimeBetweenEvictionRuns(properties.getEvictionInterval());
+        config.setJmxEnabled(false);
+
+        this.pool = new GenericObjectPool<>(new ConnectionFactory(), config);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        Connection connection = null;
+
+        for (int i = 0; i < mimeMessages.length; i++) {
+            MimeMessage mimeMessage = mimeMessages[i];
+            Object original = originalMessages != null ? originalMessages[i] : mimeMessage;
+
+            try {
+                if (connection == null) {
+                    connection = pool.borrowObject();
+                }
+                send(connection.transport, mimeMessage);
+                connection.sent++;
+            } catch (Exception e) {
+                failedMessages.put(original, e);
+                // the connection may be half way through a transaction; never hand it out again
+                if (connection != null) {
+                    invalidate(connection);
+                    connection = null;
+                }
+                continue;
+            }
+
+            if (connection.sent >= properties.getMaxMessagesPerConnection()) {
+                invalidate(connection);
+                connection = null;
+            }
+        }
+
+        if (connection != null) {
+            pool.returnObject(connection);
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    // what JavaMailSenderImpl does per message once it has a transport
+    private static void send(Transport transport, MimeMessage mimeMessage) throws MessagingException {
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        String messageId = mimeMessage.getMessageID();
+        mimeMessage.saveChanges();
+        if (messageId != null) {
+            // preserve explicitly specified message id
+            mimeMessage.setHeader("Message-ID", messageId);
+        }
+        Address[] addresses = mimeMessage.getAllRecipients();
+        transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+    }
+
+    private void invalidate(Connection connection) {
+        try {
+            pool.invalidateObject(connection);
+        } catch (Exception e) {
+            // the slot is freed either way
+        }
+    }
+
+    public int getActive() {
+        return pool.getNumActive();
+    }
+
+    public int getIdle() {
+        return pool.getNumIdle();
+    }
+
+    public long getCreated() {
+        return pool.getCreatedCount();
+    }
+
+    @Override
+    public void destroy() {
+        pool.close();
+    }
+
+    private final class ConnectionFactory extends BasePooledObjectFactory<Connection> {
+
+        @Override
+        public Connection create() throws MessagingException {
+            return new Connection(connectTransport());
+        }
+
+        @Override
+        public PooledObject<Connection> wrap(Connection connection) {
+            return new DefaultPooledObject<>(connection);
+        }
+
+        // SMTPTransport.isConnected() sends a NOOP and closes the connection if it gets no answer
+        @Override
+        public boolean validateObject(PooledObject<Connection> pooled) {
+            return pooled.getObject().transport.isConnected();
+        }
+
+        @Override
+        public void destroyObject(PooledObject<Connection> pooled) {
+            try {
+                pooled.getObject().transport.close();
+            } catch (MessagingException e) {
+                // already gone
+            }
+        }
+    }
+
+}
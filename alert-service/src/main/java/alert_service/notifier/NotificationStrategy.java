@@ -1,9 +1,17 @@
 package alert_service.notifier;
 
-import alert_service.domain.Logs;
+import alert_service.domain.AlertDigest;
+import common_lib.domain.LogRecord;
 
 public interface NotificationStrategy {
 
-    public void Notify(Logs log) throws Exception;
+    public void Notify(LogRecord log) throws Exception;
+
+    public void NotifyDigest(AlertDigest digest) throws Exception;
+
+    // channels that are not configured get no queue or workers
+    public default boolean isEnabled() {
+        return true;
+    }
 
 }
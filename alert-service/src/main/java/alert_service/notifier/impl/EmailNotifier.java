@@ -1,8 +1,9 @@
 package alert_service.notifier.impl;
 
-import alert_service.domain.Logs;
+import alert_service.domain.AlertDigest;
 import alert_service.notifier.NotificationStrategy;
 import alert_service.utils.HtmlTemplateBuilder;
+import common_lib.domain.LogRecord;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -27,7 +28,17 @@ public class EmailNotifier implements NotificationStrategy {
     private final MailConfig mailConfig;
 
     @Override
-    public void Notify(Logs alert) throws MessagingException {
+    public void Notify(LogRecord alert) throws MessagingException {
+        send(alert.getLevel() + ": From " + alert.getService() + " Service", htmlTemplateBuilder.buildHtml(alert));
+    }
+
+    @Override
+    public void NotifyDigest(AlertDigest digest) throws MessagingException {
+        send(digest.getLevel() + " x" + digest.getCount() + ": From " + digest.getService() + " Service",
+                htmlTemplateBuilder.buildDigestHtml(digest));
+    }
+
+    private void send(String subject, String html) throws MessagingException {
 
         List<EmailSubscribers> subs = env.getEmailSubscribers("email_subscribers");
         String[] toList = subs.stream()
@@ -53,8 +64,8 @@ public class EmailNotifier implements NotificationStrategy {
         System.out.println("Users to be mailed :" + Arrays.toString(toList));
 
         helper.setTo(toList);
-        helper.setSubject(alert.getLevel() + ": From " + alert.getService() + " Service");
-        helper.setText(htmlTemplateBuilder.buildHtml(alert), true);
+        helper.setSubject(subject);
+        helper.setText(html, true);
 
         mailSender.send(mimeMessage);
         System.out.println("📬 Email sent to subscribers: " + String.join(", ", toList));
@@ -0,0 +1,86 @@
+package alert_service.notifier.impl;
+
+import alert_service.config.WebhookProperties;
+import alert_service.domain.AlertDigest;
+import alert_service.notifier.NotificationStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common_lib.domain.LogRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Posts alerts as JSON; "text" is what Slack-style incoming webhooks display, the rest is for other receivers.
+@Component("webhook")
+@RequiredArgsConstructor
+public class WebhookNotifier implements NotificationStrategy {
+
+    private final WebhookProperties properties;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Override
+    public boolean isEnabled() {
+        return properties.getUrl() != null && !properties.getUrl().isBlank();
+    }
+
+    @Override
+    public void Notify(LogRecord alert) throws IOException, InterruptedException {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("text", "🔔 " + alert.getLevel() + " from " + alert.getService() + ": " + alert.getMessage());
+        body.put("service", alert.getService());
+        body.put("level", alert.getLevel());
+        body.put("message", alert.getMessage());
+        body.put("instanceId", alert.getInstanceId());
+        body.put("traceId", alert.getTraceId());
+        body.put("timestamp", String.valueOf(alert.getTimestamp()));
+        body.put("count", 1);
+
+        post(body);
+    }
+
+    @Override
+    public void NotifyDigest(AlertDigest digest) throws IOException, InterruptedException {
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("text", "🔁 " + digest.getLevel() + " x" + digest.getCount() + " from " + digest.getService() + ": " + digest.getTemplate());
+        body.put("service", digest.getService());
+        body.put("level", digest.getLevel());
+        body.put("message", digest.getSample() != null ? digest.getSample().getMessage() : null);
+        body.put("fingerprint", digest.getFingerprint());
+        body.put("count", digest.getCount());
+        body.put("firstSeen", String.valueOf(digest.getFirstSeen()));
+        body.put("lastSeen", String.valueOf(digest.getLastSeen()));
+        body.put("instances", digest.getInstances());
+
+        post(body);
+    }
+
+    private void post(Map<String, Object> body) throws IOException, InterruptedException {
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(properties.getUrl()))
+                .timeout(properties.getTimeout())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                .build();
+
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+
+        // the channel retries anything thrown here
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("webhook answered " + response.statusCode());
+        }
+    }
+}
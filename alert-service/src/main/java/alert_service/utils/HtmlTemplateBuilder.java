@@ -1,12 +1,13 @@
 package alert_service.utils;
 
-import alert_service.domain.Logs;
+import alert_service.domain.AlertDigest;
+import common_lib.domain.LogRecord;
 import org.springframework.stereotype.Component;
 
 @Component
 public class HtmlTemplateBuilder {
 
-    public String buildHtml(Logs alert) {
+    public String buildHtml(LogRecord alert) {
 
         String levelColor = switch (alert.getLevel()) {
             case ERROR -> "#d9534f";
@@ -52,7 +53,7 @@ public class HtmlTemplateBuilder {
 """.formatted(
                 levelColor,
                 alert.getLevel(),                  // h2 header
-                alert.getTimestamp(),              // Time
+                alert.getTimestamp() != null ? alert.getTimestamp() : "-",  // Time, ISO-8601 UTC
                 alert.getService(),                // Service
                 alert.getInstanceId(),             // Instance ID
                 alert.getMessage(),                // Message
@@ -83,4 +84,75 @@ public class HtmlTemplateBuilder {
 
         return html;
     }
+
+    public String buildDigestHtml(AlertDigest digest) {
+
+        String levelColor = switch (digest.getLevel()) {
+            case ERROR -> "#d9534f";
+            case FATAL -> "#f0ad4e";
+            default -> "#999999";
+        };
+
+        LogRecord sample = digest.getSample();
+
+        return """
+<html>
+  <body style='margin:0;padding:0;font-family:Arial,sans-serif;background-color:#f4f4f4;'>
+    <div style='max-width:600px;margin:30px auto;background:#fff;padding:24px;border-radius:12px;
+                box-shadow:0 4px 10px rgba(0,0,0,0.07);'>
+
+      <h2 style='color:%s;margin-top:0;'>🔁 %s Alert x%d</h2>
+
+      %s
+
+      <table style='width:100%%;border-collapse:collapse;margin-top:16px;'>
+        <tr>
+          <td style='padding:8px 0;'><strong>🛠 Service:</strong></td>
+          <td style='padding:8px 0;'>%s</td>
+        </tr>
+        <tr>
+          <td style='padding:8px 0;'><strong>📅 First seen:</strong></td>
+          <td style='padding:8px 0;'>%s</td>
+        </tr>
+        <tr>
+          <td style='padding:8px 0;'><strong>📅 Last seen:</strong></td>
+          <td style='padding:8px 0;'>%s</td>
+        </tr>
+        <tr>
+          <td style='padding:8px 0;'><strong>📌 Instances:</strong></td>
+          <td style='padding:8px 0;'>%s</td>
+        </tr>
+        <tr>
+          <td style='padding:8px 0;'><strong>🧾 Pattern:</strong></td>
+          <td style='padding:8px 0;'>%s</td>
+        </tr>
+        <tr>
+          <td style='padding:8px 0;'><strong>🧾 Sample:</strong></td>
+          <td style='padding:8px 0;'>%s</td>
+        </tr>
+      </table>
+
+      <p style='text-align:center;color:#999;font-size:12px;margin-top:24px;'>
+        Log Monitoring System • Fingerprint: %s • Sample Trace ID: %s
+      </p>
+    </div>
+  </body>
+</html>
+""".formatted(
+                levelColor,
+                digest.getLevel(),
+                digest.getCount(),
+                digest.isFirstSent()
+                        ? "<p style='color:#666;'>The first occurrence was sent as its own alert; these are the repeats since.</p>"
+                        : "",
+                digest.getService(),
+                digest.getFirstSeen(),
+                digest.getLastSeen(),
+                digest.getInstances() == null || digest.getInstances().isEmpty() ? "-" : String.join(", ", digest.getInstances()),
+                digest.getTemplate(),
+                sample != null ? sample.getMessage() : "-",
+                digest.getFingerprint(),
+                sample != null && sample.getTraceId() != null ? sample.getTraceId() : "-"
+        );
+    }
 }
@@ -1,33 +1,197 @@
 package alert_service.utils;
 
+import alert_service.config.EnvCacheProperties;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 import alert_service.domain.EmailSubscribers;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
+/**
+ * Config and subscriber lookups, cached locally so sending an alert does not wait on Redis.
+ *
+ * A value older than refresh-after is still returned and reloaded in the background; only one
+ * older than the ttl is reloaded first. Changes arrive sooner through a pub/sub channel and, when
+ * the server has them enabled, keyspace notifications for the watched keys, both of which reload
+ * the key in the background. When Redis cannot be reached the last value stays in use.
+ */
 @Service
 @RequiredArgsConstructor
-public class RedisEnvService {
+public class RedisEnvService implements MessageListener {
+
+    private static final String KEYSPACE = "__keyspace@*__:";
 
     private final StringRedisTemplate redis;
+    private final RedisMessageListenerContainer listeners;
+    private final EnvCacheProperties cache;
     private final ObjectMapper mapper = new ObjectMapper();
 
+    private final Map<String, Cached<Optional<String>>> strings = new ConcurrentHashMap<>();
+    private final Map<String, Cached<List<EmailSubscribers>>> subscribers = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "redis-env-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private record Cached<T>(T value, long loadedAt, AtomicBoolean refreshing) {
+        Cached(T value, long loadedAt) {
+            this(value, loadedAt, new AtomicBoolean());
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        if (!cache.isEnabled()) {
+            return;
+        }
+        listeners.addMessageListener(this, new ChannelTopic(cache.getChannel()));
+        for (String key : cache.getWatchKeys()) {
+            listeners.addMessageListener(this, new PatternTopic(KEYSPACE + key));
+        }
+        // started off the main thread so the service comes up without Redis
+        refresher.execute(this::listen);
+    }
+
+    private void listen() {
+        try {
+            listeners.start();
+        } catch (RuntimeException e) {
+            // not listening; handled below
+        }
+
+        if (listeners.isListening()) {
+            // changes made while nobody was subscribed were missed
+            invalidate("*");
+            return;
+        }
+
+        listeners.stop();
+        System.err.println("⚠️ Redis invalidations unavailable, retrying in " + cache.getRefreshAfter().toSeconds() + "s");
+        refresher.schedule(this::listen, cache.getRefreshAfter().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
     public Optional<String> getString(String key) {
+        return get(strings, key, this::loadString, Optional.empty());
+    }
+
+    public List<EmailSubscribers> getEmailSubscribers(String key) {
+        return get(subscribers, key, this::loadSubscribers, List.of());
+    }
+
+    // "*" reloads everything cached
+    public void invalidate(String key) {
+        if ("*".equals(key)) {
+            strings.keySet().forEach(k -> reload(strings, k, this::loadString, Optional.empty()));
+            subscribers.keySet().forEach(k -> reload(subscribers, k, this::loadSubscribers, List.of()));
+            return;
+        }
+        if (strings.containsKey(key)) {
+            reload(strings, key, this::loadString, Optional.empty());
+        }
+        if (subscribers.containsKey(key)) {
+            reload(subscribers, key, this::loadSubscribers, List.of());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String key = channel.equals(cache.getChannel())
+                ? new String(message.getBody(), StandardCharsets.UTF_8).trim()
+                : channel.substring(channel.indexOf("__:") + 3);
+        invalidate(key);
+    }
+
+    private <T> T get(Map<String, Cached<T>> map, String key, Function<String, T> loader, T fallback) {
+
+        if (!cache.isEnabled()) {
+            try {
+                return loader.apply(key);
+            } catch (DataAccessException e) {
+                return fallback;
+            }
+        }
+
+        Cached<T> cached = map.get(key);
+        long age = cached == null ? Long.MAX_VALUE : System.currentTimeMillis() - cached.loadedAt();
+
+        if (age >= cache.getTtl().toMillis()) {
+            return load(map, key, loader, fallback).value();
+        }
+        if (age >= cache.getRefreshAfter().toMillis()) {
+            refresh(map, key, loader, fallback);
+        }
+        return cached.value();
+    }
+
+    // refresh-ahead: at most one background reload per cached value
+    private <T> void refresh(Map<String, Cached<T>> map, String key, Function<String, T> loader, T fallback) {
+        Cached<T> cached = map.get(key);
+        if (cached == null || cached.refreshing().compareAndSet(false, true)) {
+            reload(map, key, loader, fallback);
+        }
+    }
+
+    // invalidations always reload; one already running may have read the value before the change
+    private <T> void reload(Map<String, Cached<T>> map, String key, Function<String, T> loader, T fallback) {
         try {
-            return Optional.ofNullable(redis.opsForValue().get(key));
+            refresher.execute(() -> load(map, key, loader, fallback));
+        } catch (RuntimeException e) {
+            // shutting down
+        }
+    }
+
+    private <T> Cached<T> load(Map<String, Cached<T>> map, String key, Function<String, T> loader, T fallback) {
+        Cached<T> loaded;
+        try {
+            loaded = new Cached<>(loader.apply(key), System.currentTimeMillis());
         } catch (DataAccessException e) {
-            return Optional.empty();
+            // Redis unreachable: keep what we had and try again after another refresh interval,
+            // rather than on every alert
+            Cached<T> previous = map.get(key);
+            loaded = new Cached<>(previous != null ? previous.value() : fallback, System.currentTimeMillis());
+            System.err.println("⚠️ Redis lookup of " + key + " failed, using the cached value: " + e.getMessage());
         }
+        map.put(key, loaded);
+        return loaded;
     }
 
-    public List<EmailSubscribers> getEmailSubscribers(String key) {
-        String raw = getString(key).orElse("[]");
+    private Optional<String> loadString(String key) {
+        return Optional.ofNullable(redis.opsForValue().get(key));
+    }
+
+    private List<EmailSubscribers> loadSubscribers(String key) {
+        return parseSubscribers(loadString(key).orElse("[]"));
+    }
+
+    private List<EmailSubscribers> parseSubscribers(String raw) {
         try {
             // First try parse directly as JSON array
             return mapper.readValue(raw, new TypeReference<>() {});
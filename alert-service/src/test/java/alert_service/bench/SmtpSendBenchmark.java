@@ -0,0 +1,107 @@
+package alert_service.bench;
+
+import alert_service.config.SmtpPoolProperties;
+import alert_service.mail.PooledJavaMailSender;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends of one alert-sized HTML mail against a local GreenMail server: JavaMailSenderImpl, which
+ * connects and logs in per message, against PooledJavaMailSender. smtps puts a TLS handshake
+ * on every new connection, the closest GreenMail gets to STARTTLS against a real server.
+ *
+ * Run with bench/run-smtp-bench.sh; Throughput gives sends/s, SampleTime the latency percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 4, time = 3)
+@Fork(1)
+public class SmtpSendBenchmark {
+
+    @Param({"smtp", "smtps"})
+    public String protocol;
+
+    private GreenMail greenMail;
+
+    private JavaMailSenderImpl plain;
+
+    private PooledJavaMailSender pooled;
+
+    @Setup
+    public void setup() {
+        greenMail = new GreenMail(new ServerSetup(0, "127.0.0.1", protocol));
+        greenMail.start();
+        greenMail.setUser("alerts@logsy.io", "alerts", "secret");
+
+        int port = protocol.equals("smtp") ? greenMail.getSmtp().getPort() : greenMail.getSmtps().getPort();
+        plain = configure(new JavaMailSenderImpl(), port);
+        pooled = configure(new PooledJavaMailSender(new SmtpPoolProperties()), port);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pooled.destroy();
+        greenMail.stop();
+    }
+
+    // GreenMail keeps every message in memory
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @Benchmark
+    public void perMessageConnection() throws Exception {
+        plain.send(message(plain));
+    }
+
+    @Benchmark
+    public void pooledConnection() throws Exception {
+        pooled.send(message(pooled));
+    }
+
+    private <T extends JavaMailSenderImpl> T configure(T sender, int port) {
+        sender.setProtocol(protocol);
+        sender.setHost("127.0.0.1");
+        sender.setPort(port);
+        sender.setUsername("alerts");
+        sender.setPassword("secret");
+        sender.getJavaMailProperties().put("mail." + protocol + ".auth", "true");
+        // GreenMail's certificate is self-signed
+        sender.getJavaMailProperties().put("mail." + protocol + ".ssl.trust", "*");
+        sender.getJavaMailProperties().put("mail." + protocol + ".ssl.checkserveridentity", "false");
+        return sender;
+    }
+
+    private static MimeMessage message(JavaMailSenderImpl sender) throws Exception {
+        MimeMessage message = sender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setFrom("alerts@logsy.io");
+        helper.setTo(new String[]{"oncall@logsy.io", "sre@logsy.io"});
+        helper.setSubject("FATAL: From payments Service");
+        helper.setText("<html><body><h2>FATAL Alert</h2><p>Payment authorization failed for order 81723:"
+                + " upstream gateway timeout after 3000 ms</p></body></html>", true);
+        return message;
+    }
+
+}
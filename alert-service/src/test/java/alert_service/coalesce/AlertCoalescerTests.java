@@ -0,0 +1,71 @@
+package alert_service.coalesce;
+
+import alert_service.config.CoalesceProperties;
+import alert_service.domain.AlertDigest;
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertCoalescerTests {
+
+	private final Instant t0 = Instant.parse("2026-09-01T10:00:00Z");
+
+	@Test
+	void firstOccurrenceGoesOutAndRepeatsBecomeOneDigestPerWindow() {
+		AlertCoalescer coalescer = coalescer();
+
+		assertTrue(coalescer.admit(alert(Level.FATAL, "db timeout after 3000 ms", "i-1"), t0));
+		for (int i = 0; i < 50; i++) {
+			assertFalse(coalescer.admit(alert(Level.FATAL, "db timeout after " + i + " ms", "i-" + (i % 8)), t0.plusSeconds(i)));
+		}
+		// a different message is its own group, and its first occurrence goes out at once too
+		assertTrue(coalescer.admit(alert(Level.ERROR, "disk full", "i-1"), t0.plusSeconds(1)));
+		assertFalse(coalescer.admit(alert(Level.ERROR, "disk full", "i-2"), t0.plusSeconds(2)));
+
+		assertTrue(coalescer.drain(t0.plusSeconds(30), false).isEmpty());
+
+		List<AlertDigest> digests = coalescer.drain(t0.plusSeconds(61), false);
+		assertEquals(2, digests.size());
+		AlertDigest fatal = digests.stream().filter(d -> d.getLevel() == Level.FATAL).findFirst().orElseThrow();
+		assertEquals(50, fatal.getCount());
+		assertTrue(fatal.isFirstSent());
+		assertEquals("db timeout after <n> ms", fatal.getTemplate());
+		assertEquals(5, fatal.getInstances().size());
+		assertEquals(t0, fatal.getFirstSeen());
+		assertEquals(t0.plusSeconds(49), fatal.getLastSeen());
+		AlertDigest error = digests.stream().filter(d -> d.getLevel() == Level.ERROR).findFirst().orElseThrow();
+		assertEquals(1, error.getCount());
+		assertTrue(error.isFirstSent());
+		assertFalse(error.isSingle());
+
+		// still firing: folded into the next window rather than sent as a new first alert
+		assertFalse(coalescer.admit(alert(Level.FATAL, "db timeout after 7 ms", "i-1"), t0.plusSeconds(70)));
+		assertEquals(1, coalescer.drain(t0.plusSeconds(122), false).size());
+
+		// a quiet window closes the group, so the next occurrence is a first again
+		assertTrue(coalescer.drain(t0.plusSeconds(183), false).isEmpty());
+		assertTrue(coalescer.admit(alert(Level.FATAL, "db timeout after 7 ms", "i-1"), t0.plusSeconds(200)));
+	}
+
+	private static AlertCoalescer coalescer() {
+		CoalesceProperties properties = new CoalesceProperties();
+		properties.setWindow(Duration.ofMinutes(1));
+		AlertCoalescer coalescer = new AlertCoalescer(properties, new SimpleMeterRegistry());
+		coalescer.init();
+		return coalescer;
+	}
+
+	private static LogRecord alert(Level level, String message, String instance) {
+		return LogRecord.builder().service("payments").level(level).message(message).instanceId(instance).build();
+	}
+
+}
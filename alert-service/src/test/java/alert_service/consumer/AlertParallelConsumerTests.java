@@ -0,0 +1,62 @@
+package alert_service.consumer;
+
+import alert_service.dispatcher.ChannelFullException;
+import alert_service.dispatcher.impl.AlertDispatcherServiceImpl;
+import common_lib.concurrent.KeyOrderedExecutor;
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import common_lib.kafka.DeadLetters;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+
+class AlertParallelConsumerTests {
+
+	@Test
+	void nothingAfterTheFirstAlertWithoutRoomIsHandedOver() throws Exception {
+		AlertDispatcherServiceImpl dispatch = Mockito.mock(AlertDispatcherServiceImpl.class);
+		List<String> handedOver = new CopyOnWriteArrayList<>();
+		Mockito.doAnswer(inv -> handedOver.add(inv.<LogRecord>getArgument(0).getMessage()))
+				.when(dispatch).dispatchReserved(any());
+		// room for two alerts, then the email queue is full
+		Mockito.doNothing().doNothing().doThrow(new ChannelFullException("email"))
+				.doNothing().when(dispatch).reserve();
+
+		DeadLetters deadLetters = Mockito.mock(DeadLetters.class);
+		Mockito.when(deadLetters.route(any())).thenReturn(false);
+
+		AlertParallelConsumer consumer = new AlertParallelConsumer(dispatch,
+				new KeyOrderedExecutor(Executors.newFixedThreadPool(4), 100), deadLetters);
+
+		// every alert has its own key, so workers would happily run the later ones first
+		List<ConsumerRecord<String, LogRecord>> poll = List.of(
+				record(0, "payments", "db down"),
+				record(1, "orders", "disk full"),
+				record(2, "search", "queue stuck"),
+				record(3, "billing", "cert expired"),
+				record(4, "auth", "token store down"));
+
+		BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class, () -> consumer.AlertReciver(poll));
+		assertEquals(2, e.getIndex());
+		assertInstanceOf(ChannelFullException.class, e.getCause());
+		assertEquals(List.of("db down", "disk full"), handedOver.stream().sorted().toList());
+		Mockito.verify(dispatch, Mockito.times(3)).reserve();
+		Mockito.verify(dispatch, Mockito.never()).release();
+	}
+
+	private static ConsumerRecord<String, LogRecord> record(long offset, String service, String message) {
+		return new ConsumerRecord<>("alert-topic", 0, offset, service,
+				LogRecord.builder().service(service).level(Level.ERROR).message(message).build());
+	}
+
+}
@@ -0,0 +1,174 @@
+package alert_service.dispatcher;
+
+import alert_service.config.DispatchProperties;
+import alert_service.config.WebhookProperties;
+import alert_service.domain.AlertDigest;
+import alert_service.notifier.NotificationStrategy;
+import alert_service.notifier.impl.WebhookNotifier;
+import com.sun.net.httpserver.HttpServer;
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+class NotificationChannelTests {
+
+	private HttpServer stub;
+
+	@AfterEach
+	void stop() {
+		if (stub != null) {
+			stub.stop(0);
+		}
+	}
+
+	@Test
+	void webhookAlertsAreRetriedUntilTheStubAccepts() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		List<String> bodies = new CopyOnWriteArrayList<>();
+		stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		stub.createContext("/hook", exchange -> {
+			String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			// the first two posts fail
+			int status = calls.incrementAndGet() <= 2 ? 503 : 200;
+			if (status == 200) {
+				bodies.add(body);
+			}
+			exchange.sendResponseHeaders(status, -1);
+			exchange.close();
+		});
+		stub.start();
+
+		WebhookProperties webhook = new WebhookProperties();
+		webhook.setUrl("http://127.0.0.1:" + stub.getAddress().getPort() + "/hook");
+
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		NotificationChannel channel = new NotificationChannel("webhook", new WebhookNotifier(webhook), properties(), deadLetters(), registry);
+
+		assertTrue(channel.reserve());
+		channel.put(new NotificationChannel.Delivery(alert(), null));
+		channel.shutdown();
+
+		assertEquals(3, calls.get());
+		assertEquals(1, bodies.size());
+		assertTrue(bodies.get(0).contains("FATAL from payments: db down"), bodies.get(0));
+		assertTrue(bodies.get(0).contains("\"count\":1"), bodies.get(0));
+		assertEquals(2.0, registry.get("logsy.alert.channel.retried").counter().count());
+		assertEquals(1.0, registry.get("logsy.alert.channel.sent").counter().count());
+	}
+
+	@Test
+	void alertsGivenUpOnOrLeftAtShutdownGoToTheDeadLetterTopic() throws Exception {
+		List<ProducerRecord<String, byte[]>> published = new CopyOnWriteArrayList<>();
+		KafkaTemplate<String, byte[]> template = template(published);
+		AlertDeadLetters deadLetters = new AlertDeadLetters(template, "alert-topic.DLT", new SimpleMeterRegistry().counter("dlt"));
+
+		CountDownLatch stuck = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		NotificationStrategy strategy = new NotificationStrategy() {
+			@Override
+			public void Notify(LogRecord log) throws Exception {
+				if (calls.incrementAndGet() <= 2) {
+					throw new IOException("smtp 451");
+				}
+				// the next one hangs until shutdown interrupts it
+				stuck.countDown();
+				new CountDownLatch(1).await();
+			}
+
+			@Override
+			public void NotifyDigest(AlertDigest digest) {
+			}
+		};
+
+		DispatchProperties properties = properties();
+		properties.setMaxAttempts(2);
+		properties.setShutdownTimeout(Duration.ofMillis(100));
+		NotificationChannel channel = new NotificationChannel("email", strategy, properties, deadLetters, new SimpleMeterRegistry());
+
+		for (String message : List.of("db down", "disk full", "queue stuck")) {
+			assertTrue(channel.reserve());
+			channel.put(new NotificationChannel.Delivery(alert(message), null));
+		}
+		stuck.await();
+		channel.shutdown();
+
+		assertEquals(List.of("db down", "disk full", "queue stuck"), published.stream()
+				.map(r -> new String(r.value(), StandardCharsets.UTF_8).replaceAll(".*\"message\":\"([^\"]*)\".*", "$1"))
+				.toList());
+		assertEquals(List.of("gave up after 2 attempts: smtp 451", "interrupted at shutdown", "still queued at shutdown"), published.stream()
+				.map(r -> new String(r.headers().lastHeader(AlertDeadLetters.REASON_HEADER).value(), StandardCharsets.UTF_8))
+				.toList());
+		assertEquals("email", new String(published.get(0).headers().lastHeader(AlertDeadLetters.CHANNEL_HEADER).value(), StandardCharsets.UTF_8));
+		assertEquals("payments", published.get(0).key());
+	}
+
+	@Test
+	void breakerOpensAfterConsecutiveFailuresAndClosesOnATrialSuccess() {
+		CircuitBreaker breaker = new CircuitBreaker(3, 1000);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, breaker.acquire(0));
+			breaker.onFailure(0);
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertEquals(600, breaker.acquire(400));
+
+		assertEquals(0, breaker.acquire(1000));
+		assertTrue(breaker.acquire(1000) > 0);
+		breaker.onFailure(1100);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+
+		assertEquals(0, breaker.acquire(2100));
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+	}
+
+	private static DispatchProperties properties() {
+		DispatchProperties properties = new DispatchProperties();
+		properties.setWorkers(1);
+		properties.setInitialBackoff(Duration.ofMillis(10));
+		properties.setBreakerFailures(10);
+		return properties;
+	}
+
+	private static LogRecord alert() {
+		return alert("db down");
+	}
+
+	private static LogRecord alert(String message) {
+		return LogRecord.builder().service("payments").level(Level.FATAL).message(message).instanceId("i-1").build();
+	}
+
+	private static AlertDeadLetters deadLetters() {
+		return new AlertDeadLetters(template(new CopyOnWriteArrayList<>()), "alert-topic.DLT", new SimpleMeterRegistry().counter("dlt"));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static KafkaTemplate<String, byte[]> template(List<ProducerRecord<String, byte[]>> published) {
+		KafkaTemplate<String, byte[]> template = Mockito.mock(KafkaTemplate.class);
+		Mockito.when(template.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+			published.add(inv.getArgument(0));
+			return CompletableFuture.completedFuture(null);
+		});
+		return template;
+	}
+
+}
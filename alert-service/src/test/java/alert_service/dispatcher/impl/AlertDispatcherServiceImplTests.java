@@ -0,0 +1,115 @@
+package alert_service.dispatcher.impl;
+
+import alert_service.coalesce.AlertCoalescer;
+import alert_service.config.CoalesceProperties;
+import alert_service.config.DispatchProperties;
+import alert_service.dispatcher.AlertDeadLetters;
+import alert_service.dispatcher.ChannelFullException;
+import alert_service.domain.AlertDigest;
+import alert_service.notifier.NotificationStrategy;
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AlertDispatcherServiceImplTests {
+
+	@Test
+	void anAlertOneChannelHasNoRoomForIsHandedToNoneAndCanBeRedelivered() throws Exception {
+		CountDownLatch emailDown = new CountDownLatch(1);
+		Recording webhook = new Recording(null);
+		Recording email = new Recording(emailDown);
+
+		Map<String, NotificationStrategy> strategies = new LinkedHashMap<>();
+		strategies.put("webhook", webhook);
+		strategies.put("email", email);
+
+		DispatchProperties properties = new DispatchProperties();
+		properties.setQueueCapacity(1);
+		properties.setWorkers(1);
+		properties.setOfferTimeout(Duration.ofMillis(50));
+
+		AlertCoalescer coalescer = new AlertCoalescer(new CoalesceProperties(), new SimpleMeterRegistry());
+		coalescer.init();
+
+		AlertDispatcherServiceImpl dispatcher = new AlertDispatcherServiceImpl();
+		ReflectionTestUtils.setField(dispatcher, "strategies", strategies);
+		ReflectionTestUtils.setField(dispatcher, "coalescer", coalescer);
+		ReflectionTestUtils.setField(dispatcher, "properties", properties);
+		ReflectionTestUtils.setField(dispatcher, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(dispatcher, "deadLetters", Mockito.mock(AlertDeadLetters.class));
+		dispatcher.init();
+
+		// the email worker hangs on the first alert and its one-slot queue takes the second
+		dispatcher.dispatch(alert("db down"));
+		email.started.await();
+		dispatcher.dispatch(alert("disk full"));
+
+		assertThrows(ChannelFullException.class, () -> dispatcher.dispatch(alert("queue stuck")));
+
+		emailDown.countDown();
+		// redelivered, as the listener's error handler would, until email has room again:
+		// still a first occurrence, and the webhook's slot was given back each time
+		redeliver(dispatcher, alert("queue stuck"));
+		dispatcher.shutdown();
+
+		assertEquals(List.of("db down", "disk full", "queue stuck"), webhook.messages);
+		assertEquals(List.of("db down", "disk full", "queue stuck"), email.messages);
+	}
+
+	private static void redeliver(AlertDispatcherServiceImpl dispatcher, LogRecord alert) throws InterruptedException {
+		while (true) {
+			try {
+				dispatcher.dispatch(alert);
+				return;
+			} catch (ChannelFullException e) {
+				Thread.sleep(10);
+			}
+		}
+	}
+
+	private static LogRecord alert(String message) {
+		return LogRecord.builder().service("payments").level(Level.ERROR).message(message).instanceId("i-1").build();
+	}
+
+	private static final class Recording implements NotificationStrategy {
+
+		final List<String> messages = new CopyOnWriteArrayList<>();
+
+		final CountDownLatch started = new CountDownLatch(1);
+
+		private final CountDownLatch down;
+
+		Recording(CountDownLatch down) {
+			this.down = down;
+		}
+
+		@Override
+		public void Notify(LogRecord log) throws Exception {
+			started.countDown();
+			if (down != null) {
+				down.await();
+			}
+			messages.add(log.getMessage());
+		}
+
+		@Override
+		public void NotifyDigest(AlertDigest digest) {
+			messages.add(digest.getTemplate());
+		}
+
+	}
+
+}
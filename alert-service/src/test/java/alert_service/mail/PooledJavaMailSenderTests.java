@@ -0,0 +1,90 @@
+package alert_service.mail;
+
+import alert_service.config.SmtpPoolProperties;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PooledJavaMailSenderTests {
+
+	private GreenMail greenMail;
+
+	private PooledJavaMailSender sender;
+
+	@BeforeEach
+	void start() {
+		greenMail = new GreenMail(new ServerSetup(0, "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+		greenMail.start();
+		greenMail.setUser("alerts@logsy.io", "alerts", "secret");
+	}
+
+	@AfterEach
+	void stop() {
+		sender.destroy();
+		greenMail.stop();
+	}
+
+	@Test
+	void reusesOneConnectionAcrossSends() throws Exception {
+		sender = sender(new SmtpPoolProperties(), greenMail.getSmtp().getPort());
+
+		for (int i = 0; i < 20; i++) {
+			sender.send(message("alert " + i));
+		}
+
+		assertEquals(20, greenMail.getReceivedMessages().length);
+		assertEquals(1, sender.getCreated());
+		assertEquals(1, sender.getIdle());
+	}
+
+	@Test
+	void replacesConnectionsTheServerDroppedAndRetiresBusyOnes() throws Exception {
+		SmtpPoolProperties properties = new SmtpPoolProperties();
+		properties.setMaxMessagesPerConnection(5);
+		int port = greenMail.getSmtp().getPort();
+		sender = sender(properties, port);
+
+		sender.send(message("before restart"));
+
+		// every pooled connection is now dead; the NOOP on borrow finds out
+		greenMail.stop();
+		greenMail = new GreenMail(new ServerSetup(port, "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+		greenMail.start();
+		greenMail.setUser("alerts@logsy.io", "alerts", "secret");
+
+		for (int i = 0; i < 10; i++) {
+			sender.send(message("after restart " + i));
+		}
+
+		assertEquals(10, greenMail.getReceivedMessages().length);
+		// the first connection, its replacement, and one more after the replacement sent five
+		assertEquals(3, sender.getCreated());
+	}
+
+	private static PooledJavaMailSender sender(SmtpPoolProperties properties, int port) {
+		PooledJavaMailSender sender = new PooledJavaMailSender(properties);
+		sender.setHost("127.0.0.1");
+		sender.setPort(port);
+		sender.setUsername("alerts");
+		sender.setPassword("secret");
+		sender.getJavaMailProperties().put("mail.smtp.auth", "true");
+		return sender;
+	}
+
+	private MimeMessage message(String subject) throws Exception {
+		MimeMessage message = sender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(message, true);
+		helper.setFrom("alerts@logsy.io");
+		helper.setTo("oncall@logsy.io");
+		helper.setSubject(subject);
+		helper.setText("<p>" + subject + "</p>", true);
+		return message;
+	}
+
+}
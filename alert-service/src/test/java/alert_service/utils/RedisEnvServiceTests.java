@@ -0,0 +1,97 @@
+package alert_service.utils;
+
+import alert_service.config.EnvCacheProperties;
+import alert_service.domain.EmailSubscribers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisEnvServiceTests {
+
+	private static final String ONE = "[{\"email\":\"a@x.io\",\"active\":true}]";
+
+	private static final String TWO = "\"[{\\\"email\\\":\\\"a@x.io\\\",\\\"active\\\":true},{\\\"email\\\":\\\"b@x.io\\\",\\\"active\\\":true}]\"";
+
+	@SuppressWarnings("unchecked")
+	private final ValueOperations<String, String> values = Mockito.mock(ValueOperations.class);
+
+	private RedisEnvService env;
+
+	@AfterEach
+	void stop() {
+		env.shutdown();
+	}
+
+	@Test
+	void servesFromMemoryAndReloadsOnInvalidation() throws Exception {
+		env = env(Duration.ofSeconds(30));
+		Mockito.when(values.get("email_subscribers")).thenReturn(ONE);
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(1, env.getEmailSubscribers("email_subscribers").size());
+		}
+		Mockito.verify(values, Mockito.times(1)).get("email_subscribers");
+
+		Mockito.when(values.get("email_subscribers")).thenReturn(TWO);
+		env.onMessage(new DefaultMessage("logsy:env:invalidate".getBytes(StandardCharsets.UTF_8),
+				"email_subscribers".getBytes(StandardCharsets.UTF_8)), null);
+		assertTrue(eventually(() -> env.getEmailSubscribers("email_subscribers").size() == 2));
+
+		Mockito.when(values.get("email_subscribers")).thenReturn("[]");
+		env.onMessage(new DefaultMessage("__keyspace@0__:email_subscribers".getBytes(StandardCharsets.UTF_8),
+				"set".getBytes(StandardCharsets.UTF_8)), null);
+		assertTrue(eventually(() -> env.getEmailSubscribers("email_subscribers").isEmpty()));
+	}
+
+	@Test
+	void keepsTheLastValueWhileRedisIsDown() throws Exception {
+		env = env(Duration.ZERO);
+		Mockito.when(values.get("dispatcher_email")).thenReturn("alerts@x.io");
+		assertEquals(Optional.of("alerts@x.io"), env.getString("dispatcher_email"));
+
+		// every read now refreshes in the background, and every refresh fails
+		Mockito.when(values.get("dispatcher_email")).thenThrow(new RedisConnectionFailureException("down"));
+		for (int i = 0; i < 20; i++) {
+			assertEquals(Optional.of("alerts@x.io"), env.getString("dispatcher_email"));
+			Thread.sleep(5);
+		}
+		List<EmailSubscribers> none = env.getEmailSubscribers("email_subscribers");
+		assertTrue(none.isEmpty());
+	}
+
+	private RedisEnvService env(Duration refreshAfter) {
+		StringRedisTemplate redis = Mockito.mock(StringRedisTemplate.class);
+		Mockito.when(redis.opsForValue()).thenReturn(values);
+
+		EnvCacheProperties properties = new EnvCacheProperties();
+		properties.setRefreshAfter(refreshAfter);
+		properties.setWatchKeys(List.of());
+
+		return new RedisEnvService(redis, Mockito.mock(RedisMessageListenerContainer.class), properties);
+	}
+
+	private static boolean eventually(Supplier<Boolean> condition) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (condition.get()) {
+				return true;
+			}
+			Thread.sleep(10);
+		}
+		return false;
+	}
+
+}
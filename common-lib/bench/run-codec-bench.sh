@@ -0,0 +1,11 @@
+#!/bin/bash
+# JMH comparison of the binary log codec against the JSON path.
+# Extra arguments are passed to JMH, e.g. bench/run-codec-bench.sh -prof gc
+
+set -e
+cd "$(dirname "$0")/.."
+
+mvn -q test-compile exec:exec \
+  -Dexec.classpathScope=test \
+  -Dexec.executable=java \
+  -Dexec.args="-cp %classpath org.openjdk.jmh.Main LogRecordCodecBenchmark $*"
@@ -0,0 +1,70 @@
+package common_lib.codec;
+
+import java.nio.charset.StandardCharsets;
+
+final class BinaryReader {
+
+    private final byte[] buf;
+    private int pos;
+
+    BinaryReader(byte[] buf) {
+        this.buf = buf;
+    }
+
+    int readByte() {
+        require(1);
+        return buf[pos++] & 0xFF;
+    }
+
+    int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at " + pos);
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varlong at " + pos);
+    }
+
+    long readZigZagLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    double readDouble() {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (long) (buf[pos++] & 0xFF) << (i * 8);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    String readString() {
+        int length = readVarInt();
+        require(length);
+        String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return value;
+    }
+
+    private void require(int bytes) {
+        if (bytes < 0 || pos + bytes > buf.length) {
+            throw new IllegalStateException("Truncated log record: need " + bytes + " bytes at " + pos + " of " + buf.length);
+        }
+    }
+}
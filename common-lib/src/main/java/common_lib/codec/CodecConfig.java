@@ -0,0 +1,26 @@
+package common_lib.codec;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public final class CodecConfig {
+
+    // Comma separated (or list) service dictionary, e.g. spring.kafka.producer.properties.logsy.codec.services
+    public static final String SERVICES = "logsy.codec.services";
+
+    private CodecConfig() {
+    }
+
+    static List<String> services(Map<String, ?> configs) {
+        Object raw = configs.get(SERVICES);
+        if (raw instanceof Collection<?> c) {
+            return c.stream().map(String::valueOf).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        }
+        if (raw instanceof String s && !s.isBlank()) {
+            return Arrays.stream(s.split(",")).map(String::trim).filter(v -> !v.isEmpty()).toList();
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,219 @@
+package common_lib.codec;
+
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of a {@link LogRecord}.
+ *
+ * <pre>
+ * magic(0xFE) version(1) level flags
+ * epochSecond(zigzag varlong) nanos(varint)
+ * service: varint dictionary ref (0 = inline string follows)
+ * message: string
+ * [instanceId] [traceId] [stackTrace] [metadata] [eventId]   present when their flag bit is set
+ * </pre>
+ *
+ * Strings are varint length prefixed UTF-8. The level sits at a fixed offset (2) so routers
+ * can branch on it without decoding the rest. 0xFE never starts a UTF-8/JSON payload,
+ * which lets readers accept both this format and the legacy JSON one on the same topic.
+ */
+public class LogRecordCodec {
+
+    public static final byte MAGIC = (byte) 0xFE;
+    public static final int VERSION = 1;
+    public static final int LEVEL_OFFSET = 2;
+
+    private static final int HAS_INSTANCE = 1;
+    private static final int HAS_TRACE = 1 << 1;
+    private static final int HAS_STACK = 1 << 2;
+    private static final int HAS_METADATA = 1 << 3;
+    private static final int HAS_EVENT = 1 << 4;
+
+    private static final int T_NULL = 0;
+    private static final int T_STRING = 1;
+    private static final int T_LONG = 2;
+    private static final int T_DOUBLE = 3;
+    private static final int T_TRUE = 4;
+    private static final int T_FALSE = 5;
+    private static final int T_MAP = 6;
+    private static final int T_LIST = 7;
+
+    // Shared, append-only list of well known service names. Writer and reader must agree on it.
+    private final List<String> services;
+    private final Map<String, Integer> serviceRefs = new HashMap<>();
+
+    public LogRecordCodec() {
+        this(List.of());
+    }
+
+    public LogRecordCodec(List<String> services) {
+        this.services = List.copyOf(services);
+        for (int i = 0; i < this.services.size(); i++) {
+            serviceRefs.putIfAbsent(this.services.get(i), i + 1);
+        }
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public byte[] encode(LogRecord record) {
+
+        if (record.getLevel() == null || record.getTimestamp() == null || record.getService() == null) {
+            throw new IllegalArgumentException("timestamp, level and service are required");
+        }
+
+        int flags = (record.getInstanceId() != null ? HAS_INSTANCE : 0)
+                | (record.getTraceId() != null ? HAS_TRACE : 0)
+                | (record.getStackTrace() != null ? HAS_STACK : 0)
+                | (record.getMetadata() != null ? HAS_METADATA : 0)
+                | (record.getEventId() != null ? HAS_EVENT : 0);
+
+        BinaryWriter out = new BinaryWriter(64 + (record.getMessage() == null ? 0 : record.getMessage().length()));
+
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(record.getLevel().code());
+        out.writeByte(flags);
+
+        out.writeZigZagLong(record.getTimestamp().getEpochSecond());
+        out.writeVarInt(record.getTimestamp().getNano());
+
+        Integer ref = serviceRefs.get(record.getService());
+        if (ref != null) {
+            out.writeVarInt(ref);
+        } else {
+            out.writeVarInt(0);
+            out.writeString(record.getService());
+        }
+
+        out.writeString(record.getMessage() == null ? "" : record.getMessage());
+
+        if ((flags & HAS_INSTANCE) != 0) out.writeString(record.getInstanceId());
+        if ((flags & HAS_TRACE) != 0) out.writeString(record.getTraceId());
+        if ((flags & HAS_STACK) != 0) out.writeString(record.getStackTrace());
+        if ((flags & HAS_METADATA) != 0) writeMap(out, record.getMetadata());
+        if ((flags & HAS_EVENT) != 0) out.writeString(record.getEventId());
+
+        return out.toByteArray();
+    }
+
+    public LogRecord decode(byte[] data) {
+
+        BinaryReader in = new BinaryReader(data);
+
+        if ((byte) in.readByte() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary log record");
+        }
+
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported log record version " + version);
+        }
+
+        LogRecord record = new LogRecord();
+        record.setLevel(Level.fromCode(in.readByte()));
+        int flags = in.readByte();
+
+        long seconds = in.readZigZagLong();
+        int nanos = in.readVarInt();
+        record.setTimestamp(Instant.ofEpochSecond(seconds, nanos));
+
+        int ref = in.readVarInt();
+        if (ref == 0) {
+            record.setService(in.readString());
+        } else if (ref <= services.size()) {
+            record.setService(services.get(ref - 1));
+        } else {
+            throw new IllegalArgumentException("Unknown service dictionary ref " + ref);
+        }
+
+        record.setMessage(in.readString());
+
+        if ((flags & HAS_INSTANCE) != 0) record.setInstanceId(in.readString());
+        if ((flags & HAS_TRACE) != 0) record.setTraceId(in.readString());
+        if ((flags & HAS_STACK) != 0) record.setStackTrace(in.readString());
+        if ((flags & HAS_METADATA) != 0) record.setMetadata(readMap(in));
+        if ((flags & HAS_EVENT) != 0) record.setEventId(in.readString());
+
+        return record;
+    }
+
+    private void writeMap(BinaryWriter out, Map<?, ?> map) {
+        out.writeVarInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            out.writeString(String.valueOf(entry.getKey()));
+            writeValue(out, entry.getValue());
+        }
+    }
+
+    private void writeValue(BinaryWriter out, Object value) {
+        if (value == null) {
+            out.writeByte(T_NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(T_STRING);
+            out.writeString(s);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(T_LONG);
+            out.writeZigZagLong(((Number) value).longValue());
+        } else if (value instanceof Number n) {
+            out.writeByte(T_DOUBLE);
+            out.writeDouble(n.doubleValue());
+        } else if (value instanceof Boolean b) {
+            out.writeByte(b ? T_TRUE : T_FALSE);
+        } else if (value instanceof Map<?, ?> m) {
+            out.writeByte(T_MAP);
+            writeMap(out, m);
+        } else if (value instanceof Collection<?> c) {
+            out.writeByte(T_LIST);
+            out.writeVarInt(c.size());
+            for (Object item : c) {
+                writeValue(out, item);
+            }
+        } else {
+            out.writeByte(T_STRING);
+            out.writeString(value.toString());
+        }
+    }
+
+    private Map<String, Object> readMap(BinaryReader in) {
+        int size = in.readVarInt();
+        Map<String, Object> map = new LinkedHashMap<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            String key = in.readString();
+            map.put(key, readValue(in));
+        }
+        return map;
+    }
+
+    private Object readValue(BinaryReader in) {
+        int tag = in.readByte();
+        return switch (tag) {
+            case T_NULL -> null;
+            case T_STRING -> in.readString();
+            case T_LONG -> in.readZigZagLong();
+            case T_DOUBLE -> in.readDouble();
+            case T_TRUE -> Boolean.TRUE;
+            case T_FALSE -> Boolean.FALSE;
+            case T_MAP -> readMap(in);
+            case T_LIST -> {
+                int size = in.readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                yield list;
+            }
+            default -> throw new IllegalArgumentException("Unknown metadata value tag " + tag);
+        };
+    }
+}
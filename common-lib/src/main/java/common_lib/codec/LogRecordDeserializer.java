@@ -0,0 +1,41 @@
+package common_lib.codec;
+
+import common_lib.domain.LogRecord;
+import common_lib.kafka.JsonRecordDeserializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Reads both forms a log topic can carry: LogRecordCodec binary (first byte 0xFE) and the JSON the ingestor writes by default.
+public class LogRecordDeserializer implements Deserializer<LogRecord> {
+
+    private LogRecordCodec codec = new LogRecordCodec();
+
+    private final JsonRecordDeserializer<LogRecord> json = new JsonRecordDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        codec = new LogRecordCodec(CodecConfig.services(configs));
+
+        Map<String, Object> jsonConfigs = new HashMap<>(configs);
+        jsonConfigs.put(JsonRecordDeserializer.VALUE_TYPE, LogRecord.class);
+        json.configure(jsonConfigs, isKey);
+    }
+
+    @Override
+    public LogRecord deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!LogRecordCodec.isBinary(data)) {
+            return json.deserialize(topic, data);
+        }
+        try {
+            return codec.decode(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Cannot decode log record from " + topic, e);
+        }
+    }
+}
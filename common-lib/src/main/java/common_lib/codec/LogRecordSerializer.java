@@ -0,0 +1,29 @@
+package common_lib.codec;
+
+import common_lib.domain.LogRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+public class LogRecordSerializer implements Serializer<LogRecord> {
+
+    private LogRecordCodec codec = new LogRecordCodec();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        codec = new LogRecordCodec(CodecConfig.services(configs));
+    }
+
+    @Override
+    public byte[] serialize(String topic, LogRecord data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return codec.encode(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Cannot encode log record for " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package common_lib.concurrent;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs tasks in parallel across keys while keeping tasks with the same key in submission order.
+ * Each key keeps only its latest task; the next one for that key is chained behind it and the
+ * entry is dropped once the chain runs dry, so idle keys cost nothing.
+ *
+ * At most {@code maxInFlight} tasks are queued or running; {@link #submit} blocks beyond that,
+ * which pushes back on whoever is feeding it (typically a Kafka poll loop).
+ */
+public final class KeyOrderedExecutor {
+
+    private final Executor executor;
+
+    private final int maxInFlight;
+
+    private final Semaphore inFlight;
+
+    private final Map<Object, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(Executor executor, int maxInFlight) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * A null key is treated as its own key, so key-less records are still ordered among themselves.
+     * The returned future completes exceptionally if the task throws; later tasks for the key still run.
+     */
+    public CompletableFuture<Void> submit(Object key, Runnable task) throws InterruptedException {
+
+        inFlight.acquire();
+
+        Object k = key == null ? KeyOrderedExecutor.class : key;
+        Runnable guarded = () -> {
+            try {
+                task.run();
+            } finally {
+                inFlight.release();
+            }
+        };
+
+        CompletableFuture<Void> next = tails.compute(k, (ignored, tail) -> tail == null
+                ? CompletableFuture.runAsync(guarded, executor)
+                : tail.handle((r, e) -> null).thenRunAsync(guarded, executor));
+
+        next.whenComplete((r, e) -> tails.remove(k, next));
+
+        return next;
+    }
+
+    public int activeKeys() {
+        return tails.size();
+    }
+
+    public int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+}
@@ -0,0 +1,40 @@
+package common_lib.domain;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import common_lib.domain.enums.Level;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+// The one log model every service reads off Kafka, in JSON or in the LogRecordCodec binary form.
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LogRecord {
+
+    private Instant timestamp;
+
+    private Level level;
+
+    private String message;
+
+    private String service;
+
+    private String instanceId;
+
+    private Map<String, Object> metadata;
+
+    private String traceId;
+
+    private String stackTrace;
+
+    // producer-assigned and stable across retries; consumers derive their ids from it
+    private String eventId;
+
+}
@@ -0,0 +1,40 @@
+package common_lib.domain.enums;
+
+// Codes are part of the wire format: never renumber, only append.
+public enum Level {
+    TRACE(1),
+    DEBUG(2),
+    INFO(3),
+    WARN(4),
+    ERROR(5),
+    FATAL(6);
+
+    private static final Level[] BY_CODE = new Level[7];
+
+    static {
+        for (Level level : values()) {
+            BY_CODE[level.code] = level;
+        }
+    }
+
+    private final int code;
+
+    Level(int code) {
+        this.code = code;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public static Level fromCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown level code " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    public boolean isAlert() {
+        return this == ERROR || this == FATAL;
+    }
+}
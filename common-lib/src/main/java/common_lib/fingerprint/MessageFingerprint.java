@@ -0,0 +1,56 @@
+package common_lib.fingerprint;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a log message to its template by replacing the parts that change between
+ * otherwise identical lines (UUIDs, hex ids, numbers), so repeats can be grouped.
+ */
+public final class MessageFingerprint {
+
+    private static final Pattern VARIABLE = Pattern.compile(
+            "(?<uuid>\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b)"
+                    + "|(?<hex>\\b0[xX][0-9a-fA-F]+\\b|\\b(?=[0-9a-fA-F]*\\d)[0-9a-fA-F]{8,}\\b)"
+                    + "|(?<num>\\d+(?:\\.\\d+)?)");
+
+    private MessageFingerprint() {
+    }
+
+    public static String template(String message) {
+        if (message == null || message.isEmpty()) {
+            return "";
+        }
+
+        Matcher m = VARIABLE.matcher(message);
+        if (!m.find()) {
+            return message;
+        }
+
+        StringBuilder out = new StringBuilder(message.length());
+        int last = 0;
+        do {
+            out.append(message, last, m.start());
+            out.append(m.group("uuid") != null ? "<uuid>" : m.group("hex") != null ? "<hex>" : "<n>");
+            last = m.end();
+        } while (m.find());
+        out.append(message, last, message.length());
+
+        return out.toString();
+    }
+
+    // 64-bit FNV-1a of the template
+    public static long of(String message) {
+        String template = template(message);
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < template.length(); i++) {
+            hash ^= template.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    public static String hex(String message) {
+        return String.format("%016x", of(message));
+    }
+}
@@ -0,0 +1,56 @@
+package common_lib.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+// Batch listeners see a failed deserialization as a null value plus a header; the container only
+// handles that itself for record listeners, so the batch paths hand those records over here.
+// Each service registers one as a bean with its own recoverer and counter.
+public class DeadLetters {
+
+    private static final LogAccessor LOG = new LogAccessor(DeadLetters.class);
+
+    private final DeadLetterPublishingRecoverer recoverer;
+
+    private final Counter routed;
+
+    public DeadLetters(DeadLetterPublishingRecoverer recoverer, Counter routed) {
+        this.recoverer = recoverer;
+        this.routed = routed;
+    }
+
+    // true when the record has no value; a poison record has been published to the DLT by then
+    public boolean route(ConsumerRecord<String, ?> record) {
+
+        if (record.value() != null) {
+            return false;
+        }
+
+        DeserializationException e = SerializationUtils.getExceptionFromHeader(
+                record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG);
+
+        // a plain tombstone carries nothing to store or route
+        if (e == null) {
+            return true;
+        }
+
+        publish(record, e);
+
+        return true;
+    }
+
+    // also the record listeners' recoverer, reached through the container's error handler
+    public void publish(ConsumerRecord<?, ?> record, Exception e) {
+
+        System.err.println("☠️ poison record at " + record.topic() + "-" + record.partition() + "@" + record.offset() + ": " + e.getMessage());
+
+        // waits for the send; if the DLT is down this throws and the record or poll is retried
+        recoverer.accept(record, e);
+        routed.increment();
+    }
+
+}
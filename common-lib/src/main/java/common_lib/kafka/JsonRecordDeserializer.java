@@ -0,0 +1,78 @@
+package common_lib.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Reads JSON topic values straight from the record bytes into the consumer's own type, without a String per message.
+// Runs inside ErrorHandlingDeserializer, so a payload that throws here reaches the listener as a poison record.
+public class JsonRecordDeserializer<T> implements Deserializer<T> {
+
+    // consumer property: the class (or class name) values are read into
+    public static final String VALUE_TYPE = "logsy.json.value-type";
+
+    // consumer property; generates accessors instead of reflective setters
+    public static final String BLACKBIRD = "logsy.json.blackbird";
+
+    private ObjectReader reader;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object blackbird = configs.get(BLACKBIRD);
+        reader = reader(valueType(configs.get(VALUE_TYPE)), blackbird != null && Boolean.parseBoolean(blackbird.toString()));
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+
+        if (data == null) {
+            return null;
+        }
+
+        if (reader == null) {
+            throw new IllegalStateException(VALUE_TYPE + " was never configured");
+        }
+
+        try {
+            return reader.readValue(data);
+        } catch (IOException e) {
+            throw new SerializationException("invalid log record on " + topic + ": " + e.getMessage(), e);
+        }
+    }
+
+    // the ingestor writes timestamps as decimal epoch seconds, ISO strings are accepted too
+    public static ObjectReader reader(Class<?> type, boolean blackbird) {
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+
+        return mapper.readerFor(type);
+    }
+
+    private static Class<?> valueType(Object type) {
+
+        if (type instanceof Class<?> c) {
+            return c;
+        }
+
+        if (type == null) {
+            throw new ConfigException(VALUE_TYPE, null, "the type JSON values are read into is required");
+        }
+
+        try {
+            return Class.forName(type.toString(), true, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new ConfigException(VALUE_TYPE, type, "no such class");
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+package common_lib.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common_lib.codec.LogRecordCodec;
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary codec vs the current JSON path (Spring JsonSerializer on the producer,
+ * String + ObjectMapper.readValue on the consumers).
+ *
+ * Run with bench/run-codec-bench.sh. Bytes per record are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogRecordCodecBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private final LogRecordCodec codec = new LogRecordCodec(List.of("auth", "payments", "checkout"));
+
+    private LogRecord record;
+    private byte[] json;
+    private byte[] binary;
+
+    @Setup
+    public void setup() throws Exception {
+        record = LogRecord.builder()
+                .timestamp(Instant.parse("2026-10-18T10:15:30.123456Z"))
+                .level(Level.ERROR)
+                .message("Payment authorization failed for order 81723: upstream gateway timeout after 3000 ms")
+                .service("payments")
+                .instanceId("payments-7f9c8d-2")
+                .traceId("4bf92f3577b34da6a3ce929d0e0e4736")
+                .metadata(Map.of("userId", 918273L, "region", "eu-west-1", "retry", true))
+                .build();
+
+        json = mapper.writeValueAsBytes(record);
+        binary = codec.encode(record);
+
+        System.out.printf("%nbytes/record: json=%d binary=%d (%.0f%% smaller)%n",
+                json.length, binary.length, 100.0 * (json.length - binary.length) / json.length);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() throws Exception {
+        return mapper.writeValueAsBytes(record);
+    }
+
+    @Benchmark
+    public LogRecord jsonDecode() throws Exception {
+        return mapper.readValue(new String(json, StandardCharsets.UTF_8), LogRecord.class);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return codec.encode(record);
+    }
+
+    @Benchmark
+    public LogRecord binaryDecode() {
+        return codec.decode(binary);
+    }
+
+}
@@ -0,0 +1,97 @@
+package common_lib.codec;
+
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogRecordCodecTests {
+
+	@Test
+	void roundTripsEveryField() {
+		Map<String, Object> nested = new LinkedHashMap<>();
+		nested.put("region", "eu-west-1");
+		nested.put("cpu", 0.75);
+
+		Map<String, Object> metadata = new LinkedHashMap<>();
+		metadata.put("userId", 42L);
+		metadata.put("retry", true);
+		metadata.put("host", nested);
+		metadata.put("tags", List.of("a", "b"));
+		metadata.put("none", null);
+
+		LogRecord record = LogRecord.builder()
+				.timestamp(Instant.ofEpochSecond(1_729_243_200L, 123_456_789))
+				.level(Level.ERROR)
+				.message("Payment failed for order 8d2f ✅")
+				.service("payments")
+				.instanceId("payments-7")
+				.traceId("4bf92f3577b34da6")
+				.stackTrace("java.lang.IllegalStateException\n\tat Foo.bar(Foo.java:1)")
+				.metadata(metadata)
+				.eventId("payments-7:000042")
+				.build();
+
+		LogRecordCodec codec = new LogRecordCodec(List.of("auth", "payments"));
+		byte[] bytes = codec.encode(record);
+
+		assertTrue(LogRecordCodec.isBinary(bytes));
+		assertEquals(Level.ERROR.code(), bytes[LogRecordCodec.LEVEL_OFFSET]);
+		assertEquals(record, codec.decode(bytes));
+	}
+
+	@Test
+	void writesUnknownServicesInlineAndSkipsAbsentFields() {
+		LogRecord record = LogRecord.builder()
+				.timestamp(Instant.ofEpochSecond(-5, 1))
+				.level(Level.TRACE)
+				.message("hello")
+				.service("not-in-dictionary")
+				.build();
+
+		LogRecordCodec codec = new LogRecordCodec(List.of("payments"));
+
+		assertEquals(record, new LogRecordCodec().decode(codec.encode(record)));
+	}
+
+	@Test
+	void deserializerReadsBinaryAndTheIngestorsJson() {
+		LogRecordDeserializer deserializer = new LogRecordDeserializer();
+		deserializer.configure(Map.of(CodecConfig.SERVICES, "payments"), false);
+
+		LogRecord record = LogRecord.builder()
+				.timestamp(Instant.ofEpochSecond(1_729_243_200L, 500_000_000))
+				.level(Level.FATAL)
+				.message("db down")
+				.service("payments")
+				.eventId("e-1")
+				.build();
+
+		assertEquals(record, deserializer.deserialize("log-service", new LogRecordCodec(List.of("payments")).encode(record)));
+
+		// decimal epoch seconds, as the ingestor's JsonSerializer writes them; unknown fields are skipped
+		byte[] json = ("{\"timestamp\":1729243200.500000000,\"level\":\"FATAL\",\"message\":\"db down\","
+				+ "\"service\":\"payments\",\"eventId\":\"e-1\",\"region\":\"eu\"}").getBytes();
+		assertEquals(record, deserializer.deserialize("log-service", json));
+	}
+
+	@Test
+	void rejectsJsonAndUnknownVersions() {
+		byte[] json = "{\"level\":\"INFO\"}".getBytes();
+		assertFalse(LogRecordCodec.isBinary(json));
+		assertThrows(IllegalArgumentException.class, () -> new LogRecordCodec().decode(json));
+
+		byte[] future = {LogRecordCodec.MAGIC, 9, 3, 0};
+		assertThrows(IllegalArgumentException.class, () -> new LogRecordCodec().decode(future));
+	}
+
+}
@@ -0,0 +1,81 @@
+package common_lib.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyOrderedExecutorTests {
+
+	@Test
+	void keepsPerKeyOrderAndRunsKeysInParallel() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		KeyOrderedExecutor executor = new KeyOrderedExecutor(pool, 64);
+
+		Map<Integer, List<Integer>> seen = new HashMap<>();
+		for (int key = 0; key < 16; key++) {
+			seen.put(key, Collections.synchronizedList(new ArrayList<>()));
+		}
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger peak = new AtomicInteger();
+
+		List<CompletableFuture<Void>> futures = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			int key = i % 16;
+			int seq = i;
+			futures.add(executor.submit(key, () -> {
+				peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+				if (ThreadLocalRandom.current().nextInt(10) == 0) {
+					Thread.yield();
+				}
+				seen.get(key).add(seq);
+				running.decrementAndGet();
+			}));
+		}
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+		pool.shutdown();
+		pool.awaitTermination(5, TimeUnit.SECONDS);
+
+		for (List<Integer> order : seen.values()) {
+			List<Integer> sorted = new ArrayList<>(order);
+			Collections.sort(sorted);
+			assertEquals(sorted, order);
+			assertEquals(125, order.size());
+		}
+		assertTrue(peak.get() > 1);
+		assertEquals(0, executor.inFlight());
+	}
+
+	@Test
+	void failureDoesNotBreakTheChain() throws Exception {
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		KeyOrderedExecutor executor = new KeyOrderedExecutor(pool, 4);
+		AtomicInteger ran = new AtomicInteger();
+
+		CompletableFuture<Void> failed = executor.submit("k", () -> {
+			throw new IllegalStateException("boom");
+		});
+		CompletableFuture<Void> after = executor.submit("k", ran::incrementAndGet);
+
+		after.get(5, TimeUnit.SECONDS);
+		pool.shutdown();
+		pool.awaitTermination(5, TimeUnit.SECONDS);
+
+		assertTrue(failed.isCompletedExceptionally());
+		assertEquals(1, ran.get());
+		assertEquals(0, executor.activeKeys());
+	}
+
+}
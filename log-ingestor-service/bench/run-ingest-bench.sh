@@ -0,0 +1,18 @@
+#!/bin/bash
+# Compares POST /logs throughput and latency with platform vs virtual request threads.
+# Everything runs locally: an embedded Kafka broker and the ingestor are started in-process.
+#
+# Usage: bench/run-ingest-bench.sh [concurrency] [requests]
+# JAVA_HOME must point at Java 21+ for the virtual mode to take effect.
+
+set -e
+cd "$(dirname "$0")/.."
+
+CONCURRENCY=${1:-1000}
+REQUESTS=${2:-200000}
+
+./mvnw -q test-compile exec:java \
+  -Dexec.classpathScope=test \
+  -Dexec.mainClass=log_ingestor_service.bench.IngestLoadBenchmark \
+  -Dbench.concurrency="$CONCURRENCY" \
+  -Dbench.requests="$REQUESTS"
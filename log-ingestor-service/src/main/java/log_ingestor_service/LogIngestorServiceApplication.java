@@ -1,13 +1,34 @@
 package log_ingestor_service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LogIngestorServiceApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(LogIngestorServiceApplication.class, args);
 	}
 
-}
\ No newline at end of file
+	// Virtual threads are opt-in through the "virtual" profile. Boot only honours
+	// spring.threads.virtual.enabled on Java 21+, so say loudly when it was ignored.
+	@Bean
+	public ApplicationListener<ApplicationReadyEvent> threadingModeReporter(
+			@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+		return event -> {
+			if (virtualThreads && Runtime.version().feature() < 21) {
+				System.err.println("⚠️ Virtual threads requested but running on Java " + Runtime.version().feature()
+						+ ", requests are served by platform threads");
+			} else {
+				System.out.println("🧵 Requests are served by " + (virtualThreads ? "virtual" : "platform") + " threads");
+			}
+		};
+	}
+
+}
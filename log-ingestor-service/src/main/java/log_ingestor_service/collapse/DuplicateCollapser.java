@@ -0,0 +1,229 @@
+package log_ingestor_service.collapse;
+
+import common_lib.fingerprint.MessageFingerprint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.exceptions.IngestRejectedException;
+import log_ingestor_service.service.impl.kafkaServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Folds repeats of the same message template from the same service/instance/level.
+ * The first line of a window goes out untouched; copies seen inside the window are only
+ * counted and leave as one summary record when the window closes.
+ */
+@Component
+public class DuplicateCollapser {
+
+    @Autowired
+    private kafkaServiceImpl logsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${logsy.ingest.collapse.enabled:false}")
+    private boolean enabled;
+
+    @Value("${logsy.ingest.collapse.window-ms:2000}")
+    private long windowMs;
+
+    @Value("${logsy.ingest.collapse.max-keys:100000}")
+    private int maxKeys;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    // windows replaced in offer() before the sweeper got to them
+    private final Queue<Window> closed = new ConcurrentLinkedQueue<>();
+
+    private Counter collapsed;
+
+    @PostConstruct
+    void init() {
+        collapsed = meterRegistry.counter("logsy.ingest.collapsed");
+        meterRegistry.gauge("logsy.ingest.collapse.windows", windows, Map::size);
+    }
+
+    /**
+     * @return true when the record should be sent now, false when it was folded into a window
+     */
+    public boolean offer(LogsDto logsDto) {
+
+        if (!enabled) {
+            return true;
+        }
+
+        String key = key(logsDto);
+
+        if (windows.size() >= maxKeys && !windows.containsKey(key)) {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean[] first = new boolean[1];
+
+        windows.compute(key, (k, window) -> {
+            if (window == null || window.openedAt + windowMs <= now) {
+                if (window != null && window.duplicates > 0) {
+                    closed.add(window);
+                }
+                first[0] = true;
+                return new Window(now, logsDto);
+            }
+            window.duplicates++;
+            window.latest = logsDto;
+            if (logsDto.getTimestamp().isAfter(window.lastSeen)) {
+                window.lastSeen = logsDto.getTimestamp();
+            }
+            return window;
+        });
+
+        if (!first[0]) {
+            collapsed.increment();
+        }
+
+        return first[0];
+    }
+
+    /**
+     * Called when the line offer() let through could not be sent. Its window is dropped so the
+     * client's retry opens a new one and goes out instead of being folded; copies already
+     * folded into it still leave as a summary.
+     */
+    public void abandon(LogsDto logsDto) {
+
+        if (!enabled) {
+            return;
+        }
+
+        windows.computeIfPresent(key(logsDto), (k, window) -> {
+            if (window.first != logsDto) {
+                return window;
+            }
+            if (window.duplicates > 0) {
+                closed.add(window);
+            }
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${logsy.ingest.collapse.window-ms:2000}")
+    public void flush() {
+
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<Window> expired = new ArrayList<>();
+
+        for (String key : windows.keySet()) {
+            windows.computeIfPresent(key, (k, window) -> {
+                if (window.openedAt + windowMs > now) {
+                    return window;
+                }
+                if (window.duplicates > 0) {
+                    expired.add(window);
+                }
+                return null;
+            });
+        }
+
+        for (Window window; (window = closed.poll()) != null; ) {
+            expired.add(window);
+        }
+
+        for (int i = 0; i < expired.size(); i++) {
+            try {
+                logsService.sendMessage(summary(expired.get(i)));
+            } catch (IngestRejectedException e) {
+                // Kafka is down or backed up (and the spool off or full): the rest would fail the same way
+                requeue(expired.subList(i, expired.size()), e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Puts summaries that could not be sent back for the next flush, up to max-keys of them
+     * waiting at once so an outage cannot grow the queue without bound.
+     */
+    private void requeue(List<Window> unsent, IngestRejectedException e) {
+
+        int room = maxKeys - closed.size();
+        int dropped = 0;
+
+        for (Window window : unsent) {
+            if (room-- > 0) {
+                closed.add(window);
+            } else {
+                dropped += window.duplicates;
+            }
+        }
+
+        System.err.println("⚠️ collapse summaries not sent, retrying on the next flush: " + e.getMessage());
+        if (dropped > 0) {
+            System.err.println("❌ dropped collapse summaries of " + dropped + " duplicates, too many waiting");
+        }
+    }
+
+    private static String key(LogsDto logsDto) {
+        return logsDto.getService() + '\u0000' + logsDto.getInstanceId() + '\u0000' + logsDto.getLevel()
+                + '\u0000' + MessageFingerprint.of(logsDto.getMessage());
+    }
+
+    private LogsDto summary(Window window) {
+
+        LogsDto last = window.latest;
+        Map<String, Object> metadata = last.getMetadata() == null ? new HashMap<>() : new HashMap<>(last.getMetadata());
+
+        // copies folded after the first line of the window, which was sent on its own
+        metadata.put("duplicateCount", window.duplicates);
+        // record timestamps, not arrival times, so a backlog replayed late keeps its real span
+        metadata.put("firstSeen", window.first.getTimestamp().toString());
+        metadata.put("lastSeen", window.lastSeen.toString());
+        metadata.put("fingerprint", MessageFingerprint.hex(last.getMessage()));
+
+        return LogsDto.builder()
+                .timestamp(last.getTimestamp())
+                .level(last.getLevel())
+                .message(last.getMessage())
+                .service(last.getService())
+                .instanceId(last.getInstanceId())
+                .metadata(metadata)
+                .traceId(last.getTraceId())
+                .stackTrace(last.getStackTrace())
+                .build();
+    }
+
+    private static final class Window {
+
+        // wall clock, only decides when the window closes
+        private final long openedAt;
+        private final LogsDto first;
+        private Instant lastSeen;
+        private int duplicates;
+        private LogsDto latest;
+
+        private Window(long openedAt, LogsDto first) {
+            this.openedAt = openedAt;
+            this.first = first;
+            this.lastSeen = first.getTimestamp();
+            this.latest = first;
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package log_ingestor_service.controllers;
+
+import com.github.luben.zstd.ZstdIOException;
+import log_ingestor_service.exceptions.BodyTooLargeException;
+import log_ingestor_service.exceptions.IngestRejectedException;
+import log_ingestor_service.exceptions.RateLimitedException;
+import log_ingestor_service.ratelimit.RateLimitDecision;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+import java.util.zip.ZipException;
+
+@RestControllerAdvice
+public class ingestExceptionHandler {
+
+    static HttpHeaders rateLimitHeaders(RateLimitDecision decision) {
+        HttpHeaders headers = new HttpHeaders();
+        if (decision.limited()) {
+            headers.set("X-RateLimit-Limit", String.valueOf(decision.limit()));
+            headers.set("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+            headers.set("X-RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+        }
+        return headers;
+    }
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<Object> rateLimited(RateLimitedException e) {
+        return ResponseEntity
+                .status(e.getStatus())
+                .headers(rateLimitHeaders(e.getDecision()))
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage()));
+    }
+
+    @ExceptionHandler(IngestRejectedException.class)
+    public ResponseEntity<Object> rejected(IngestRejectedException e) {
+        return ResponseEntity
+                .status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage()));
+    }
+
+    @ExceptionHandler(BodyTooLargeException.class)
+    public ResponseEntity<Object> tooLarge(BodyTooLargeException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(Map.of("message", e.getMessage()));
+    }
+
+    @ExceptionHandler({ZipException.class, ZstdIOException.class})
+    public ResponseEntity<Object> corrupt(Exception e) {
+        return ResponseEntity.badRequest().body(Map.of("message", "cannot decompress request body: " + e.getMessage()));
+    }
+
+    // @RequestBody reads wrap stream failures, unwrap the ones we raise ourselves
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Object> unreadable(HttpMessageNotReadableException e) {
+        for (Throwable t = e.getCause(); t != null; t = t.getCause()) {
+            if (t instanceof BodyTooLargeException tooLarge) {
+                return tooLarge(tooLarge);
+            }
+            if (t instanceof ZipException || t instanceof ZstdIOException) {
+                return corrupt((Exception) t);
+            }
+        }
+        return ResponseEntity.badRequest().body(Map.of("message", "malformed request body"));
+    }
+
+}
@@ -1,9 +1,15 @@
 package log_ingestor_service.controllers;
 
+import common_lib.domain.enums.Level;
+import jakarta.servlet.http.HttpServletRequest;
+import log_ingestor_service.domain.dto.BatchResultDto;
 import log_ingestor_service.domain.dto.LogsDto;
-import log_ingestor_service.domain.enums.levels;
-import log_ingestor_service.service.impl.kafkaServiceImpl;
+import log_ingestor_service.ratelimit.RateLimitDecision;
+import log_ingestor_service.ratelimit.TokenBucketLimiter;
+import log_ingestor_service.service.impl.batchIngestServiceImpl;
+import log_ingestor_service.service.impl.ingestServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -11,6 +17,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,14 +26,20 @@ import java.util.Map;
 public class logsController {
 
     @Autowired
-    private kafkaServiceImpl logsService;
+    private ingestServiceImpl logsService;
+
+    @Autowired
+    private batchIngestServiceImpl batchService;
+
+    @Autowired
+    private TokenBucketLimiter limiter;
 
     @GetMapping(path = "/logs")
     public ResponseEntity<LogsDto> getLogs() {
         return new ResponseEntity<>(
                 LogsDto.
                         builder().
-                        level(levels.INFO).
+                        level(Level.INFO).
                         message("Test for the get path").
                         timestamp(Instant.now()).
                         service("health-app").
@@ -37,14 +50,42 @@ public class logsController {
 
     @PostMapping(path = "/logs")
     public ResponseEntity<Object> postLogs(@RequestBody LogsDto logsDto) {
-        logsService.sendMessage(logsDto);
+        RateLimitDecision decision = logsService.ingest(logsDto);
 
         Map<String, String> res = new HashMap<>();
 
         res.put("message", logsDto.getService() + " services logs captured");
 
-        return new ResponseEntity<>(res, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .headers(ingestExceptionHandler.rateLimitHeaders(decision))
+                .body(res);
+
+    }
+
+    @PostMapping(path = "/logs/batch", consumes = {"application/json", "application/x-ndjson"})
+    public ResponseEntity<BatchResultDto> postBatch(HttpServletRequest request) throws IOException {
+        BatchResultDto res = batchService.ingest(request.getInputStream());
+
+        if (res.getRetryAfterSeconds() > 0) {
+            HttpStatus status = res.getAccepted() == 0 ? res.getRetryStatus() : HttpStatus.MULTI_STATUS;
+            return ResponseEntity.status(status)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(res.getRetryAfterSeconds()))
+                    .body(res);
+        }
+
+        if (res.getFailedStatus() != null && res.getAccepted() == 0) {
+            return new ResponseEntity<>(res, res.getFailedStatus());
+        }
+
+        HttpStatus status = res.getRejected() == 0 ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+
+        return new ResponseEntity<>(res, status);
+
+    }
 
+    @GetMapping(path = "/logs/limits")
+    public ResponseEntity<Map<String, Map<String, Object>>> getLimits() {
+        return new ResponseEntity<>(limiter.snapshot(), HttpStatus.OK);
     }
 
 }
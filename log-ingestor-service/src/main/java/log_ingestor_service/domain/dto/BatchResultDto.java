@@ -0,0 +1,52 @@
+package log_ingestor_service.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BatchResultDto {
+
+    private int accepted;
+
+    private int rejected;
+
+    // Set once the producer pushed back; everything after that point is rejected without a send attempt.
+    @JsonIgnore
+    private boolean saturated;
+
+    @JsonIgnore
+    private HttpStatus retryStatus;
+
+    @JsonIgnore
+    private long retryAfterSeconds;
+
+    // Set when the body could not be read to the end; the last error is where reading stopped.
+    @JsonIgnore
+    private HttpStatus failedStatus;
+
+    // Positions (0 based, in body order) of the records the client should retry or fix.
+    @Builder.Default
+    private List<BatchErrorDto> errors = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class BatchErrorDto {
+
+        private int index;
+
+        private String reason;
+
+    }
+
+}
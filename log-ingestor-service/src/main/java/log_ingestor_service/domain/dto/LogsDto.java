@@ -1,8 +1,9 @@
 package log_ingestor_service.domain.dto;
 
+import common_lib.domain.enums.Level;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import log_ingestor_service.domain.enums.levels;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,7 +22,7 @@ public class LogsDto {
     private Instant timestamp;
 
     @NotNull
-    private levels level;
+    private Level level;
 
     @NotBlank
     private String message;
@@ -37,4 +38,8 @@ public class LogsDto {
 
     private String stackTrace;
 
+    // producer-assigned and stable across retries; assigned on send when the client leaves it out
+    @Size(max = 128)
+    private String eventId;
+
 }
\ No newline at end of file
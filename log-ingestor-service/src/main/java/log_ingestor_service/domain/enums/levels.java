@@ -1,10 +0,0 @@
-package log_ingestor_service.domain.enums;
-
-public enum levels {
-    INFO,
-    ERROR,
-    TRACE,
-    DEBUG,
-    WARN,
-    FATAL
-}
@@ -0,0 +1,12 @@
+package log_ingestor_service.exceptions;
+
+import java.io.IOException;
+
+// An IOException so it travels unchanged through Jackson and the servlet stream.
+public class BodyTooLargeException extends IOException {
+
+    public BodyTooLargeException(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,19 @@
+package log_ingestor_service.exceptions;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class IngestRejectedException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    private final long retryAfterSeconds;
+
+    public IngestRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,17 @@
+package log_ingestor_service.exceptions;
+
+import log_ingestor_service.ratelimit.RateLimitDecision;
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class RateLimitedException extends IngestRejectedException {
+
+    private final RateLimitDecision decision;
+
+    public RateLimitedException(String service, RateLimitDecision decision) {
+        super(HttpStatus.TOO_MANY_REQUESTS, decision.retryAfterSeconds(), "rate limit exceeded for service " + service);
+        this.decision = decision;
+    }
+
+}
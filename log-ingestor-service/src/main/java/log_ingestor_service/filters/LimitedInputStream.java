@@ -0,0 +1,54 @@
+package log_ingestor_service.filters;
+
+import log_ingestor_service.exceptions.BodyTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Fails as soon as more than limit bytes were read, before the rest of the body is touched.
+class LimitedInputStream extends FilterInputStream {
+
+    private final long limit;
+    private final String what;
+    private long count;
+
+    LimitedInputStream(InputStream in, long limit, String what) {
+        super(in);
+        this.limit = limit;
+        this.what = what;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    private void count(long n) throws BodyTooLargeException {
+        count += n;
+        if (count > limit) {
+            throw new BodyTooLargeException(what + " exceeds " + limit + " bytes");
+        }
+    }
+
+}
@@ -0,0 +1,209 @@
+package log_ingestor_service.filters;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Lets ingestion endpoints take gzip or zstd bodies. The body is decompressed as a stream
+ * straight into the JSON parser; both the wire size and the decompressed size are capped,
+ * so oversized bodies and decompression bombs fail after reading at most the limit.
+ */
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${logsy.ingest.max-body-bytes:10485760}")
+    private long maxBodyBytes;
+
+    @Value("${logsy.ingest.max-decompressed-bytes:104857600}")
+    private long maxDecompressedBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/logs") || !"POST".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "request body exceeds " + maxBodyBytes + " bytes");
+            return;
+        }
+
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        InputStream raw = new LimitedInputStream(request.getInputStream(), maxBodyBytes, "request body");
+
+        InputStream body;
+        try {
+            if (encoding == null || encoding.isBlank() || encoding.equalsIgnoreCase("identity")) {
+                body = raw;
+            } else if (encoding.equalsIgnoreCase("gzip") || encoding.equalsIgnoreCase("x-gzip")) {
+                body = new LimitedInputStream(new GZIPInputStream(raw, 8192), maxDecompressedBytes, "decompressed body");
+            } else if (encoding.equalsIgnoreCase("zstd")) {
+                body = new LimitedInputStream(new ZstdInputStream(raw), maxDecompressedBytes, "decompressed body");
+            } else {
+                reject(response, HttpStatus.UNSUPPORTED_MEDIA_TYPE, "unsupported Content-Encoding " + encoding);
+                return;
+            }
+        } catch (IOException e) {
+            // GZIPInputStream reads the header eagerly
+            reject(response, HttpStatus.BAD_REQUEST, "body is not valid " + encoding);
+            return;
+        }
+
+        chain.doFilter(new BodyRequest(request, body, body != raw), response);
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        // the message can carry the client's Content-Encoding, so it is serialized rather than concatenated
+        objectMapper.writeValue(response.getOutputStream(), Map.of("message", message));
+    }
+
+    private static final class BodyRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream stream;
+        private final boolean decoded;
+
+        private BodyRequest(HttpServletRequest request, InputStream body, boolean decoded) throws IOException {
+            super(request);
+            this.decoded = decoded;
+            ServletInputStream original = request.getInputStream();
+            this.stream = new ServletInputStream() {
+
+                private boolean finished;
+                private long consumed;
+
+                @Override
+                public int read() throws IOException {
+                    int b = body.read();
+                    finished = b < 0;
+                    consumed += finished ? 0 : 1;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = body.read(b, off, len);
+                    finished = n < 0;
+                    consumed += Math.max(n, 0);
+                    return n;
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return decoded ? finished : original.isFinished();
+                }
+
+                @Override
+                public boolean isReady() {
+                    return !decoded || original.isReady();
+                }
+
+                // a plain body is still read straight from the container, so non-blocking reads just pass through;
+                // a decoded one can only be read blocking, so the listener runs once on an async-context thread
+                @Override
+                public void setReadListener(ReadListener listener) {
+
+                    if (!decoded) {
+                        original.setReadListener(listener);
+                        return;
+                    }
+
+                    if (!request.isAsyncStarted()) {
+                        throw new IllegalStateException("non-blocking reads need an async request");
+                    }
+
+                    request.getAsyncContext().start(() -> {
+                        try {
+                            long before;
+                            do {
+                                before = consumed;
+                                listener.onDataAvailable();
+                            } while (!finished && consumed > before);
+                            if (finished) {
+                                listener.onAllDataRead();
+                            }
+                        } catch (Throwable t) {
+                            listener.onError(t);
+                        }
+                    });
+                }
+
+                @Override
+                public void close() throws IOException {
+                    body.close();
+                }
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String charset = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(stream, Charset.forName(charset)));
+        }
+
+        // the decoded length is unknown up front
+        @Override
+        public int getContentLength() {
+            return decoded ? -1 : super.getContentLength();
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return decoded ? -1 : super.getContentLengthLong();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (decoded && (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (decoded && (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name))) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+    }
+
+}
@@ -0,0 +1,10 @@
+package log_ingestor_service.partitioner;
+
+import log_ingestor_service.domain.dto.LogsDto;
+
+public interface PartitionKeyStrategy {
+
+    // null means no key, the producer then spreads records over partitions
+    public String keyFor(LogsDto logsDto);
+
+}
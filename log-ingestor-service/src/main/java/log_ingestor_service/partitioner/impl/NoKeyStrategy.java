@@ -0,0 +1,15 @@
+package log_ingestor_service.partitioner.impl;
+
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.partitioner.PartitionKeyStrategy;
+import org.springframework.stereotype.Component;
+
+@Component("none")
+public class NoKeyStrategy implements PartitionKeyStrategy {
+
+    @Override
+    public String keyFor(LogsDto logsDto) {
+        return null;
+    }
+
+}
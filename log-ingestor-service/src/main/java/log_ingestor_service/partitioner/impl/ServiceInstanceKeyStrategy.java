@@ -0,0 +1,18 @@
+package log_ingestor_service.partitioner.impl;
+
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.partitioner.PartitionKeyStrategy;
+import org.springframework.stereotype.Component;
+
+@Component("service-instance")
+public class ServiceInstanceKeyStrategy implements PartitionKeyStrategy {
+
+    @Override
+    public String keyFor(LogsDto logsDto) {
+        if (logsDto.getInstanceId() == null || logsDto.getInstanceId().isBlank()) {
+            return logsDto.getService();
+        }
+        return logsDto.getService() + "/" + logsDto.getInstanceId();
+    }
+
+}
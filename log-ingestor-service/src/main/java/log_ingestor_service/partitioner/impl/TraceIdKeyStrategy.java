@@ -0,0 +1,19 @@
+package log_ingestor_service.partitioner.impl;
+
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.partitioner.PartitionKeyStrategy;
+import org.springframework.stereotype.Component;
+
+@Component("trace-id")
+public class TraceIdKeyStrategy implements PartitionKeyStrategy {
+
+    @Override
+    public String keyFor(LogsDto logsDto) {
+        // untraced lines still stay ordered per service
+        if (logsDto.getTraceId() == null || logsDto.getTraceId().isBlank()) {
+            return logsDto.getService();
+        }
+        return logsDto.getTraceId();
+    }
+
+}
@@ -0,0 +1,11 @@
+package log_ingestor_service.ratelimit;
+
+public record RateLimitDecision(boolean allowed, long limit, long remaining, long resetSeconds, long retryAfterSeconds) {
+
+    public static final RateLimitDecision UNLIMITED = new RateLimitDecision(true, -1, -1, 0, 0);
+
+    public boolean limited() {
+        return limit >= 0;
+    }
+
+}
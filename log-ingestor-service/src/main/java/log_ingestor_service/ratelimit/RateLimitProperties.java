@@ -0,0 +1,64 @@
+package log_ingestor_service.ratelimit;
+
+import common_lib.domain.enums.Level;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "logsy.ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // key buckets by service + instanceId instead of service only
+    private boolean perInstance = false;
+
+    private Limit defaults = new Limit(2000, 4000);
+
+    private Map<String, Limit> services = new HashMap<>();
+
+    // levels that are never refused; they still drain the bucket so lower levels get shed first
+    private Set<Level> exemptLevels = EnumSet.of(Level.ERROR, Level.FATAL);
+
+    // fraction of the burst that must remain before a level is let through
+    private Map<Level, Double> reserve = new EnumMap<>(Map.of(
+            Level.TRACE, 0.5,
+            Level.DEBUG, 0.5,
+            Level.INFO, 0.25,
+            Level.WARN, 0.1));
+
+    private long idleEvictSeconds = 600;
+
+    // buckets kept at once; keys beyond this share one overflow bucket at the default limit
+    private int maxKeys = 100_000;
+
+    public Limit limitFor(String service) {
+        return services.getOrDefault(service, defaults);
+    }
+
+    @Data
+    public static class Limit {
+
+        // tokens (records) per second
+        private double rate;
+
+        private double burst;
+
+        public Limit() {
+        }
+
+        public Limit(double rate, double burst) {
+            this.rate = rate;
+            this.burst = burst;
+        }
+    }
+
+}
@@ -0,0 +1,173 @@
+package log_ingestor_service.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import log_ingestor_service.domain.dto.LogsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory token buckets keyed by service (optionally service/instanceId).
+ * Buckets are guarded by a fixed set of lock stripes instead of one lock per bucket,
+ * so contention stays bounded no matter how many keys show up. Keys come from clients, so
+ * past max-keys new ones share a single overflow bucket at the default limit.
+ */
+@Component
+public class TokenBucketLimiter {
+
+    private static final int STRIPES = 64;
+
+    static final String OVERFLOW_KEY = "(overflow)";
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Object[] stripes = new Object[STRIPES];
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    // no service tag: that comes from clients and is unbounded, per-service counts are in snapshot()
+    private Counter allowedDecisions;
+    private Counter limitedDecisions;
+
+    public TokenBucketLimiter() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        allowedDecisions = meterRegistry.counter("logsy.ratelimit.decisions", "outcome", "allowed");
+        limitedDecisions = meterRegistry.counter("logsy.ratelimit.decisions", "outcome", "limited");
+    }
+
+    public RateLimitDecision acquire(LogsDto logsDto) {
+
+        if (!properties.isEnabled()) {
+            return RateLimitDecision.UNLIMITED;
+        }
+
+        String key = key(logsDto);
+        RateLimitProperties.Limit limit = properties.limitFor(logsDto.getService());
+        if (buckets.size() >= properties.getMaxKeys() && !buckets.containsKey(key)) {
+            key = OVERFLOW_KEY;
+            limit = properties.getDefaults();
+        }
+
+        boolean exempt = properties.getExemptLevels().contains(logsDto.getLevel());
+        double floor = exempt ? 0 : properties.getReserve().getOrDefault(logsDto.getLevel(), 0.0) * limit.getBurst();
+
+        long now = System.nanoTime();
+        Bucket bucket;
+        RateLimitDecision decision;
+
+        // looked up under the stripe lock so evictIdle() cannot drop it while it is in use
+        synchronized (stripe(key)) {
+
+            double burst = limit.getBurst();
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(burst));
+            bucket.refill(now, limit);
+
+            boolean allowed;
+            if (exempt) {
+                // may go into debt, but only one burst deep
+                bucket.tokens = Math.max(bucket.tokens - 1, -limit.getBurst());
+                allowed = true;
+            } else if (bucket.tokens - 1 >= floor) {
+                bucket.tokens -= 1;
+                allowed = true;
+            } else {
+                allowed = false;
+            }
+
+            long remaining = (long) Math.max(0, Math.floor(bucket.tokens));
+            long reset = seconds((limit.getBurst() - bucket.tokens) / limit.getRate());
+            long retryAfter = allowed ? 0 : Math.max(1, seconds((floor + 1 - bucket.tokens) / limit.getRate()));
+
+            decision = new RateLimitDecision(allowed, (long) limit.getBurst(), remaining, reset, retryAfter);
+        }
+
+        if (decision.allowed()) {
+            bucket.allowed.increment();
+            allowedDecisions.increment();
+        } else {
+            bucket.limited.increment();
+            limitedDecisions.increment();
+        }
+
+        return decision;
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> out = new TreeMap<>();
+        buckets.forEach((key, bucket) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("tokens", Math.floor(bucket.tokens));
+            stats.put("allowed", bucket.allowed.sum());
+            stats.put("limited", bucket.limited.sum());
+            out.put(key, stats);
+        });
+        return out;
+    }
+
+    @Scheduled(fixedDelay = 60, timeUnit = TimeUnit.SECONDS)
+    public void evictIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(properties.getIdleEvictSeconds());
+        for (String key : buckets.keySet()) {
+            // rechecked under the same lock acquire() holds, so a bucket being refilled stays
+            synchronized (stripe(key)) {
+                buckets.computeIfPresent(key, (k, bucket) -> bucket.lastRefill < cutoff ? null : bucket);
+            }
+        }
+    }
+
+    private Object stripe(String key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private String key(LogsDto logsDto) {
+        if (properties.isPerInstance() && logsDto.getInstanceId() != null) {
+            return logsDto.getService() + "/" + logsDto.getInstanceId();
+        }
+        return String.valueOf(logsDto.getService());
+    }
+
+    private static long seconds(double value) {
+        return (long) Math.ceil(Math.max(0, value));
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private volatile long lastRefill;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder limited = new LongAdder();
+
+        private Bucket(double tokens) {
+            this.tokens = tokens;
+            this.lastRefill = System.nanoTime();
+        }
+
+        private void refill(long now, RateLimitProperties.Limit limit) {
+            double elapsed = (now - lastRefill) / 1e9;
+            if (elapsed > 0) {
+                tokens = Math.min(limit.getBurst(), tokens + elapsed * limit.getRate());
+                lastRefill = now;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package log_ingestor_service.sampling;
+
+import common_lib.domain.enums.Level;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import log_ingestor_service.domain.dto.LogsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drops low severity records before they reach Kafka.
+ * Records without a traceId are sampled at random per service and level. A traced record is
+ * decided by a hash of the traceId alone, at the higher of its level rate and the trace rate,
+ * so every instance makes the same call for every record of a trace.
+ * Kept records carry metadata.sampleWeight (1 / keep probability) so counts can be scaled back up.
+ */
+@Component
+public class LogSampler {
+
+    public static final String WEIGHT_KEY = "sampleWeight";
+
+    @Autowired
+    private SamplingProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // tagged by level only, the service name comes from clients and is unbounded
+    private final Map<Level, Counter> dropped = new EnumMap<>(Level.class);
+
+    @PostConstruct
+    void init() {
+        for (Level level : Level.values()) {
+            dropped.put(level, meterRegistry.counter("logsy.sampling.dropped", "level", level.name()));
+        }
+    }
+
+    // returns false when the record should be dropped
+    public boolean sample(LogsDto logsDto) {
+
+        if (!properties.isEnabled() || properties.getKeepLevels().contains(logsDto.getLevel())) {
+            return true;
+        }
+
+        double rate = properties.rateFor(logsDto.getService(), logsDto.getLevel());
+        boolean keep;
+
+        if (logsDto.getTraceId() != null && !logsDto.getTraceId().isBlank()) {
+            // one draw per trace: a random one per record would keep scattered pieces of it
+            rate = Math.max(rate, properties.traceRateFor(logsDto.getService()));
+            keep = rate >= 1.0 || unit(hash(logsDto.getTraceId())) < rate;
+        } else {
+            keep = rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+        }
+
+        if (!keep) {
+            dropped.get(logsDto.getLevel()).increment();
+            return false;
+        }
+
+        if (rate < 1.0) {
+            Map<String, Object> metadata = logsDto.getMetadata() == null
+                    ? new HashMap<>()
+                    : new HashMap<>(logsDto.getMetadata());
+            metadata.put(WEIGHT_KEY, 1.0 / rate);
+            logsDto.setMetadata(metadata);
+        }
+
+        return true;
+    }
+
+    // FNV-1a, then a murmur finalizer so nearby ids spread over the whole range
+    static long hash(String traceId) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : traceId.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static double unit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+}
@@ -0,0 +1,57 @@
+package log_ingestor_service.sampling;
+
+import common_lib.domain.enums.Level;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "logsy.sampling")
+public class SamplingProperties {
+
+    private boolean enabled = false;
+
+    // levels that are never sampled away
+    private Set<Level> keepLevels = EnumSet.of(Level.ERROR, Level.FATAL);
+
+    // keep probability per level, anything missing is kept
+    private Map<Level, Double> rates = new EnumMap<>(Level.class);
+
+    // fraction of traces kept, decided once per traceId
+    private double traceRate = 1.0;
+
+    private Map<String, Service> services = new HashMap<>();
+
+    public double rateFor(String service, Level level) {
+        Service overrides = services.get(service);
+        if (overrides != null && overrides.getRates().containsKey(level)) {
+            return overrides.getRates().get(level);
+        }
+        return rates.getOrDefault(level, 1.0);
+    }
+
+    public double traceRateFor(String service) {
+        Service overrides = services.get(service);
+        if (overrides != null && overrides.getTraceRate() != null) {
+            return overrides.getTraceRate();
+        }
+        return traceRate;
+    }
+
+    @Data
+    public static class Service {
+
+        private Map<Level, Double> rates = new EnumMap<>(Level.class);
+
+        private Double traceRate;
+
+    }
+
+}
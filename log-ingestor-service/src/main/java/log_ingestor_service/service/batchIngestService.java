@@ -0,0 +1,10 @@
+package log_ingestor_service.service;
+
+import log_ingestor_service.domain.dto.BatchResultDto;
+
+import java.io.InputStream;
+
+public interface batchIngestService {
+    // A body that cannot be read to the end still returns what was accepted before the failure.
+    public BatchResultDto ingest(InputStream body);
+}
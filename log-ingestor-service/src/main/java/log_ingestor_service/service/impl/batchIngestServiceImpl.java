@@ -0,0 +1,128 @@
+package log_ingestor_service.service.impl;
+
+import log_ingestor_service.domain.dto.BatchResultDto;
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.exceptions.BodyTooLargeException;
+import log_ingestor_service.exceptions.IngestRejectedException;
+import log_ingestor_service.exceptions.RateLimitedException;
+import log_ingestor_service.service.batchIngestService;
+import log_ingestor_service.utils.LogsStreamReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+public class batchIngestServiceImpl implements batchIngestService {
+
+    @Autowired
+    private ingestServiceImpl logsService;
+
+    @Autowired
+    private LogsStreamReader reader;
+
+    @Value("${logsy.ingest.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Override
+    public BatchResultDto ingest(InputStream body) {
+
+        BatchResultDto result = new BatchResultDto();
+        ChunkSink sink = new ChunkSink(result);
+
+        try {
+            reader.read(body, sink);
+        } catch (IOException e) {
+            // what was read before the failure is still sent, so the counts tell the client what to retry
+            sink.flush();
+            reject(result, sink.next, "body not read to the end: " + e.getMessage());
+            result.setFailedStatus(e instanceof BodyTooLargeException ? HttpStatus.PAYLOAD_TOO_LARGE : HttpStatus.BAD_REQUEST);
+        }
+
+        sink.flush();
+
+        result.getErrors().sort(Comparator.comparingInt(BatchResultDto.BatchErrorDto::getIndex));
+
+        return result;
+    }
+
+    // Collects records into chunks of chunk-size and remembers the index the next record would get.
+    private final class ChunkSink implements LogsStreamReader.RecordSink {
+
+        private final BatchResultDto result;
+
+        private final List<Integer> indexes = new ArrayList<>(chunkSize);
+
+        private final List<LogsDto> chunk = new ArrayList<>(chunkSize);
+
+        private int next;
+
+        private ChunkSink(BatchResultDto result) {
+            this.result = result;
+        }
+
+        @Override
+        public void accept(int index, LogsDto logsDto) {
+            next = index + 1;
+            indexes.add(index);
+            chunk.add(logsDto);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        @Override
+        public void reject(int index, String reason) {
+            next = index + 1;
+            batchIngestServiceImpl.this.reject(result, index, reason);
+        }
+
+        private void flush() {
+            batchIngestServiceImpl.this.flush(indexes, chunk, result);
+        }
+
+    }
+
+    private void flush(List<Integer> indexes, List<LogsDto> chunk, BatchResultDto result) {
+
+        for (int i = 0; i < chunk.size(); i++) {
+
+            if (result.isSaturated()) {
+                reject(result, indexes.get(i), "not sent, producer saturated");
+                continue;
+            }
+
+            try {
+                logsService.ingest(chunk.get(i));
+                result.setAccepted(result.getAccepted() + 1);
+            } catch (RateLimitedException e) {
+                // only this record's service is over quota, keep going with the rest of the batch
+                if (result.getRetryStatus() == null) {
+                    result.setRetryStatus(e.getStatus());
+                }
+                result.setRetryAfterSeconds(Math.max(result.getRetryAfterSeconds(), e.getRetryAfterSeconds()));
+                reject(result, indexes.get(i), "rate-limited");
+            } catch (IngestRejectedException e) {
+                result.setSaturated(true);
+                result.setRetryStatus(e.getStatus());
+                result.setRetryAfterSeconds(e.getRetryAfterSeconds());
+                reject(result, indexes.get(i), e.getMessage());
+            }
+        }
+
+        indexes.clear();
+        chunk.clear();
+    }
+
+    private void reject(BatchResultDto result, int index, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        result.getErrors().add(new BatchResultDto.BatchErrorDto(index, reason));
+    }
+
+}
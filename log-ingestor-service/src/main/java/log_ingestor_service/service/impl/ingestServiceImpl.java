@@ -0,0 +1,57 @@
+package log_ingestor_service.service.impl;
+
+import log_ingestor_service.collapse.DuplicateCollapser;
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.exceptions.RateLimitedException;
+import log_ingestor_service.ratelimit.RateLimitDecision;
+import log_ingestor_service.ratelimit.TokenBucketLimiter;
+import log_ingestor_service.sampling.LogSampler;
+import log_ingestor_service.service.ingestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+// Every accepted log goes through here on its way to Kafka.
+@Service
+public class ingestServiceImpl implements ingestService {
+
+    @Autowired
+    private LogSampler sampler;
+
+    @Autowired
+    private TokenBucketLimiter limiter;
+
+    @Autowired
+    private DuplicateCollapser collapser;
+
+    @Autowired
+    private kafkaServiceImpl logsService;
+
+    @Override
+    public RateLimitDecision ingest(LogsDto logsDto) {
+
+        // sampled out records never count against the quota
+        if (!sampler.sample(logsDto)) {
+            return RateLimitDecision.UNLIMITED;
+        }
+
+        RateLimitDecision decision = limiter.acquire(logsDto);
+        if (!decision.allowed()) {
+            throw new RateLimitedException(logsDto.getService(), decision);
+        }
+
+        if (!collapser.offer(logsDto)) {
+            return decision;
+        }
+
+        try {
+            logsService.sendMessage(logsDto);
+        } catch (RuntimeException e) {
+            // the client will retry this line, it must not land in the window it opened
+            collapser.abandon(logsDto);
+            throw e;
+        }
+
+        return decision;
+    }
+
+}
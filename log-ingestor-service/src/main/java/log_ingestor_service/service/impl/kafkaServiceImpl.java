@@ -1,24 +1,254 @@
 package log_ingestor_service.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.exceptions.IngestRejectedException;
+import log_ingestor_service.partitioner.PartitionKeyStrategy;
 import log_ingestor_service.service.kafkaService;
+import log_ingestor_service.spool.LogSpool;
+import log_ingestor_service.spool.SpoolFullException;
+import org.apache.kafka.common.errors.RetriableException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class kafkaServiceImpl implements kafkaService {
 
     @Autowired
     private KafkaTemplate<String, LogsDto> kafkaTemplate;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Map<String, PartitionKeyStrategy> keyStrategies;
+
+    @Autowired
+    private LogSpool spool;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${logsy.kafka.partition-key:service}")
+    private String partitionKey;
+
+    private PartitionKeyStrategy keyStrategy;
+
     private final String topic = "log-service";
 
+    @Value("${logsy.kafka.max-in-flight:10000}")
+    private int maxInFlight;
+
+    @Value("${logsy.kafka.acquire-timeout-ms:50}")
+    private long acquireTimeoutMs;
+
+    @Value("${logsy.kafka.retry-after-seconds:1}")
+    private long retryAfterSeconds;
+
+    @Value("${logsy.kafka.broker-down-cooldown-seconds:5}")
+    private long brokerDownCooldownSeconds;
+
+    @Value("${logsy.spool.replay-timeout-ms:30000}")
+    private long replayTimeoutMs;
+
+    private Semaphore window;
+
+    private volatile long brokerDownUntil = 0;
+
+    // records whose async send failed; the producer I/O thread only queues them, the drainer spools them
+    private final Queue<LogsDto> failedSends = new ConcurrentLinkedQueue<>();
+
+    private Counter sent;
+    private Counter failed;
+    private Counter rejected;
+    private Counter spooled;
+
+    @PostConstruct
+    void init() {
+        keyStrategy = keyStrategies.get(partitionKey);
+        if (keyStrategy == null) {
+            throw new IllegalStateException("Unknown logsy.kafka.partition-key '" + partitionKey
+                    + "', expected one of " + keyStrategies.keySet());
+        }
+
+        window = new Semaphore(maxInFlight);
+
+        meterRegistry.gauge("logsy.kafka.in_flight", window, w -> maxInFlight - w.availablePermits());
+        sent = meterRegistry.counter("logsy.kafka.sent");
+        failed = meterRegistry.counter("logsy.kafka.failed");
+        rejected = meterRegistry.counter("logsy.kafka.rejected");
+        spooled = meterRegistry.counter("logsy.kafka.spooled");
+    }
+
     @Override
     public void sendMessage(LogsDto logsDto) {
 
-        kafkaTemplate.send(topic, logsDto);
+        // assigned before the record can be spooled, so a replayed or re-sent record keeps its id
+        // and storage writes it once
+        if (logsDto.getEventId() == null || logsDto.getEventId().isBlank()) {
+            logsDto.setEventId(newEventId());
+        }
+
+        // once something is spooled, new records queue up behind it to keep the order
+        if (spool.isEnabled() && (spool.hasPending() || !failedSends.isEmpty() || isPaused())) {
+            spool(logsDto);
+            return;
+        }
+
+        if (isPaused()) {
+            rejected.increment();
+            throw new IngestRejectedException(HttpStatus.SERVICE_UNAVAILABLE, brokerDownCooldownSeconds,
+                    "log broker is unavailable, retry later");
+        }
+
+        if (!acquire()) {
+            if (spool.isEnabled()) {
+                spool(logsDto);
+                return;
+            }
+            rejected.increment();
+            throw new IngestRejectedException(HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                    "too many logs in flight, retry later");
+        }
+
+        try {
+            kafkaTemplate.send(topic, keyStrategy.keyFor(logsDto), logsDto).whenComplete((result, ex) -> {
+                window.release();
+                if (ex == null) {
+                    sent.increment();
+                } else {
+                    failed.increment();
+                    markBrokerDown(ex);
+                    if (spool.isEnabled()) {
+                        failedSends.add(logsDto);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // send() only throws synchronously when it could not even buffer the record
+            // (metadata or buffer wait exceeded max.block.ms)
+            window.release();
+            failed.increment();
+            pauseIntake(e);
+            if (spool.isEnabled()) {
+                spool(logsDto);
+                return;
+            }
+            throw new IngestRejectedException(HttpStatus.SERVICE_UNAVAILABLE, brokerDownCooldownSeconds,
+                    "log broker is unavailable, retry later");
+        }
+
+    }
+
+    /**
+     * Sends spooled records straight to Kafka and waits for all of them to be acknowledged.
+     * Only the spool drainer calls this, it bypasses the spool and the in-flight window.
+     */
+    public boolean replay(List<LogsDto> batch) {
+
+        List<CompletableFuture<?>> futures = new ArrayList<>(batch.size());
+
+        try {
+            for (LogsDto logsDto : batch) {
+                futures.add(kafkaTemplate.send(topic, keyStrategy.keyFor(logsDto), logsDto));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(replayTimeoutMs, TimeUnit.MILLISECONDS);
+            sent.increment(batch.size());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            pauseIntake(e);
+            return false;
+        }
+    }
+
+    public boolean isPaused() {
+        return System.currentTimeMillis() < brokerDownUntil;
+    }
+
+    private void spool(LogsDto logsDto) {
+        try {
+            spool.append(objectMapper.writeValueAsBytes(logsDto));
+            spooled.increment();
+        } catch (SpoolFullException e) {
+            rejected.increment();
+            throw new IngestRejectedException(HttpStatus.SERVICE_UNAVAILABLE, brokerDownCooldownSeconds, e.getMessage());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot spool log record", e);
+        }
+    }
+
+    /**
+     * Moves records whose send failed after it was accepted into the spool. Runs on the drainer's
+     * thread so the spool write (and its fsync) never blocks the producer I/O thread.
+     */
+    public void spoolFailedSends() {
+        for (LogsDto logsDto; (logsDto = failedSends.poll()) != null; ) {
+            try {
+                spool(logsDto);
+            } catch (RuntimeException e) {
+                System.err.println("❌ lost log record of " + logsDto.getService() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // ThreadLocalRandom rather than UUID.randomUUID(), which contends on one SecureRandom
+    private static String newEventId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private boolean acquire() {
+        try {
+            return window.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void markBrokerDown(Throwable cause) {
+        if (!isRetriable(cause)) {
+            System.err.println("❌ kafka rejected log record: " + cause.getMessage());
+            return;
+        }
+        pauseIntake(cause);
+    }
+
+    private void pauseIntake(Throwable cause) {
+        brokerDownUntil = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(brokerDownCooldownSeconds);
+        System.err.println("❌ kafka send failed, pausing intake for " + brokerDownCooldownSeconds + "s: " + cause.getMessage()
+                + (cause.getCause() != null ? " (" + cause.getCause().getMessage() + ")" : ""));
+    }
 
+    private boolean isRetriable(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
     }
 
 }
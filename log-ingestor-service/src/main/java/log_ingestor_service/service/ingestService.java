@@ -0,0 +1,8 @@
+package log_ingestor_service.service;
+
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.ratelimit.RateLimitDecision;
+
+public interface ingestService {
+    public RateLimitDecision ingest(LogsDto logsDto);
+}
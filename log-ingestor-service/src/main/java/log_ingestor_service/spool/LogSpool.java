@@ -0,0 +1,381 @@
+package log_ingestor_service.spool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local spool for records Kafka could not take right away.
+ *
+ * Records live in fixed size, memory-mapped segment files (segment-N.log) as
+ * [length][crc32][payload] frames; a zero length marks the end of a segment. The read
+ * position is persisted in the "cursor" file after every replayed batch, so a restart
+ * resumes where replay stopped (records after the last persisted cursor may be sent twice).
+ *
+ * Off by default: enable it with an explicit {@code logsy.spool.dir} on a volume that outlives
+ * the process, one per ingestor instance.
+ */
+@Component
+public class LogSpool {
+
+    public enum FsyncPolicy { ALWAYS, INTERVAL, NEVER }
+
+    private static final int HEADER = 8;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${logsy.spool.enabled:false}")
+    private boolean enabled;
+
+    @Value("${logsy.spool.dir:}")
+    private Path dir;
+
+    @Value("${logsy.spool.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${logsy.spool.max-bytes:1073741824}")
+    private long maxBytes;
+
+    @Value("${logsy.spool.fsync:interval}")
+    private String fsync;
+
+    private FsyncPolicy fsyncPolicy;
+
+    private final TreeSet<Long> segments = new TreeSet<>();
+
+    // writer state, guarded by this
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private int writePos;
+    private boolean dirty;
+
+    // reader state, only touched by the drainer thread
+    private long readSegment;
+    private int readPos;
+    private long peekSegment;
+    private int peekPos;
+    private int peekedRecords;
+    private long peekedBytes;
+    private long mappedReadSegment = -1;
+    private ByteBuffer readBuffer;
+
+    private final AtomicLong pendingRecords = new AtomicLong();
+    private final AtomicLong pendingBytes = new AtomicLong();
+
+    @PostConstruct
+    void open() throws IOException {
+
+        if (!enabled) {
+            return;
+        }
+
+        if (dir == null || dir.toString().isBlank()) {
+            throw new IllegalStateException("logsy.spool.enabled is set but logsy.spool.dir is not");
+        }
+
+        fsyncPolicy = FsyncPolicy.valueOf(fsync.trim().toUpperCase());
+        Files.createDirectories(dir);
+
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith("segment-") && n.endsWith(".log"))
+                    .map(n -> Long.parseLong(n.substring(8, n.length() - 4)))
+                    .forEach(segments::add);
+        }
+
+        if (segments.isEmpty()) {
+            segments.add(0L);
+        }
+
+        readCursor();
+
+        // everything before the cursor was already replayed
+        for (Long id : new ArrayList<>(segments.headSet(readSegment))) {
+            Files.deleteIfExists(segmentPath(id));
+            segments.remove(id);
+        }
+        if (segments.isEmpty() || segments.first() > readSegment) {
+            readSegment = segments.isEmpty() ? 0 : segments.first();
+            readPos = 0;
+            segments.add(readSegment);
+        }
+
+        writeSegment = segments.last();
+        writeBuffer = map(writeSegment);
+        writePos = scan(writeBuffer, 0, null);
+
+        // count what is still waiting to be replayed
+        for (long id : segments.tailSet(readSegment)) {
+            ByteBuffer buffer = id == writeSegment ? writeBuffer.duplicate() : map(id);
+            scan(buffer, id == readSegment ? readPos : 0, (records, bytes) -> {
+                pendingRecords.addAndGet(records);
+                pendingBytes.addAndGet(bytes);
+            });
+        }
+
+        peekSegment = readSegment;
+        peekPos = readPos;
+
+        meterRegistry.gauge("logsy.spool.depth.records", pendingRecords);
+        meterRegistry.gauge("logsy.spool.depth.bytes", pendingBytes);
+        meterRegistry.gauge("logsy.spool.segments", segments, s -> s.size());
+
+        if (pendingRecords.get() > 0) {
+            System.out.println("📼 Spool recovered " + pendingRecords.get() + " records waiting for replay");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean hasPending() {
+        return pendingRecords.get() > 0;
+    }
+
+    public long pendingRecords() {
+        return pendingRecords.get();
+    }
+
+    public synchronized void append(byte[] payload) throws SpoolFullException {
+
+        int frame = HEADER + payload.length;
+
+        if (frame + HEADER > segmentBytes) {
+            throw new SpoolFullException("record of " + payload.length + " bytes does not fit a spool segment");
+        }
+
+        if (writePos + frame + HEADER > segmentBytes) {
+            if ((long) (segments.size() + 1) * segmentBytes > maxBytes) {
+                throw new SpoolFullException("spool is full (" + maxBytes + " bytes)");
+            }
+            rotate();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        // payload and crc first, length last: a torn frame never looks complete
+        writeBuffer.putInt(writePos + 4, (int) crc.getValue());
+        writeBuffer.put(writePos + HEADER, payload);
+        writeBuffer.putInt(writePos, payload.length);
+
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            writeBuffer.force(writePos, frame);
+        } else {
+            dirty = true;
+        }
+
+        writePos += frame;
+        pendingBytes.addAndGet(payload.length);
+        pendingRecords.incrementAndGet();
+    }
+
+    /**
+     * Reads up to max records after the last committed position without consuming them.
+     * Call {@link #commit()} once they are safely in Kafka, or peek again to retry the same records.
+     */
+    public List<byte[]> peek(int max) {
+
+        List<byte[]> out = new ArrayList<>(Math.min(max, 1024));
+        long segment = readSegment;
+        int pos = readPos;
+        long bytes = 0;
+
+        while (out.size() < max) {
+
+            long lastSegment;
+            int limit;
+            synchronized (this) {
+                lastSegment = writeSegment;
+                limit = segment == writeSegment ? writePos : segmentBytes;
+            }
+
+            ByteBuffer buffer = readable(segment);
+            int length = pos + HEADER <= limit ? buffer.getInt(pos) : 0;
+
+            if (length <= 0) {
+                if (segment >= lastSegment) {
+                    break;
+                }
+                segment = nextSegment(segment);
+                pos = 0;
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            buffer.get(pos + HEADER, payload);
+            out.add(payload);
+            bytes += length;
+            pos += HEADER + length;
+        }
+
+        peekSegment = segment;
+        peekPos = pos;
+        peekedRecords = out.size();
+        peekedBytes = bytes;
+
+        return out;
+    }
+
+    public void commit() {
+
+        long previous = readSegment;
+        readSegment = peekSegment;
+        readPos = peekPos;
+        pendingRecords.addAndGet(-peekedRecords);
+        pendingBytes.addAndGet(-peekedBytes);
+        peekedRecords = 0;
+        peekedBytes = 0;
+
+        writeCursor();
+
+        if (readSegment != previous) {
+            synchronized (this) {
+                for (Long id : new ArrayList<>(segments.headSet(readSegment))) {
+                    segments.remove(id);
+                    try {
+                        Files.deleteIfExists(segmentPath(id));
+                    } catch (IOException e) {
+                        System.err.println("❌ could not delete replayed spool segment " + id + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${logsy.spool.fsync-interval-ms:1000}")
+    public void flush() {
+        if (!enabled || fsyncPolicy != FsyncPolicy.INTERVAL) {
+            return;
+        }
+        synchronized (this) {
+            if (dirty) {
+                writeBuffer.force();
+                dirty = false;
+            }
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (enabled && writeBuffer != null && fsyncPolicy != FsyncPolicy.NEVER) {
+            writeBuffer.force();
+        }
+    }
+
+    private void rotate() {
+        writeBuffer.force();
+        writeSegment++;
+        segments.add(writeSegment);
+        writeBuffer = map(writeSegment);
+        writePos = 0;
+    }
+
+    private long nextSegment(long segment) {
+        synchronized (this) {
+            Long next = segments.higher(segment);
+            return next == null ? segment + 1 : next;
+        }
+    }
+
+    private ByteBuffer readable(long segment) {
+        if (segment != mappedReadSegment) {
+            synchronized (this) {
+                readBuffer = segment == writeSegment ? writeBuffer.duplicate() : map(segment);
+            }
+            mappedReadSegment = segment;
+        }
+        return readBuffer;
+    }
+
+    private MappedByteBuffer map(long segment) {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map spool segment " + segment, e);
+        }
+    }
+
+    private interface ScanListener {
+        void scanned(long records, long bytes);
+    }
+
+    // walks valid frames from pos and returns the position after the last one
+    private int scan(ByteBuffer buffer, int pos, ScanListener listener) {
+
+        long records = 0;
+        long bytes = 0;
+        CRC32 crc = new CRC32();
+
+        while (pos + HEADER <= segmentBytes) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || pos + HEADER + length > segmentBytes) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(pos + HEADER, length));
+            if ((int) crc.getValue() != buffer.getInt(pos + 4)) {
+                break;
+            }
+            records++;
+            bytes += length;
+            pos += HEADER + length;
+        }
+
+        if (listener != null) {
+            listener.scanned(records, bytes);
+        }
+        return pos;
+    }
+
+    private void readCursor() throws IOException {
+        Path cursor = dir.resolve("cursor");
+        if (Files.isRegularFile(cursor) && Files.size(cursor) == 16) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cursor));
+            readSegment = buffer.getLong();
+            readPos = (int) buffer.getLong();
+        } else {
+            readSegment = segments.first();
+            readPos = 0;
+        }
+    }
+
+    private void writeCursor() {
+        ByteBuffer buffer = ByteBuffer.allocate(16).putLong(readSegment).putLong(readPos);
+        try {
+            Path tmp = dir.resolve("cursor.tmp");
+            Files.write(tmp, buffer.array());
+            Files.move(tmp, dir.resolve("cursor"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("❌ could not persist spool cursor: " + e.getMessage());
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return dir.resolve(String.format("segment-%020d.log", segment));
+    }
+
+}
@@ -0,0 +1,101 @@
+package log_ingestor_service.spool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.service.impl.kafkaServiceImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Replays spooled records into Kafka, oldest first, once the producer is healthy again.
+@Component
+public class SpoolDrainer {
+
+    @Autowired
+    private LogSpool spool;
+
+    @Autowired
+    private kafkaServiceImpl logsService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${logsy.spool.drain-batch-size:500}")
+    private int batchSize;
+
+    @Value("${logsy.spool.drain-max-records-per-run:50000}")
+    private int maxRecordsPerRun;
+
+    private Counter replayed;
+
+    // records/sec of the last drain run
+    private final AtomicLong replayRate = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        replayed = meterRegistry.counter("logsy.spool.replayed");
+        meterRegistry.gauge("logsy.spool.replay.rate", replayRate);
+    }
+
+    @Scheduled(fixedDelayString = "${logsy.spool.drain-interval-ms:1000}")
+    public void drain() {
+
+        if (!spool.isEnabled()) {
+            return;
+        }
+
+        // spooled first so this run replays them too
+        logsService.spoolFailedSends();
+
+        if (!spool.hasPending() || logsService.isPaused()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        int sent = 0;
+
+        while (sent < maxRecordsPerRun && spool.hasPending()) {
+
+            List<byte[]> frames = spool.peek(batchSize);
+            if (frames.isEmpty()) {
+                break;
+            }
+
+            List<LogsDto> batch = new ArrayList<>(frames.size());
+            for (byte[] frame : frames) {
+                try {
+                    batch.add(objectMapper.readValue(frame, LogsDto.class));
+                } catch (Exception e) {
+                    System.err.println("❌ skipping unreadable spooled record: " + e.getMessage());
+                }
+            }
+
+            if (!logsService.replay(batch)) {
+                break;
+            }
+
+            spool.commit();
+            sent += frames.size();
+            replayed.increment(frames.size());
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        replayRate.set(seconds > 0 ? Math.round(sent / seconds) : 0);
+
+        if (sent > 0) {
+            System.out.println("📼 Replayed " + sent + " spooled records, " + spool.pendingRecords() + " still waiting");
+        }
+    }
+
+}
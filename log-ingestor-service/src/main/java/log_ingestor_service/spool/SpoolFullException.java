@@ -0,0 +1,9 @@
+package log_ingestor_service.spool;
+
+public class SpoolFullException extends Exception {
+
+    public SpoolFullException(String message) {
+        super(message);
+    }
+
+}
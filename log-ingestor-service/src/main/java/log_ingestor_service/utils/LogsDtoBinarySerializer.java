@@ -0,0 +1,46 @@
+package log_ingestor_service.utils;
+
+import common_lib.codec.LogRecordSerializer;
+import common_lib.domain.LogRecord;
+import log_ingestor_service.domain.dto.LogsDto;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+// Opt-in value serializer writing the common-lib binary format instead of JSON. The processor routes it
+// on the level byte and storage and alert read it with LogRecordDeserializer; older builds of those only
+// parse JSON, so it refuses to start unless logsy.binary.enabled=true, to be set once all of them are upgraded.
+public class LogsDtoBinarySerializer implements Serializer<LogsDto> {
+
+    public static final String ENABLED = "logsy.binary.enabled";
+
+    private final LogRecordSerializer delegate = new LogRecordSerializer();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        if (!Boolean.parseBoolean(String.valueOf(configs.get(ENABLED)))) {
+            throw new ConfigException(ENABLED, configs.get(ENABLED),
+                    "set it to true only once every consumer of the topic decodes binary log records");
+        }
+        delegate.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, LogsDto logsDto) {
+        if (logsDto == null) {
+            return null;
+        }
+        return delegate.serialize(topic, LogRecord.builder()
+                .timestamp(logsDto.getTimestamp())
+                .level(logsDto.getLevel())
+                .message(logsDto.getMessage())
+                .service(logsDto.getService())
+                .instanceId(logsDto.getInstanceId())
+                .metadata(logsDto.getMetadata())
+                .traceId(logsDto.getTraceId())
+                .stackTrace(logsDto.getStackTrace())
+                .eventId(logsDto.getEventId())
+                .build());
+    }
+}
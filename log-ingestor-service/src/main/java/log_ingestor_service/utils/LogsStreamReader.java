@@ -0,0 +1,111 @@
+package log_ingestor_service.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import log_ingestor_service.domain.dto.LogsDto;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Walks a request body token by token and hands every log record to the sink as soon as it is read.
+ * Accepts either a JSON array of records or NDJSON (whitespace separated root level objects),
+ * so the whole body is never bound in memory.
+ */
+@Component
+public class LogsStreamReader {
+
+    public interface RecordSink {
+
+        void accept(int index, LogsDto logsDto);
+
+        void reject(int index, String reason);
+
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader logsReader;
+    private final Validator validator;
+
+    public LogsStreamReader(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.logsReader = objectMapper.readerFor(LogsDto.class);
+        this.validator = validator;
+    }
+
+    /**
+     * @return the number of records seen, or -1 once the body stopped being parseable JSON.
+     */
+    public int read(InputStream body, RecordSink sink) throws IOException {
+
+        int index = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+
+            JsonToken first = parser.nextToken();
+
+            if (first == null) {
+                return 0;
+            }
+
+            boolean array = first == JsonToken.START_ARRAY;
+            JsonToken token = array ? parser.nextToken() : first;
+
+            while (token != null && token != JsonToken.END_ARRAY) {
+
+                if (token != JsonToken.START_OBJECT) {
+                    sink.reject(index++, "expected a JSON object but found " + token);
+                    parser.skipChildren();
+                    token = parser.nextToken();
+                    continue;
+                }
+
+                // Reading the record as a tree first keeps the parser aligned on the next record
+                // even when this one fails to bind.
+                JsonNode node = parser.readValueAsTree();
+                bind(index++, node, sink);
+
+                token = parser.nextToken();
+            }
+
+        } catch (com.fasterxml.jackson.core.JsonProcessingException e) {
+            sink.reject(index, "malformed body: " + e.getOriginalMessage());
+            return -1;
+        }
+
+        return index;
+    }
+
+    private void bind(int index, JsonNode node, RecordSink sink) {
+
+        LogsDto logsDto;
+
+        try {
+            logsDto = logsReader.treeToValue(node, LogsDto.class);
+        } catch (Exception e) {
+            sink.reject(index, "unreadable record: " + e.getMessage().split("\n")[0]);
+            return;
+        }
+
+        Set<ConstraintViolation<LogsDto>> violations = validator.validate(logsDto);
+
+        if (!violations.isEmpty()) {
+            sink.reject(index, violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return;
+        }
+
+        sink.accept(index, logsDto);
+    }
+
+}
@@ -0,0 +1,133 @@
+package log_ingestor_service.bench;
+
+import log_ingestor_service.LogIngestorServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load benchmark for POST /logs under platform vs virtual request threads.
+ * Boots an embedded KRaft broker and the ingestor in-process, then keeps a fixed number
+ * of requests in flight and reports requests/sec and latency percentiles per mode.
+ *
+ * Run with bench/run-ingest-bench.sh (needs Java 21 for the virtual mode).
+ */
+public class IngestLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+
+        int concurrency = Integer.getInteger("bench.concurrency", 1000);
+        int requests = Integer.getInteger("bench.requests", 200_000);
+        int warmup = Integer.getInteger("bench.warmup", 50_000);
+        String[] modes = System.getProperty("bench.modes", "platform,virtual").split(",");
+
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 6, "log-service");
+        broker.afterPropertiesSet();
+
+        try {
+            for (String mode : modes) {
+                run(mode, broker.getBrokersAsString(), concurrency, warmup, requests);
+            }
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static void run(String mode, String brokers, int concurrency, int warmup, int requests) throws Exception {
+
+        SpringApplicationBuilder app = new SpringApplicationBuilder(LogIngestorServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + (concurrency * 2),
+                        "spring.kafka.bootstrap-servers=" + brokers,
+                        "logging.level.root=WARN");
+
+        if (mode.equals("virtual")) {
+            app.profiles("virtual");
+        }
+
+        try (ConfigurableApplicationContext ctx = app.run()) {
+
+            int port = Integer.parseInt(ctx.getEnvironment().getProperty("local.server.port"));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            fire(client, port, concurrency, warmup);
+            Result result = fire(client, port, concurrency, requests);
+
+            System.out.printf("%-8s concurrency=%d requests=%d ok=%d rejected=%d  %.0f req/s  p50=%.2fms p99=%.2fms max=%.2fms%n",
+                    mode, concurrency, requests, result.ok, result.rejected, result.throughput,
+                    result.percentile(50), result.percentile(99), result.percentile(100));
+        }
+    }
+
+    private static Result fire(HttpClient client, int port, int concurrency, int requests) throws InterruptedException {
+
+        URI uri = URI.create("http://localhost:" + port + "/logs");
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(requests);
+        long[] latencies = new long[requests];
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        long start = System.nanoTime();
+
+        for (int i = 0; i < requests; i++) {
+
+            inFlight.acquire();
+
+            int slot = i;
+            String body = """
+                    {"timestamp":"%s","level":"INFO","message":"request %d served","service":"bench-%d","instanceId":"i-%d"}
+                    """.formatted(Instant.now(), i, i % 16, i % 4);
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long sent = System.nanoTime();
+
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((res, ex) -> {
+                latencies[slot] = System.nanoTime() - sent;
+                if (ex == null && res.statusCode() == 200) {
+                    ok.incrementAndGet();
+                } else {
+                    rejected.incrementAndGet();
+                }
+                inFlight.release();
+                done.countDown();
+            });
+        }
+
+        done.await();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(latencies, ok.get(), rejected.get(), requests / seconds);
+    }
+
+    private record Result(long[] latencies, int ok, int rejected, double throughput) {
+
+        Result {
+            Arrays.sort(latencies);
+        }
+
+        double percentile(double p) {
+            int index = (int) Math.ceil(p / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package log_ingestor_service.collapse;
+
+import common_lib.domain.enums.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.exceptions.IngestRejectedException;
+import log_ingestor_service.service.impl.kafkaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class DuplicateCollapserTests {
+
+	private static final Instant T0 = Instant.parse("2026-10-18T10:00:00Z");
+
+	private final kafkaServiceImpl kafka = Mockito.mock(kafkaServiceImpl.class);
+
+	private final DuplicateCollapser collapser = new DuplicateCollapser();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(collapser, "logsService", kafka);
+		ReflectionTestUtils.setField(collapser, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(collapser, "enabled", true);
+		ReflectionTestUtils.setField(collapser, "windowMs", 60_000L);
+		ReflectionTestUtils.setField(collapser, "maxKeys", 100);
+		collapser.init();
+	}
+
+	@Test
+	void retryOfAnAbandonedFirstLineIsSentAgain() {
+		LogsDto first = log(T0);
+
+		assertTrue(collapser.offer(first));
+		collapser.abandon(first);
+
+		assertTrue(collapser.offer(log(T0)));
+		assertFalse(collapser.offer(log(T0.plusSeconds(1))));
+	}
+
+	@Test
+	void abandonKeepsCopiesAlreadyFolded() {
+		LogsDto first = log(T0);
+
+		collapser.offer(first);
+		collapser.offer(log(T0.plusSeconds(1)));
+		collapser.abandon(first);
+		collapser.flush();
+
+		ArgumentCaptor<LogsDto> sent = ArgumentCaptor.forClass(LogsDto.class);
+		verify(kafka).sendMessage(sent.capture());
+		assertEquals(1, sent.getValue().getMetadata().get("duplicateCount"));
+	}
+
+	@Test
+	void summarySpansRecordTimestamps() {
+		collapser.offer(log(T0));
+		collapser.offer(log(T0.plusSeconds(30)));
+		collapser.offer(log(T0.plusSeconds(10)));
+
+		collapser.flush();
+		verify(kafka, never()).sendMessage(Mockito.any());
+
+		ReflectionTestUtils.setField(collapser, "windowMs", 0L);
+		collapser.flush();
+
+		ArgumentCaptor<LogsDto> sent = ArgumentCaptor.forClass(LogsDto.class);
+		verify(kafka).sendMessage(sent.capture());
+		Map<String, Object> metadata = sent.getValue().getMetadata();
+		assertEquals(2, metadata.get("duplicateCount"));
+		assertEquals(T0.toString(), metadata.get("firstSeen"));
+		assertEquals(T0.plusSeconds(30).toString(), metadata.get("lastSeen"));
+	}
+
+	@Test
+	void summaryThatCouldNotBeSentIsRetriedOnTheNextFlush() {
+		collapser.offer(log(T0));
+		collapser.offer(log(T0.plusSeconds(1)));
+
+		Mockito.doThrow(new IngestRejectedException(HttpStatus.SERVICE_UNAVAILABLE, 5, "broker down"))
+				.doNothing()
+				.when(kafka).sendMessage(Mockito.any());
+
+		ReflectionTestUtils.setField(collapser, "windowMs", 0L);
+		collapser.flush();
+		collapser.flush();
+
+		ArgumentCaptor<LogsDto> sent = ArgumentCaptor.forClass(LogsDto.class);
+		verify(kafka, times(2)).sendMessage(sent.capture());
+		assertEquals(1, sent.getValue().getMetadata().get("duplicateCount"));
+
+		collapser.flush();
+		verify(kafka, times(2)).sendMessage(Mockito.any());
+	}
+
+	private static LogsDto log(Instant timestamp) {
+		return LogsDto.builder()
+				.timestamp(timestamp)
+				.level(Level.ERROR)
+				.message("order 81723 failed after 3000 ms")
+				.service("payments")
+				.instanceId("payments-1")
+				.build();
+	}
+
+}
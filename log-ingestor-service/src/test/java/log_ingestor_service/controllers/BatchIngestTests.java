@@ -0,0 +1,121 @@
+package log_ingestor_service.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.ServletInputStream;
+import jakarta.validation.Validation;
+import log_ingestor_service.domain.dto.BatchResultDto;
+import log_ingestor_service.domain.dto.LogsDto;
+import log_ingestor_service.exceptions.BodyTooLargeException;
+import log_ingestor_service.service.impl.batchIngestServiceImpl;
+import log_ingestor_service.service.impl.ingestServiceImpl;
+import log_ingestor_service.utils.LogsStreamReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BatchIngestTests {
+
+	private final ingestServiceImpl logsService = Mockito.mock(ingestServiceImpl.class);
+
+	private final logsController controller = new logsController();
+
+	@BeforeEach
+	void setUp() {
+		batchIngestServiceImpl batchService = new batchIngestServiceImpl();
+		ReflectionTestUtils.setField(batchService, "logsService", logsService);
+		ReflectionTestUtils.setField(batchService, "reader", new LogsStreamReader(new ObjectMapper().registerModule(new JavaTimeModule()),
+				Validation.buildDefaultValidatorFactory().getValidator()));
+		ReflectionTestUtils.setField(batchService, "chunkSize", 2);
+		ReflectionTestUtils.setField(controller, "batchService", batchService);
+	}
+
+	@Test
+	void aWholeBodyIsAccepted() throws Exception {
+		ResponseEntity<BatchResultDto> response = controller.postBatch(request(ndjson(3), Integer.MAX_VALUE));
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(3, response.getBody().getAccepted());
+		verify(logsService, times(3)).ingest(Mockito.any());
+	}
+
+	@Test
+	void aBodyCutOffPartwaySendsWhatWasReadAndSaysWhereItStopped() throws Exception {
+		String body = ndjson(5);
+		// fails inside the fourth line: three complete records, one of them still in the pending chunk
+		int limit = body.indexOf("m3") + 1;
+
+		ResponseEntity<BatchResultDto> response = controller.postBatch(request(body, limit));
+
+		assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+		BatchResultDto result = response.getBody();
+		assertEquals(3, result.getAccepted());
+		assertEquals(1, result.getRejected());
+		assertEquals(3, result.getErrors().get(0).getIndex());
+		assertTrue(result.getErrors().get(0).getReason().startsWith("body not read to the end"), result.getErrors().get(0).getReason());
+
+		ArgumentCaptor<LogsDto> sent = ArgumentCaptor.forClass(LogsDto.class);
+		verify(logsService, times(3)).ingest(sent.capture());
+		assertEquals(List.of("m0", "m1", "m2"), sent.getAllValues().stream().map(LogsDto::getMessage).toList());
+	}
+
+	@Test
+	void aBodyThatFailsBeforeAnyRecordIsAPlainError() throws Exception {
+		ResponseEntity<BatchResultDto> response = controller.postBatch(request(ndjson(2), 10));
+
+		assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+		assertEquals(0, response.getBody().getAccepted());
+		assertEquals(0, response.getBody().getErrors().get(0).getIndex());
+	}
+
+	private static String ndjson(int n) {
+		StringBuilder body = new StringBuilder();
+		for (int i = 0; i < n; i++) {
+			body.append("{\"timestamp\":\"2026-10-18T10:00:00Z\",\"level\":\"INFO\",\"service\":\"payments\",\"message\":\"m").append(i).append("\"}\n");
+		}
+		return body.toString();
+	}
+
+	// fails, as RequestDecompressionFilter's size limit does, once more than limit bytes are read
+	private static MockHttpServletRequest request(String body, int limit) {
+		InputStream limited = new FilterInputStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))) {
+
+			private int read;
+
+			@Override
+			public int read() throws IOException {
+				int b = super.read();
+				if (b >= 0 && ++read > limit) {
+					throw new BodyTooLargeException("request body exceeds " + limit + " bytes");
+				}
+				return b;
+			}
+
+		};
+		return new MockHttpServletRequest("POST", "/logs/batch") {
+			@Override
+			public ServletInputStream getInputStream() {
+				return new DelegatingServletInputStream(limited);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,90 @@
+package log_ingestor_service.ratelimit;
+
+import common_lib.domain.enums.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import log_ingestor_service.domain.dto.LogsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTests {
+
+	private final RateLimitProperties properties = new RateLimitProperties();
+
+	private final TokenBucketLimiter limiter = new TokenBucketLimiter();
+
+	@BeforeEach
+	void setUp() {
+		// a refill rate low enough that nothing comes back while a test runs
+		properties.setDefaults(new RateLimitProperties.Limit(0.001, 10));
+		ReflectionTestUtils.setField(limiter, "properties", properties);
+		ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+		limiter.init();
+	}
+
+	@Test
+	void lowerLevelsAreShedFirstAndExemptLevelsAreNeverRefused() {
+		int info = 0;
+		while (limiter.acquire(log("orders", Level.INFO)).allowed()) {
+			info++;
+		}
+		// INFO keeps a quarter of the burst back
+		assertEquals(7, info);
+
+		RateLimitDecision limited = limiter.acquire(log("orders", Level.INFO));
+		assertFalse(limited.allowed());
+		assertTrue(limited.retryAfterSeconds() >= 1);
+
+		assertTrue(limiter.acquire(log("orders", Level.WARN)).allowed());
+		assertTrue(limiter.acquire(log("orders", Level.WARN)).allowed());
+		assertFalse(limiter.acquire(log("orders", Level.WARN)).allowed());
+
+		for (int i = 0; i < 20; i++) {
+			assertTrue(limiter.acquire(log("orders", Level.ERROR)).allowed());
+		}
+	}
+
+	@Test
+	void servicesPastMaxKeysShareOneOverflowBucket() {
+		properties.setMaxKeys(2);
+
+		for (String service : Set.of("orders", "search", "billing", "payments", "auth")) {
+			limiter.acquire(log(service, Level.WARN));
+		}
+
+		assertEquals(3, limiter.snapshot().size());
+		assertTrue(limiter.snapshot().containsKey(TokenBucketLimiter.OVERFLOW_KEY));
+		assertEquals(3L, limiter.snapshot().get(TokenBucketLimiter.OVERFLOW_KEY).get("allowed"));
+	}
+
+	@Test
+	void onlyIdleBucketsAreEvicted() throws InterruptedException {
+		limiter.acquire(log("orders", Level.INFO));
+
+		limiter.evictIdle();
+		assertEquals(Set.of("orders"), limiter.snapshot().keySet());
+
+		properties.setIdleEvictSeconds(0);
+		Thread.sleep(5);
+		limiter.evictIdle();
+		assertTrue(limiter.snapshot().isEmpty());
+	}
+
+	private static LogsDto log(String service, Level level) {
+		return LogsDto.builder()
+				.timestamp(Instant.parse("2026-10-18T10:00:00Z"))
+				.level(level)
+				.message("checkout failed")
+				.service(service)
+				.instanceId("i-1")
+				.build();
+	}
+
+}
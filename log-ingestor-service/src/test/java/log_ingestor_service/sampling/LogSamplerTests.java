@@ -0,0 +1,86 @@
+package log_ingestor_service.sampling;
+
+import common_lib.domain.enums.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import log_ingestor_service.domain.dto.LogsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogSamplerTests {
+
+	private final SamplingProperties properties = new SamplingProperties();
+
+	private final LogSampler sampler = new LogSampler();
+
+	@BeforeEach
+	void setUp() {
+		properties.setEnabled(true);
+		ReflectionTestUtils.setField(sampler, "properties", properties);
+		ReflectionTestUtils.setField(sampler, "meterRegistry", new SimpleMeterRegistry());
+		sampler.init();
+	}
+
+	@Test
+	void everyRecordOfATraceGetsTheSameDecision() {
+		properties.getRates().put(Level.INFO, 0.3);
+		properties.setTraceRate(0.1);
+
+		int keptTraces = 0;
+		for (int t = 0; t < 500; t++) {
+			String traceId = "trace-" + t;
+			boolean first = sampler.sample(log(traceId));
+			for (int i = 0; i < 20; i++) {
+				assertEquals(first, sampler.sample(log(traceId)), traceId);
+			}
+			keptTraces += first ? 1 : 0;
+		}
+
+		// decided at the higher of the two rates
+		assertEquals(150, keptTraces, 40);
+	}
+
+	@Test
+	void selectedTraceKeepsWhatTheLevelRateDrops() {
+		properties.getRates().put(Level.INFO, 0.0);
+		properties.setTraceRate(1.0);
+
+		for (int i = 0; i < 100; i++) {
+			assertTrue(sampler.sample(log("trace-" + i)));
+		}
+	}
+
+	@Test
+	void weightComesFromTheKeepProbability() {
+		properties.getRates().put(Level.INFO, 0.5);
+		properties.setTraceRate(0.25);
+
+		int kept = 0;
+		for (int i = 0; i < 20_000; i++) {
+			LogsDto logsDto = log("trace-" + i);
+			if (sampler.sample(logsDto)) {
+				kept++;
+				assertEquals(2.0, (double) logsDto.getMetadata().get(LogSampler.WEIGHT_KEY), 1e-9);
+			}
+		}
+
+		// scaled back up, the kept records stand for roughly everything that came in
+		assertEquals(20_000, kept * 2.0, 600);
+	}
+
+	private static LogsDto log(String traceId) {
+		return LogsDto.builder()
+				.timestamp(Instant.parse("2026-10-18T10:00:00Z"))
+				.level(Level.INFO)
+				.message("cart updated")
+				.service("checkout")
+				.traceId(traceId)
+				.build();
+	}
+
+}
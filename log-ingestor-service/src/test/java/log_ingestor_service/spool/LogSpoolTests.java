@@ -0,0 +1,149 @@
+package log_ingestor_service.spool;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LogSpoolTests {
+
+	// 12-byte payloads make 20-byte frames, so a 64-byte segment holds two
+	private static final int SMALL_SEGMENT = 64;
+
+	@TempDir
+	Path dir;
+
+	private final List<LogSpool> opened = new ArrayList<>();
+
+	@AfterEach
+	void closeAll() {
+		opened.forEach(LogSpool::close);
+	}
+
+	@Test
+	void rotatesSegmentsAndReplaysInOrder() throws Exception {
+		LogSpool spool = open(SMALL_SEGMENT, Long.MAX_VALUE);
+
+		for (int i = 0; i < 5; i++) {
+			spool.append(payload(i));
+		}
+
+		assertEquals(3, segmentFiles());
+		assertEquals(List.of(record(0), record(1), record(2), record(3), record(4)), read(spool.peek(100)));
+
+		spool.commit();
+
+		assertEquals(0, spool.pendingRecords());
+		// fully replayed segments are deleted, the one being written stays
+		assertEquals(1, segmentFiles());
+	}
+
+	@Test
+	void restartResumesFromPersistedCursor() throws Exception {
+		LogSpool spool = open(4096, Long.MAX_VALUE);
+		for (int i = 0; i < 5; i++) {
+			spool.append(payload(i));
+		}
+
+		assertEquals(List.of(record(0), record(1)), read(spool.peek(2)));
+		spool.commit();
+		// peeked but never committed, so replayed again after the restart
+		spool.peek(2);
+		spool.close();
+
+		LogSpool restarted = open(4096, Long.MAX_VALUE);
+
+		assertEquals(3, restarted.pendingRecords());
+		assertEquals(List.of(record(2), record(3), record(4)), read(restarted.peek(100)));
+	}
+
+	@Test
+	void recoveryStopsAtTornOrCorruptTail() throws Exception {
+		LogSpool spool = open(4096, Long.MAX_VALUE);
+		for (int i = 0; i < 3; i++) {
+			spool.append(payload(i));
+		}
+		spool.close();
+
+		// flip the crc of the third frame, as if the process died mid-write
+		try (FileChannel channel = FileChannel.open(dir.resolve(String.format("segment-%020d.log", 0)), StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(4).putInt(0, 0xdeadbeef), 2 * 20 + 4);
+		}
+
+		LogSpool restarted = open(4096, Long.MAX_VALUE);
+		assertEquals(2, restarted.pendingRecords());
+
+		// the next append overwrites the bad frame
+		restarted.append(payload(9));
+		assertEquals(List.of(record(0), record(1), record(9)), read(restarted.peek(100)));
+	}
+
+	@Test
+	void rejectsAppendsPastMaxBytes() throws Exception {
+		LogSpool spool = open(SMALL_SEGMENT, 2 * SMALL_SEGMENT);
+
+		for (int i = 0; i < 4; i++) {
+			spool.append(payload(i));
+		}
+
+		assertThrows(SpoolFullException.class, () -> spool.append(payload(4)));
+		assertThrows(SpoolFullException.class, () -> spool.append(new byte[SMALL_SEGMENT]));
+		assertEquals(4, spool.pendingRecords());
+	}
+
+	@Test
+	void refusesToStartWithoutAnExplicitDir() {
+		LogSpool spool = new LogSpool();
+		ReflectionTestUtils.setField(spool, "enabled", true);
+		ReflectionTestUtils.setField(spool, "dir", null);
+
+		assertThrows(IllegalStateException.class, spool::open);
+	}
+
+	private LogSpool open(int segmentBytes, long maxBytes) throws IOException {
+		LogSpool spool = new LogSpool();
+		ReflectionTestUtils.setField(spool, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(spool, "enabled", true);
+		ReflectionTestUtils.setField(spool, "dir", dir);
+		ReflectionTestUtils.setField(spool, "segmentBytes", segmentBytes);
+		ReflectionTestUtils.setField(spool, "maxBytes", maxBytes);
+		ReflectionTestUtils.setField(spool, "fsync", "never");
+		spool.open();
+		opened.add(spool);
+		return spool;
+	}
+
+	private long segmentFiles() throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(p -> p.getFileName().toString().startsWith("segment-")).count();
+		}
+	}
+
+	private static String record(int i) {
+		return String.format("record-%05d", i);
+	}
+
+	private static byte[] payload(int i) {
+		return record(i).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<String> read(List<byte[]> frames) {
+		return frames.stream().map(f -> new String(f, StandardCharsets.UTF_8)).toList();
+	}
+
+}
@@ -0,0 +1,74 @@
+package log_ingestor_service.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import log_ingestor_service.domain.dto.LogsDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogsStreamReaderTests {
+
+	private final LogsStreamReader reader = new LogsStreamReader(new ObjectMapper().registerModule(new JavaTimeModule()),
+			Validation.buildDefaultValidatorFactory().getValidator());
+
+	private final List<String> accepted = new ArrayList<>();
+
+	private final List<String> rejected = new ArrayList<>();
+
+	private final LogsStreamReader.RecordSink sink = new LogsStreamReader.RecordSink() {
+
+		@Override
+		public void accept(int index, LogsDto logsDto) {
+			accepted.add(index + ":" + logsDto.getMessage());
+		}
+
+		@Override
+		public void reject(int index, String reason) {
+			rejected.add(index + ":" + reason);
+		}
+
+	};
+
+	@Test
+	void readsAnArrayAndRejectsOnlyTheBadRecords() throws IOException {
+		int seen = reader.read(body("[" + log("a") + ", 42, {\"level\":\"INFO\"}, " + log("b") + "]"), sink);
+
+		assertEquals(4, seen);
+		assertEquals(List.of("0:a", "3:b"), accepted);
+		assertEquals(2, rejected.size());
+		assertTrue(rejected.get(0).startsWith("1:expected a JSON object"), rejected.get(0));
+		assertTrue(rejected.get(1).startsWith("2:") && rejected.get(1).contains("message"), rejected.get(1));
+	}
+
+	@Test
+	void readsNdjson() throws IOException {
+		assertEquals(2, reader.read(body(log("a") + "\n" + log("b") + "\n"), sink));
+		assertEquals(List.of("0:a", "1:b"), accepted);
+	}
+
+	@Test
+	void stopsAtMalformedJsonAfterKeepingWhatCameBefore() throws IOException {
+		assertEquals(-1, reader.read(body(log("a") + "\n{\"message\": "), sink));
+		assertEquals(List.of("0:a"), accepted);
+		assertEquals(1, rejected.size());
+		assertTrue(rejected.get(0).startsWith("1:malformed body"), rejected.get(0));
+	}
+
+	private static ByteArrayInputStream body(String json) {
+		return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String log(String message) {
+		return "{\"timestamp\":\"2026-10-18T10:00:00Z\",\"level\":\"INFO\",\"service\":\"payments\",\"message\":\"" + message + "\"}";
+	}
+
+}
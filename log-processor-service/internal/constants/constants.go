@@ -3,4 +3,11 @@ package constants
 const LoggerTopic = "log-service"
 const DatabaseTopic = "db-topic"
 const AlertTopic = "alert-topic"
-const Brokers = "localhost:9092"
\ No newline at end of file
+const Brokers = "localhost:9092"
+
+// LogRecordCodec binary values (common-lib): magic byte, version, then the level code.
+// Codes are fixed by the wire format: ERROR is 5, FATAL is 6.
+const BinaryMagic byte = 0xFE
+const BinaryLevelOffset = 2
+const BinaryLevelError byte = 5
+const BinaryLevelFatal byte = 6
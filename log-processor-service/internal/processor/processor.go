@@ -5,11 +5,23 @@ import (
 	"log"
 
 	 kafka "github.com/segmentio/kafka-go"
+	"github.com/vanamuthuV/log-processor-service/internal/constants"
 	"github.com/vanamuthuV/log-processor-service/pkg/model"
 )
 
+// IsBinary reports whether the ingestor wrote the value with LogRecordCodec instead of JSON.
+func IsBinary(value []byte) bool {
+	return len(value) > constants.BinaryLevelOffset && value[0] == constants.BinaryMagic
+}
+
 func ProcessMessageWithVerdict (msg kafka.Message) bool {
 
+	// binary records carry the level at a fixed offset, so routing never decodes them
+	if IsBinary(msg.Value) {
+		level := msg.Value[constants.BinaryLevelOffset]
+		return level == constants.BinaryLevelError || level == constants.BinaryLevelFatal
+	}
+
 	var parsedmsg model.Logs
 
 	err := json.Unmarshal(msg.Value, &parsedmsg)
@@ -8,6 +8,7 @@ import (
 
 	ogkafka "github.com/segmentio/kafka-go"
 	"github.com/vanamuthuV/log-processor-service/internal/kafka"
+	"github.com/vanamuthuV/log-processor-service/internal/processor"
 	"github.com/vanamuthuV/log-processor-service/pkg/model"
 	"github.com/vanamuthuV/log-processor-service/internal/constants"
 )
@@ -17,8 +18,12 @@ func DatabaseTopicProducer(msg ogkafka.Message, ch chan model.Listner, wg *sync.
 
 	defer wg.Done()
 
+	// binary values are forwarded as they are; only JSON ones fill in the listener report
 	var parsedmsg model.Logs
-	err := json.Unmarshal(msg.Value, &parsedmsg)
+	var err error
+	if !processor.IsBinary(msg.Value) {
+		err = json.Unmarshal(msg.Value, &parsedmsg)
+	}
 
 	if err != nil {
 
@@ -66,8 +71,12 @@ func DatabaseTopicWithAlertTopicProducer(msg ogkafka.Message, ch chan model.List
 
 	defer wg.Done()
 
+	// binary values are forwarded as they are; only JSON ones fill in the listener report
 	var parsedmsg model.Logs
-	err := json.Unmarshal(msg.Value, &parsedmsg)
+	var err error
+	if !processor.IsBinary(msg.Value) {
+		err = json.Unmarshal(msg.Value, &parsedmsg)
+	}
 
 	if err != nil {
 		log.Fatal("❌ cannot write message into alert topic " + err.Error())
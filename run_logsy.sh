@@ -3,6 +3,10 @@
 echo "🔥 Starting Logsy Empire 🔥"
 echo "⏳ Buckle up, G..."
 
+# Shared model and codec, the Java services resolve it from the local Maven repo
+echo "📦 Installing common-lib..."
+(cd common-lib && ../log-ingestor-service/mvnw -q install -DskipTests)
+
 # Ingestor
 echo "🚀 Starting Ingestor..."
 (cd log-ingestor-service && ./mvnw clean spring-boot:run) &
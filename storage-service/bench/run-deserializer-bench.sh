@@ -0,0 +1,11 @@
+#!/bin/bash
+# JMH comparison of the old String + readValue path against JsonRecordDeserializer on raw bytes and LogRecordDeserializer on binary records.
+# Extra arguments are passed to JMH, e.g. bench/run-deserializer-bench.sh -prof gc
+
+set -e
+cd "$(dirname "$0")/.."
+
+./mvnw -q test-compile exec:exec \
+  -Dexec.classpathScope=test \
+  -Dexec.executable=java \
+  -Dexec.args="-cp %classpath org.openjdk.jmh.Main LogsDeserializerBenchmark $*"
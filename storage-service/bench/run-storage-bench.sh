@@ -0,0 +1,17 @@
+#!/bin/bash
+# Compares db-topic -> Mongo throughput of the per-record listener vs the batch listener.
+# Kafka is embedded; MongoDB has to be running (a throwaway database is dropped and refilled).
+#
+# Usage: bench/run-storage-bench.sh [records] [mongo-uri]
+
+set -e
+cd "$(dirname "$0")/.."
+
+RECORDS=${1:-100000}
+MONGO_URI=${2:-mongodb://localhost:27017/logsy_bench}
+
+./mvnw -q test-compile exec:java \
+  -Dexec.classpathScope=test \
+  -Dexec.mainClass=storage_service.bench.StorageThroughputBenchmark \
+  -Dbench.records="$RECORDS" \
+  -Dbench.mongo-uri="$MONGO_URI"
@@ -0,0 +1,21 @@
+package storage_service.archive;
+
+import java.util.Set;
+
+/**
+ * A LogsQuery in the archive's terms: epoch millis bounds, level names and an optional
+ * keyset cursor. Rows past their expireAt are filtered out against {@code now}.
+ */
+record ArchiveFilter(long from, long to, long cursorTs, String cursorId,
+                     Set<String> levels, String traceId, Boolean resolved, long now) {
+
+    // exclusive upper bound on timestamps, cursor included
+    long upper() {
+        return cursorId == null ? to : Math.min(to, cursorTs + 1);
+    }
+
+    boolean beforeCursor(long ts, String id) {
+        return cursorId == null || ts < cursorTs || (ts == cursorTs && id != null && id.compareTo(cursorId) < 0);
+    }
+
+}
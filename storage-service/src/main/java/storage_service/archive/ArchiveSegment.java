@@ -0,0 +1,761 @@
+package storage_service.archive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common_lib.domain.enums.Level;
+import storage_service.domain.Logs;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable columnar archive file: one service's logs for one UTC day, newest first.
+ *
+ * <pre>
+ * header   magic:int version:byte
+ * blocks   up to blockRows rows, each column as len:int bytes
+ *            timestamps   first millis, then previous - current, as varints
+ *            levels       one dictionary code per row
+ *            resolved     one byte per row: 0 unset, 1 false, 2 true
+ *            ttl          expireAt - timestamp + 1 as varints, 0 when the row never expires
+ *            ids, messages, traceIds, instanceIds, stackTraces, metadata (JSON)
+ *                         rawLen:int then deflated (len + 1:varint utf8) per row, 0 for null
+ * footer   hasService:byte service:utf levelCount:byte names:utf rows:int minTs:long maxTs:long maxExpire:long blockCount:int
+ *          per block: offset:long length:int rows:int minTs:long maxTs:long levelMask:int flags:byte bloomWords:int bloom:long[]
+ * trailer  footerOffset:long magic:int
+ * </pre>
+ *
+ * Only the footer is held on the heap. A block is read when its footer says it can hold a match
+ * (time range, levels, resolved flags, and a bloom filter over ids and traceIds), and its string
+ * columns are inflated only once one of its rows matched.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x4C534152; // "LSAR"
+
+    private static final byte VERSION = 1;
+
+    private static final int TRAILER = 8 + 4;
+
+    private static final int IDS = 0, MESSAGES = 1, TRACES = 2, INSTANCES = 3, STACKS = 4, METADATA = 5, STRING_COLUMNS = 6;
+
+    private static final byte HAS_UNRESOLVED = 1, HAS_RESOLVED = 2, HAS_UNSET = 4;
+
+    private static final int BLOOM_BITS_PER_KEY = 10;
+
+    private static final int BLOOM_HASHES = 7;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    record Block(long offset, int length, int rows, long minTs, long maxTs, int levelMask, byte flags, long[] bloom) {
+    }
+
+    final Path path;
+
+    final String service;
+
+    final int rows;
+
+    final long minTs;
+
+    final long maxTs;
+
+    // Long.MAX_VALUE when some row never expires
+    final long maxExpire;
+
+    final List<Block> blocks;
+
+    private final String[] levelNames;
+
+    private ArchiveSegment(Path path, String service, String[] levelNames, int rows, long minTs, long maxTs,
+                           long maxExpire, List<Block> blocks) {
+        this.path = path;
+        this.service = service;
+        this.levelNames = levelNames;
+        this.rows = rows;
+        this.minTs = minTs;
+        this.maxTs = maxTs;
+        this.maxExpire = maxExpire;
+        this.blocks = blocks;
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            long size = ch.size();
+            if (size < 5 + TRAILER) {
+                throw new IOException("not an archive segment: " + path);
+            }
+
+            ByteBuffer trailer = read(ch, size - TRAILER, TRAILER);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC || footerOffset < 5 || footerOffset > size - TRAILER) {
+                throw new IOException("not an archive segment: " + path);
+            }
+
+            ByteBuffer footer = read(ch, footerOffset, (int) (size - TRAILER - footerOffset));
+
+            String service = footer.get() == 1 ? readUtf(footer) : null;
+            String[] levelNames = new String[footer.get()];
+            for (int i = 0; i < levelNames.length; i++) {
+                levelNames[i] = readUtf(footer);
+            }
+
+            int rows = footer.getInt();
+            long minTs = footer.getLong();
+            long maxTs = footer.getLong();
+            long maxExpire = footer.getLong();
+
+            int blockCount = footer.getInt();
+            List<Block> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                long offset = footer.getLong();
+                int length = footer.getInt();
+                int blockRows = footer.getInt();
+                long blockMin = footer.getLong();
+                long blockMax = footer.getLong();
+                int levelMask = footer.getInt();
+                byte flags = footer.get();
+                long[] bloom = new long[footer.getInt()];
+                for (int w = 0; w < bloom.length; w++) {
+                    bloom[w] = footer.getLong();
+                }
+                blocks.add(new Block(offset, length, blockRows, blockMin, blockMax, levelMask, flags, bloom));
+            }
+
+            return new ArchiveSegment(path, service, levelNames, rows, minTs, maxTs, maxExpire, List.copyOf(blocks));
+        }
+    }
+
+    // Matching rows, newest first, decoded a block at a time.
+    Iterator<Logs> scan(ArchiveFilter filter) {
+
+        int levelMask = levelMask(filter);
+        long upper = filter.upper();
+
+        return new Iterator<>() {
+
+            private int next;
+
+            private Iterator<Logs> rows = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!rows.hasNext()) {
+                    if (next >= blocks.size()) {
+                        return false;
+                    }
+                    Block block = blocks.get(next++);
+                    if (block.maxTs() < filter.from()) {
+                        // blocks only get older from here
+                        next = blocks.size();
+                        return false;
+                    }
+                    if (block.minTs() >= upper || skips(block, filter, levelMask)) {
+                        continue;
+                    }
+                    rows = decode(block).matches(filter, levelMask).iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public Logs next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return rows.next();
+            }
+        };
+    }
+
+    Logs find(String id, long ts, long now) {
+
+        for (Block block : blocks) {
+            if (ts < block.minTs() || ts > block.maxTs() || !mightContain(block.bloom(), "i:" + id)) {
+                continue;
+            }
+            Decoded decoded = decode(block);
+            String[] ids = decoded.strings(IDS);
+            for (int i = 0; i < block.rows(); i++) {
+                if (id.equals(ids[i]) && !decoded.expired(i, now)) {
+                    return decoded.row(i);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    // for deleting the archived documents from Mongo a block at a time
+    List<String> ids(Block block) {
+        String[] ids = decode(block).strings(IDS);
+        List<String> out = new ArrayList<>(ids.length);
+        for (String id : ids) {
+            if (id != null) {
+                out.add(id);
+            }
+        }
+        return out;
+    }
+
+    boolean expired(long now) {
+        return maxExpire <= now;
+    }
+
+    // -1 when the filter takes every level
+    private int levelMask(ArchiveFilter filter) {
+        if (filter.levels() == null || filter.levels().isEmpty()) {
+            return -1;
+        }
+        int mask = 0;
+        for (int code = 0; code < levelNames.length; code++) {
+            if (filter.levels().contains(levelNames[code])) {
+                mask |= 1 << code;
+            }
+        }
+        return mask;
+    }
+
+    private static boolean skips(Block block, ArchiveFilter filter, int levelMask) {
+        if ((block.levelMask() & levelMask) == 0) {
+            return true;
+        }
+        if (filter.resolved() != null && (block.flags() & (filter.resolved() ? HAS_RESOLVED : HAS_UNRESOLVED)) == 0) {
+            return true;
+        }
+        return filter.traceId() != null && !mightContain(block.bloom(), "t:" + filter.traceId());
+    }
+
+    private Decoded decode(Block block) {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Decoded(block, read(ch, block.offset(), block.length()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("can't read archive block in " + path, e);
+        }
+    }
+
+    private final class Decoded {
+
+        private final Block block;
+
+        private final ByteBuffer buf;
+
+        private final long[] ts;
+
+        private final byte[] levelCodes;
+
+        private final byte[] resolved;
+
+        private final long[] ttl;
+
+        private final int[] columnStart = new int[STRING_COLUMNS];
+
+        private final String[][] strings = new String[STRING_COLUMNS][];
+
+        Decoded(Block block, ByteBuffer buf) {
+            this.block = block;
+            this.buf = buf;
+            int n = block.rows();
+
+            int end = column(buf);
+            ts = new long[n];
+            long prev = 0;
+            for (int i = 0; i < n; i++) {
+                prev = i == 0 ? readVarLong(buf) : prev - readVarLong(buf);
+                ts[i] = prev;
+            }
+            buf.position(end);
+
+            end = column(buf);
+            levelCodes = new byte[n];
+            buf.get(levelCodes);
+            buf.position(end);
+
+            end = column(buf);
+            resolved = new byte[n];
+            buf.get(resolved);
+            buf.position(end);
+
+            end = column(buf);
+            ttl = new long[n];
+            for (int i = 0; i < n; i++) {
+                ttl[i] = readVarLong(buf);
+            }
+            buf.position(end);
+
+            for (int c = 0; c < STRING_COLUMNS; c++) {
+                columnStart[c] = buf.position();
+                buf.position(column(buf));
+            }
+        }
+
+        List<Logs> matches(ArchiveFilter filter, int levelMask) {
+
+            List<Logs> out = new ArrayList<>();
+            String[] traces = filter.traceId() != null ? strings(TRACES) : null;
+            String[] ids = filter.cursorId() != null ? strings(IDS) : null;
+
+            for (int i = 0; i < block.rows(); i++) {
+                if (ts[i] < filter.from() || ts[i] >= filter.to()) {
+                    continue;
+                }
+                if ((levelMask & (1 << levelCodes[i])) == 0) {
+                    continue;
+                }
+                if (filter.resolved() != null && resolved[i] != (filter.resolved() ? 2 : 1)) {
+                    continue;
+                }
+                if (traces != null && !filter.traceId().equals(traces[i])) {
+                    continue;
+                }
+                if (ids != null && !filter.beforeCursor(ts[i], ids[i])) {
+                    continue;
+                }
+                if (expired(i, filter.now())) {
+                    continue;
+                }
+                out.add(row(i));
+            }
+
+            return out;
+        }
+
+        boolean expired(int i, long now) {
+            return ttl[i] != 0 && ts[i] + ttl[i] - 1 <= now;
+        }
+
+        Logs row(int i) {
+
+            Logs logs = new Logs();
+            logs.setId(strings(IDS)[i]);
+            logs.setTimestamp(Instant.ofEpochMilli(ts[i]));
+            logs.setLevel(level(levelNames[levelCodes[i]]));
+            logs.setService(service);
+            logs.setMessage(strings(MESSAGES)[i]);
+            logs.setTraceId(strings(TRACES)[i]);
+            logs.setInstanceId(strings(INSTANCES)[i]);
+            logs.setStackTrace(strings(STACKS)[i]);
+            logs.setResolved(resolved[i] == 0 ? null : resolved[i] == 2);
+            if (ttl[i] != 0) {
+                logs.setExpireAt(Instant.ofEpochMilli(ts[i] + ttl[i] - 1));
+            }
+
+            String metadata = strings(METADATA)[i];
+            if (metadata != null) {
+                try {
+                    logs.setMetadata(JSON.readValue(metadata, METADATA_TYPE));
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException("bad metadata in " + path, e);
+                }
+            }
+
+            return logs;
+        }
+
+        String[] strings(int column) {
+
+            if (strings[column] != null) {
+                return strings[column];
+            }
+
+            ByteBuffer in = buf.duplicate();
+            in.position(columnStart[column]);
+            int len = in.getInt();
+            int rawLen = in.getInt();
+
+            byte[] raw = new byte[rawLen];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(buf.array(), buf.arrayOffset() + in.position(), len - 4);
+                int read = 0;
+                while (read < rawLen) {
+                    int n = inflater.inflate(raw, read, rawLen - read);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new UncheckedIOException(new EOFException("truncated column in " + path));
+                    }
+                    read += n;
+                }
+            } catch (DataFormatException e) {
+                throw new UncheckedIOException(new IOException("corrupt column in " + path, e));
+            } finally {
+                inflater.end();
+            }
+
+            ByteBuffer values = ByteBuffer.wrap(raw);
+            String[] out = new String[block.rows()];
+            for (int i = 0; i < out.length; i++) {
+                int n = (int) readVarLong(values);
+                if (n > 0) {
+                    out[i] = new String(raw, values.position(), n - 1, StandardCharsets.UTF_8);
+                    values.position(values.position() + n - 1);
+                }
+            }
+
+            strings[column] = out;
+            return out;
+        }
+
+    }
+
+    /**
+     * Streams one service-day into a temp file. Rows have to arrive newest first, which is the
+     * order Mongo returns them in through the service_ts_id index.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path tmp;
+
+        private final String service;
+
+        private final int blockRows;
+
+        private final FileOutputStream file;
+
+        private final DataOutputStream out;
+
+        private final List<Logs> pending;
+
+        private final Map<String, Integer> levelCodes = new LinkedHashMap<>();
+
+        private final List<Block> blocks = new ArrayList<>();
+
+        private long position;
+
+        private int rows;
+
+        private long minTs = Long.MAX_VALUE;
+
+        private long maxTs = Long.MIN_VALUE;
+
+        private long maxExpire = Long.MIN_VALUE;
+
+        Writer(Path tmp, String service, int blockRows) throws IOException {
+            this.tmp = tmp;
+            this.service = service;
+            this.blockRows = blockRows;
+            this.pending = new ArrayList<>(blockRows);
+            this.file = new FileOutputStream(tmp.toFile());
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            position = 5;
+        }
+
+        void add(Logs logs) throws IOException {
+            pending.add(logs);
+            if (pending.size() == blockRows) {
+                writeBlock();
+            }
+        }
+
+        int rows() {
+            return rows + pending.size();
+        }
+
+        // Writes the footer, syncs, and moves the file into place.
+        void finish(Path target) throws IOException {
+
+            if (!pending.isEmpty()) {
+                writeBlock();
+            }
+
+            long footerOffset = position;
+
+            out.writeByte(service != null ? 1 : 0);
+            if (service != null) {
+                out.writeUTF(service);
+            }
+            out.writeByte(levelCodes.size());
+            for (String name : levelCodes.keySet()) {
+                out.writeUTF(name);
+            }
+            out.writeInt(rows);
+            out.writeLong(minTs);
+            out.writeLong(maxTs);
+            out.writeLong(maxExpire);
+
+            out.writeInt(blocks.size());
+            for (Block b : blocks) {
+                out.writeLong(b.offset());
+                out.writeInt(b.length());
+                out.writeInt(b.rows());
+                out.writeLong(b.minTs());
+                out.writeLong(b.maxTs());
+                out.writeInt(b.levelMask());
+                out.writeByte(b.flags());
+                out.writeInt(b.bloom().length);
+                for (long word : b.bloom()) {
+                    out.writeLong(word);
+                }
+            }
+
+            out.writeLong(footerOffset);
+            out.writeInt(MAGIC);
+
+            out.flush();
+            file.getFD().sync();
+            out.close();
+
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+            Files.deleteIfExists(tmp);
+        }
+
+        private void writeBlock() throws IOException {
+
+            int n = pending.size();
+            long[] bloom = new long[Math.max(1, (n * 2 * BLOOM_BITS_PER_KEY + 63) / 64)];
+            int levelMask = 0;
+            byte flags = 0;
+
+            ByteArrayOutputStream tsCol = new ByteArrayOutputStream(n * 2);
+            byte[] levelCol = new byte[n];
+            byte[] resolvedCol = new byte[n];
+            ByteArrayOutputStream ttlCol = new ByteArrayOutputStream(n * 2);
+            ByteArrayOutputStream[] stringCols = new ByteArrayOutputStream[STRING_COLUMNS];
+            for (int c = 0; c < STRING_COLUMNS; c++) {
+                stringCols[c] = new ByteArrayOutputStream(n * 16);
+            }
+
+            long prev = 0;
+            long blockMin = Long.MAX_VALUE;
+            long blockMax = Long.MIN_VALUE;
+
+            for (int i = 0; i < n; i++) {
+                Logs logs = pending.get(i);
+                long ts = logs.getTimestamp().toEpochMilli();
+
+                if (i > 0 && ts > prev) {
+                    throw new IllegalStateException("archive rows must be written newest first");
+                }
+                writeVarLong(tsCol, i == 0 ? ts : prev - ts);
+                prev = ts;
+                blockMin = Math.min(blockMin, ts);
+                blockMax = Math.max(blockMax, ts);
+
+                String level = logs.getLevel() != null ? logs.getLevel().name() : "";
+                int code = levelCodes.computeIfAbsent(level, l -> levelCodes.size());
+                if (code >= 32) {
+                    throw new IllegalStateException("too many distinct levels for one archive segment");
+                }
+                levelCol[i] = (byte) code;
+                levelMask |= 1 << code;
+
+                if (logs.getResolved() == null) {
+                    flags |= HAS_UNSET;
+                } else {
+                    resolvedCol[i] = (byte) (logs.getResolved() ? 2 : 1);
+                    flags |= logs.getResolved() ? HAS_RESOLVED : HAS_UNRESOLVED;
+                }
+
+                if (logs.getExpireAt() == null) {
+                    writeVarLong(ttlCol, 0);
+                    maxExpire = Long.MAX_VALUE;
+                } else {
+                    long expire = logs.getExpireAt().toEpochMilli();
+                    writeVarLong(ttlCol, Math.max(0, expire - ts) + 1);
+                    maxExpire = Math.max(maxExpire, Math.max(expire, ts));
+                }
+
+                writeString(stringCols[IDS], logs.getId());
+                writeString(stringCols[MESSAGES], logs.getMessage());
+                writeString(stringCols[TRACES], logs.getTraceId());
+                writeString(stringCols[INSTANCES], logs.getInstanceId());
+                writeString(stringCols[STACKS], logs.getStackTrace());
+                writeString(stringCols[METADATA], logs.getMetadata() == null ? null : JSON.writeValueAsString(logs.getMetadata()));
+
+                if (logs.getId() != null) {
+                    bloomAdd(bloom, "i:" + logs.getId());
+                }
+                if (logs.getTraceId() != null) {
+                    bloomAdd(bloom, "t:" + logs.getTraceId());
+                }
+            }
+
+            ByteArrayOutputStream block = new ByteArrayOutputStream(n * 64);
+            DataOutputStream data = new DataOutputStream(block);
+            writeColumn(data, tsCol.toByteArray());
+            writeColumn(data, levelCol);
+            writeColumn(data, resolvedCol);
+            writeColumn(data, ttlCol.toByteArray());
+            for (ByteArrayOutputStream col : stringCols) {
+                byte[] raw = col.toByteArray();
+                byte[] packed = deflate(raw);
+                data.writeInt(4 + packed.length);
+                data.writeInt(raw.length);
+                data.write(packed);
+            }
+
+            blocks.add(new Block(position, block.size(), n, blockMin, blockMax, levelMask, flags, bloom));
+            block.writeTo(out);
+            position += block.size();
+
+            rows += n;
+            minTs = Math.min(minTs, blockMin);
+            maxTs = Math.max(maxTs, blockMax);
+            pending.clear();
+        }
+
+    }
+
+    private static void writeColumn(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // returns where the column ends, leaving the buffer at its first byte
+    private static int column(ByteBuffer buf) {
+        int len = buf.getInt();
+        return buf.position() + len;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length + 1L);
+        out.write(utf8, 0, utf8.length);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    // counterpart of DataOutputStream.writeUTF
+    private static String readUtf(ByteBuffer in) throws IOException {
+        int len = in.getShort(in.position()) & 0xFFFF;
+        String value = new DataInputStream(new ByteArrayInputStream(in.array(), in.arrayOffset() + in.position(), 2 + len)).readUTF();
+        in.position(in.position() + 2 + len);
+        return value;
+    }
+
+    private static ByteBuffer read(FileChannel ch, long offset, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, offset + buf.position()) < 0) {
+                throw new EOFException("archive segment truncated");
+            }
+        }
+        return buf.flip();
+    }
+
+    private static Level level(String name) {
+        try {
+            return name.isEmpty() ? null : Level.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void bloomAdd(long[] bloom, String key) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        long bits = bloom.length * 64L;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private static boolean mightContain(long[] bloom, String key) {
+        long h = hash(key);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        long bits = bloom.length * 64L;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a over the chars, then murmur3's finalizer so both halves are usable
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe53ae2b9L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
@@ -0,0 +1,401 @@
+package storage_service.archive;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import storage_service.domain.Logs;
+import storage_service.domain.dto.LogsQuery;
+import storage_service.search.SearchIndex;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for logs older than {@code logsy.storage.archive.after}. The archive job moves whole
+ * UTC days out of Mongo into one {@link ArchiveSegment} per service per day under
+ * {@code <dir>/<service>/<day>-<seq>.seg}, then deletes what it wrote from the collection.
+ * A file is published before its documents are deleted, so a row can briefly be in both
+ * places; readers merge on (timestamp, id) and drop the duplicate.
+ *
+ * Files whose rows have all passed their expireAt are removed by the same job.
+ * Off by default: the job deletes from Mongo, so enable it on exactly one storage instance
+ * and give it an explicit {@code logsy.storage.archive.dir} on storage that outlives the process.
+ */
+@Component
+public class ColdArchive {
+
+    public static final Comparator<Logs> NEWEST_FIRST = Comparator
+            .comparing(Logs::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Logs::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private static final String NO_SERVICE = "%none";
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${logsy.storage.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${logsy.storage.archive.dir:}")
+    private String dir;
+
+    @Value("${logsy.storage.archive.after:7d}")
+    private Duration after;
+
+    @Value("${logsy.storage.archive.block-rows:4096}")
+    private int blockRows;
+
+    private Path root;
+
+    private final ReentrantLock archiveLock = new ReentrantLock();
+
+    // copy-on-write: readers take the current map without locking
+    private volatile TreeMap<LocalDate, List<ArchiveSegment>> days = new TreeMap<>();
+
+    @PostConstruct
+    public void load() throws IOException {
+
+        if (!enabled) {
+            return;
+        }
+
+        if (dir == null || dir.isBlank()) {
+            throw new IllegalStateException("logsy.storage.archive.enabled is set but logsy.storage.archive.dir is not");
+        }
+
+        root = Paths.get(dir);
+        Files.createDirectories(root);
+
+        TreeMap<LocalDate, List<ArchiveSegment>> loaded = new TreeMap<>();
+
+        try (Stream<Path> services = Files.list(root)) {
+            for (Path service : services.filter(Files::isDirectory).toList()) {
+                try (Stream<Path> files = Files.list(service)) {
+                    for (Path file : files.sorted().toList()) {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(".tmp")) {
+                            Files.deleteIfExists(file);
+                        } else if (name.endsWith(".seg")) {
+                            try {
+                                LocalDate day = LocalDate.parse(name.substring(0, 10));
+                                loaded.computeIfAbsent(day, d -> new ArrayList<>()).add(ArchiveSegment.open(file));
+                            } catch (IOException | RuntimeException e) {
+                                System.out.println("❌ skipping unreadable archive segment " + file + ": " + e.getMessage());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        days = loaded;
+
+        long rows = loaded.values().stream().flatMap(List::stream).mapToLong(s -> s.rows).sum();
+        System.out.println("🧊 archive loaded: " + loaded.size() + " days, " + rows + " logs");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Newest archived timestamp in millis, Long.MIN_VALUE when there is nothing archived.
+    public long newest() {
+        TreeMap<LocalDate, List<ArchiveSegment>> snapshot = days;
+        for (List<ArchiveSegment> segments : snapshot.descendingMap().values()) {
+            long max = segments.stream().mapToLong(s -> s.maxTs).max().orElse(Long.MIN_VALUE);
+            if (max != Long.MIN_VALUE) {
+                return max;
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * Whether the archive can add anything to a query starting at {@code from} whose Mongo
+     * results already reach down to {@code floor} (null when Mongo ran out of rows).
+     */
+    public boolean overlaps(Instant from, Instant floor) {
+        if (!enabled) {
+            return false;
+        }
+        long newest = newest();
+        return newest != Long.MIN_VALUE
+                && (from == null || from.toEpochMilli() <= newest)
+                && (floor == null || floor.toEpochMilli() <= newest);
+    }
+
+    // Archived rows matching the query, newest first, read lazily a day and a block at a time.
+    public Iterator<Logs> scan(LogsQuery query, Instant cursorTs, String cursorId) {
+
+        if (!enabled) {
+            return Collections.emptyIterator();
+        }
+
+        ArchiveFilter filter = new ArchiveFilter(
+                query.getFrom() != null ? query.getFrom().toEpochMilli() : Long.MIN_VALUE,
+                query.getTo() != null ? query.getTo().toEpochMilli() : Long.MAX_VALUE,
+                cursorTs != null ? cursorTs.toEpochMilli() : Long.MAX_VALUE,
+                cursorTs != null ? cursorId : null,
+                query.getLevels() == null ? null : query.getLevels().stream().map(Enum::name).collect(Collectors.toSet()),
+                query.getTraceId(),
+                query.getResolved(),
+                System.currentTimeMillis());
+
+        NavigableMap<LocalDate, List<ArchiveSegment>> range = days;
+        if (filter.upper() != Long.MAX_VALUE) {
+            range = range.headMap(day(filter.upper() - 1), true);
+        }
+        if (filter.from() != Long.MIN_VALUE) {
+            range = range.tailMap(day(filter.from()), true);
+        }
+
+        return new DayMerge(range.descendingMap().values().iterator(), query.getService(), filter);
+    }
+
+    // Search hits that are no longer in Mongo, looked up in the day file of their timestamp.
+    public Map<String, Logs> byHits(List<SearchIndex.Hit> hits) {
+
+        Map<String, Logs> found = new HashMap<>();
+        if (!enabled) {
+            return found;
+        }
+
+        TreeMap<LocalDate, List<ArchiveSegment>> snapshot = days;
+        long now = System.currentTimeMillis();
+
+        for (SearchIndex.Hit hit : hits) {
+            for (ArchiveSegment segment : snapshot.getOrDefault(day(hit.timestamp()), List.of())) {
+                if (hit.timestamp() < segment.minTs || hit.timestamp() > segment.maxTs) {
+                    continue;
+                }
+                Logs logs = segment.find(hit.id(), hit.timestamp(), now);
+                if (logs != null) {
+                    found.put(hit.id(), logs);
+                    break;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    @Scheduled(fixedDelayString = "${logsy.storage.archive.interval-ms:3600000}",
+            initialDelayString = "${logsy.storage.archive.initial-delay-ms:60000}")
+    public void archive() {
+
+        if (!enabled || !archiveLock.tryLock()) {
+            return;
+        }
+
+        try {
+            dropExpired();
+
+            Instant cutoff = day(Instant.now().minus(after).toEpochMilli()).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+            LocalDate previous = null;
+            while (true) {
+                Query oldest = new Query(Criteria.where("timestamp").lt(cutoff))
+                        .with(Sort.by(Sort.Direction.ASC, "timestamp"));
+                oldest.fields().include("timestamp");
+
+                Logs first = mongoTemplate.findOne(oldest, Logs.class);
+                LocalDate day = first == null ? null : day(first.getTimestamp().toEpochMilli());
+                // the same day coming back means its rows were not removed; leave it for the next run
+                if (day == null || day.equals(previous) || archiveDay(day) == 0) {
+                    break;
+                }
+                previous = day;
+            }
+        } catch (Exception e) {
+            System.out.println("❌ archive run failed: " + e.getMessage());
+        } finally {
+            archiveLock.unlock();
+        }
+    }
+
+    // One file per service; each is published before its rows are removed from Mongo.
+    long archiveDay(LocalDate day) throws IOException {
+
+        Instant start = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Query query = new Query(Criteria.where("timestamp").gte(start).lt(start.plus(Duration.ofDays(1))))
+                .with(Sort.by(Sort.Direction.ASC, "service").and(Sort.by(Sort.Direction.DESC, "timestamp", "id")))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+
+        long archived = 0;
+        ArchiveSegment.Writer writer = null;
+        String service = null;
+
+        try (Stream<Logs> docs = mongoTemplate.stream(query, Logs.class)) {
+            Iterator<Logs> it = docs.iterator();
+            while (it.hasNext()) {
+                Logs logs = it.next();
+                if (writer == null || !Objects.equals(service, logs.getService())) {
+                    if (writer != null) {
+                        archived += commit(writer, service, day);
+                    }
+                    service = logs.getService();
+                    writer = begin(service, day);
+                }
+                writer.add(logs);
+            }
+            if (writer != null) {
+                archived += commit(writer, service, day);
+                writer = null;
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+
+        System.out.println("🧊 archived " + archived + " logs of " + day);
+        return archived;
+    }
+
+    private ArchiveSegment.Writer begin(String service, LocalDate day) throws IOException {
+        Path dir = root.resolve(service == null ? NO_SERVICE : URLEncoder.encode(service, StandardCharsets.UTF_8));
+        Files.createDirectories(dir);
+        return new ArchiveSegment.Writer(dir.resolve(day + ".seg.tmp"), service, blockRows);
+    }
+
+    private long commit(ArchiveSegment.Writer writer, String service, LocalDate day) throws IOException {
+
+        try (writer) {
+            Path dir = root.resolve(service == null ? NO_SERVICE : URLEncoder.encode(service, StandardCharsets.UTF_8));
+            int seq = 0;
+            while (Files.exists(dir.resolve(day + "-" + seq + ".seg"))) {
+                seq++;
+            }
+            Path file = dir.resolve(day + "-" + seq + ".seg");
+            writer.finish(file);
+
+            ArchiveSegment segment = ArchiveSegment.open(file);
+            publish(day, segment, null);
+
+            for (ArchiveSegment.Block block : segment.blocks) {
+                mongoTemplate.remove(new Query(Criteria.where("id").in(segment.ids(block))), Logs.class);
+            }
+
+            return segment.rows;
+        }
+    }
+
+    private void dropExpired() throws IOException {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<LocalDate, List<ArchiveSegment>> day : days.entrySet()) {
+            for (ArchiveSegment segment : day.getValue()) {
+                if (segment.expired(now)) {
+                    publish(day.getKey(), null, segment);
+                    Files.deleteIfExists(segment.path);
+                }
+            }
+        }
+    }
+
+    private synchronized void publish(LocalDate day, ArchiveSegment added, ArchiveSegment removed) {
+        TreeMap<LocalDate, List<ArchiveSegment>> next = new TreeMap<>(days);
+        List<ArchiveSegment> segments = new ArrayList<>(next.getOrDefault(day, List.of()));
+        if (added != null) {
+            segments.add(added);
+        }
+        if (removed != null) {
+            segments.remove(removed);
+        }
+        if (segments.isEmpty()) {
+            next.remove(day);
+        } else {
+            next.put(day, List.copyOf(segments));
+        }
+        days = next;
+    }
+
+    private static LocalDate day(long epochMilli) {
+        return Instant.ofEpochMilli(epochMilli).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    // Days newest first; within a day, a k-way merge over that day's files.
+    private static final class DayMerge implements Iterator<Logs> {
+
+        private record Head(Logs logs, Iterator<Logs> rest) {
+        }
+
+        private final Iterator<List<ArchiveSegment>> days;
+
+        private final String service;
+
+        private final ArchiveFilter filter;
+
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::logs, NEWEST_FIRST));
+
+        DayMerge(Iterator<List<ArchiveSegment>> days, String service, ArchiveFilter filter) {
+            this.days = days;
+            this.service = service;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (heads.isEmpty() && days.hasNext()) {
+                for (ArchiveSegment segment : days.next()) {
+                    if (service != null && !service.equals(segment.service)) {
+                        continue;
+                    }
+                    if (segment.maxTs < filter.from() || segment.minTs >= filter.upper()) {
+                        continue;
+                    }
+                    push(segment.scan(filter));
+                }
+            }
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Logs next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Head head = heads.poll();
+            push(head.rest());
+            return head.logs();
+        }
+
+        private void push(Iterator<Logs> rows) {
+            if (rows.hasNext()) {
+                heads.add(new Head(rows.next(), rows));
+            }
+        }
+
+    }
+
+}
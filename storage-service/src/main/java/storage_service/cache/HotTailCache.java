@@ -0,0 +1,228 @@
+package storage_service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import storage_service.domain.Logs;
+import storage_service.domain.dto.LogsQuery;
+import storage_service.service.LogsWriteListener;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Most recent logs per service, kept in memory for "last N minutes of service X" reads.
+ *
+ * Each service has a ring of at most per-service-entries documents; across services the
+ * estimated size is capped at max-bytes, evicting the oldest document of whichever service
+ * holds it. A ring knows the instant from which it is complete (startup, or the newest
+ * evicted timestamp), and only queries starting at or after that are answered from memory.
+ *
+ * Off by default: it is only valid with a single storage instance. With several, each one sees
+ * just its own partitions and would answer a service's query with part of its logs.
+ */
+@Component
+public class HotTailCache implements LogsWriteListener {
+
+    private static final Comparator<Logs> NEWEST_FIRST = Comparator
+            .comparing(Logs::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Logs::getId, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${logsy.storage.hot-tail.enabled:false}")
+    private boolean enabled;
+
+    @Value("${logsy.storage.hot-tail.per-service-entries:20000}")
+    private int perServiceEntries;
+
+    @Value("${logsy.storage.hot-tail.max-bytes:134217728}")
+    private long maxBytes;
+
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+    private final AtomicLong bytes = new AtomicLong();
+
+    private final Instant startedAt = Instant.now();
+
+    private Counter hits;
+
+    private Counter misses;
+
+    @PostConstruct
+    public void registerMetrics() {
+        hits = meterRegistry.counter("logsy.storage.hot_tail.requests", "result", "hit");
+        misses = meterRegistry.counter("logsy.storage.hot_tail.requests", "result", "miss");
+        meterRegistry.gauge("logsy.storage.hot_tail.bytes", bytes);
+        meterRegistry.gauge("logsy.storage.hot_tail.entries", rings, r -> r.values().stream().mapToInt(Ring::size).sum());
+    }
+
+    @Override
+    public void onStored(Logs logs) {
+
+        if (!enabled || logs.getService() == null || logs.getTimestamp() == null) {
+            return;
+        }
+
+        Ring ring = rings.computeIfAbsent(logs.getService(), s -> new Ring(startedAt));
+        long size = estimate(logs);
+
+        synchronized (ring) {
+            ring.entries.addLast(new Entry(logs, size));
+            if (ring.entries.size() > perServiceEntries) {
+                bytes.addAndGet(-ring.evictOldest());
+            }
+        }
+
+        if (bytes.addAndGet(size) > maxBytes) {
+            evictGlobally();
+        }
+    }
+
+    /**
+     * Answers the query from memory when it names one service and its window starts inside the
+     * ring's complete range; returns null otherwise so the caller goes to Mongo. The result holds
+     * up to limit + 1 documents, newest first, like the Mongo page query.
+     */
+    public List<Logs> page(LogsQuery query, Instant cursorTs, String cursorId) {
+
+        if (!enabled || query.getService() == null || query.getFrom() == null) {
+            return null;
+        }
+
+        Ring ring = rings.get(query.getService());
+        List<Logs> out = new ArrayList<>();
+
+        if (ring == null) {
+            // nothing stored for this service since startup
+            if (query.getFrom().isBefore(startedAt)) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return out;
+        }
+
+        synchronized (ring) {
+            if (query.getFrom().isBefore(ring.completeFrom)) {
+                misses.increment();
+                return null;
+            }
+            for (Entry entry : ring.entries) {
+                if (matches(entry.logs, query, cursorTs, cursorId)) {
+                    out.add(entry.logs);
+                }
+            }
+        }
+
+        hits.increment();
+
+        out.sort(NEWEST_FIRST);
+        return out.size() > query.getLimit() + 1 ? new ArrayList<>(out.subList(0, query.getLimit() + 1)) : out;
+    }
+
+    private static boolean matches(Logs logs, LogsQuery query, Instant cursorTs, String cursorId) {
+        Instant ts = logs.getTimestamp();
+        if (ts.isBefore(query.getFrom()) || (query.getTo() != null && !ts.isBefore(query.getTo()))) {
+            return false;
+        }
+        if (query.getLevels() != null && !query.getLevels().isEmpty() && !query.getLevels().contains(logs.getLevel())) {
+            return false;
+        }
+        if (query.getTraceId() != null && !query.getTraceId().equals(logs.getTraceId())) {
+            return false;
+        }
+        if (query.getResolved() != null && !query.getResolved().equals(logs.getResolved())) {
+            return false;
+        }
+        if (cursorTs != null) {
+            int c = ts.compareTo(cursorTs);
+            return c < 0 || (c == 0 && logs.getId().compareTo(cursorId) < 0);
+        }
+        return true;
+    }
+
+    // drop the globally oldest documents until we are back under the cap
+    private void evictGlobally() {
+        while (bytes.get() > maxBytes) {
+            Ring oldest = null;
+            Instant oldestTs = null;
+            for (Ring ring : rings.values()) {
+                Instant head = ring.headTimestamp();
+                if (head != null && (oldestTs == null || head.isBefore(oldestTs))) {
+                    oldest = ring;
+                    oldestTs = head;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            synchronized (oldest) {
+                bytes.addAndGet(-oldest.evictOldest());
+            }
+        }
+    }
+
+    // rough heap footprint: object headers and fields plus two bytes per char
+    private static long estimate(Logs logs) {
+        long size = 160;
+        size += length(logs.getMessage()) + length(logs.getService()) + length(logs.getTraceId())
+                + length(logs.getInstanceId()) + length(logs.getStackTrace()) + length(logs.getId());
+        if (logs.getMetadata() != null) {
+            size += 64L * logs.getMetadata().size() + 2L * logs.getMetadata().toString().length();
+        }
+        return size;
+    }
+
+    private static long length(String s) {
+        return s == null ? 0 : 40 + 2L * s.length();
+    }
+
+    private record Entry(Logs logs, long size) {
+    }
+
+    private static final class Ring {
+
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+        // every document of this service with a timestamp at or after this is in the ring
+        private Instant completeFrom;
+
+        private Ring(Instant completeFrom) {
+            this.completeFrom = completeFrom;
+        }
+
+        private long evictOldest() {
+            Entry evicted = entries.pollFirst();
+            if (evicted == null) {
+                return 0;
+            }
+            // others may share the evicted timestamp, so only what is strictly newer stays complete
+            Instant after = evicted.logs().getTimestamp().plusNanos(1);
+            if (after.isAfter(completeFrom)) {
+                completeFrom = after;
+            }
+            return evicted.size();
+        }
+
+        private synchronized Instant headTimestamp() {
+            Entry head = entries.peekFirst();
+            return head == null ? null : head.logs().getTimestamp();
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package storage_service.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import common_lib.domain.enums.Level;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import storage_service.domain.Logs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Documents written before timestamps moved to Instant hold epoch seconds as a double and have no
+ * expireAt. Date filters, keyset cursors and the archive cutoff never match them and the TTL index
+ * never removes them, so they are rewritten in place: timestamp becomes a date and expireAt is
+ * backfilled from the level's retention. Runs in the background after startup, in chunks; once
+ * nothing numeric is left it is a single indexed lookup, so later starts are no-ops.
+ */
+@Component
+public class LegacyTimestampMigration {
+
+    // legacy documents only; every rewritten one drops out of this
+    private static final Bson LEGACY = Filters.type("timestamp", "number");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RetentionProperties retention;
+
+    @Value("${logsy.storage.migration.legacy-timestamps:true}")
+    private boolean enabled;
+
+    @Value("${logsy.storage.migration.batch-size:10000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            CompletableFuture.runAsync(this::migrate);
+        }
+    }
+
+    public long migrate() {
+
+        long migrated = 0;
+
+        try {
+            MongoCollection<Document> logs = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Logs.class));
+            List<Document> pipeline = List.of(new Document("$set", new Document()
+                    .append("expireAt", expireAt())
+                    .append("timestamp", millis())));
+
+            while (true) {
+                List<Object> ids = new ArrayList<>(batchSize);
+                logs.find(LEGACY).projection(Projections.include("_id")).limit(batchSize)
+                        .forEach(d -> ids.add(d.get("_id")));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                // the filter is repeated so a document rewritten meanwhile by another instance is left alone
+                migrated += logs.updateMany(Filters.and(Filters.in("_id", ids), LEGACY), pipeline).getModifiedCount();
+            }
+
+            if (migrated > 0) {
+                System.out.println("Migrated " + migrated + " legacy log timestamps ✅");
+            }
+        } catch (Exception e) {
+            System.out.println("❌ legacy timestamp migration stopped after " + migrated + " documents: " + e.getMessage());
+        }
+
+        return migrated;
+    }
+
+    // every expression in one $set sees the document as it was, so both read the old seconds
+    private static Document millis() {
+        return new Document("$toDate", new Document("$multiply", List.of("$timestamp", 1000)));
+    }
+
+    // same rule as LogsParser: timestamp + the level's ttl, nothing for levels kept forever
+    Document expireAt() {
+
+        List<Document> branches = new ArrayList<>();
+        for (Level level : Level.values()) {
+            Duration ttl = retention.forLevel(level);
+            if (ttl != null) {
+                branches.add(new Document("case", new Document("$eq", List.of("$level", level.name())))
+                        .append("then", new Document("$add", List.of(millis(), ttl.toMillis()))));
+            }
+        }
+
+        Object computed = branches.isEmpty()
+                ? "$$REMOVE"
+                : new Document("$switch", new Document("branches", branches).append("default", "$$REMOVE"));
+
+        return new Document("$ifNull", List.of("$expireAt", computed));
+    }
+
+}
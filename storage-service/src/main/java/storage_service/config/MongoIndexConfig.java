@@ -0,0 +1,91 @@
+package storage_service.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import storage_service.domain.Logs;
+import storage_service.domain.Rollup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Indexes for the query shapes GET /logs serves, plus the TTL index behind per-level retention.
+ * Created in the background once the app is up so a slow or missing Mongo doesn't block startup.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // documents written before timestamps moved to Instant hold epoch seconds as a double
+    @Bean
+    public static MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(new EpochSecondsToInstant()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                IndexOperations ops = mongoTemplate.indexOps(Logs.class);
+
+                ops.createIndex(new Index().named("ts_id")
+                        .on("timestamp", Sort.Direction.DESC).on("_id", Sort.Direction.DESC));
+                ops.createIndex(new Index().named("service_ts_id")
+                        .on("service", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC).on("_id", Sort.Direction.DESC));
+                ops.createIndex(new Index().named("level_ts_id")
+                        .on("level", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC).on("_id", Sort.Direction.DESC));
+                ops.createIndex(new Index().named("service_level_ts")
+                        .on("service", Sort.Direction.ASC).on("level", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC));
+                // only ERROR/FATAL carry the flag, so only they are indexed
+                ops.createIndex(new Index().named("resolved_ts")
+                        .on("resolved", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC)
+                        .partial(PartialIndexFilter.of(Criteria.where("resolved").exists(true))));
+                ops.createIndex(new Index().named("trace_ts")
+                        .on("traceId", Sort.Direction.ASC).on("timestamp", Sort.Direction.DESC)
+                        .partial(PartialIndexFilter.of(Criteria.where("traceId").exists(true))));
+                ops.createIndex(new Index().named("expire_at")
+                        .on("expireAt", Sort.Direction.ASC).expire(Duration.ZERO));
+
+                IndexOperations rollups = mongoTemplate.indexOps(Rollup.class);
+                rollups.createIndex(new Index().named("gran_service_bucket")
+                        .on("granularity", Sort.Direction.ASC).on("service", Sort.Direction.ASC).on("bucket", Sort.Direction.ASC));
+                rollups.createIndex(new Index().named("gran_bucket")
+                        .on("granularity", Sort.Direction.ASC).on("bucket", Sort.Direction.ASC));
+                rollups.createIndex(new Index().named("expire_at")
+                        .on("expireAt", Sort.Direction.ASC).expire(Duration.ZERO));
+
+                System.out.println("Mongo indexes ready ✅");
+            } catch (Exception e) {
+                System.out.println("❌ could not create Mongo indexes: " + e.getMessage());
+            }
+        });
+    }
+
+    @ReadingConverter
+    static class EpochSecondsToInstant implements Converter<Double, Instant> {
+
+        @Override
+        public Instant convert(Double seconds) {
+            long whole = (long) Math.floor(seconds);
+            return Instant.ofEpochSecond(whole, Math.round((seconds - whole) * 1e9));
+        }
+
+    }
+
+}
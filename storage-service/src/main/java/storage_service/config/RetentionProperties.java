@@ -0,0 +1,25 @@
+package storage_service.config;
+
+import common_lib.domain.enums.Level;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "logsy.storage.retention")
+public class RetentionProperties {
+
+    // levels without an entry (or with 0) are kept forever
+    private Map<Level, Duration> ttl = new EnumMap<>(Level.class);
+
+    public Duration forLevel(Level level) {
+        Duration retention = level == null ? null : ttl.get(level);
+        return retention == null || retention.isZero() || retention.isNegative() ? null : retention;
+    }
+
+}
@@ -4,6 +4,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import storage_service.controller.LogsController;
 
 @Configuration
 public class WebConfig {
@@ -16,7 +17,8 @@ public class WebConfig {
                 registry.addMapping("/**") // apply to all endpoints
                         .allowedOrigins("http://localhost:5173")
                         .allowedMethods("GET", "POST", "PUT", "DELETE")
-                        .allowedHeaders("*");
+                        .allowedHeaders("*")
+                        .exposedHeaders(LogsController.NEXT_CURSOR);
             }
         };
     }
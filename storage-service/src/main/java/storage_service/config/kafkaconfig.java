@@ -1,20 +1,58 @@
 package storage_service.config;
 
+import com.mongodb.MongoNodeIsRecoveringException;
+import com.mongodb.MongoNotPrimaryException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.MongoWriteConcernException;
+import common_lib.codec.CodecConfig;
+import common_lib.concurrent.KeyOrderedExecutor;
+import common_lib.domain.LogRecord;
+import common_lib.kafka.DeadLetters;
+import common_lib.kafka.JsonRecordDeserializer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableKafka
 public class kafkaconfig {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrap;
 
@@ -30,18 +68,166 @@ public class kafkaconfig {
     @Value("${spring.kafka.consumer.value-deserializer}")
     private String valueDeserilizer;
 
+    // consumer threads per listener; more than the topic's partition count just idle
+    @Value("${logsy.storage.concurrency:1}")
+    private int concurrency;
+
+    @Value("${logsy.storage.json.blackbird:false}")
+    private boolean blackbird;
+
+    // must list the same services, in the same order, as the ingestor's producer
+    @Value("${logsy.codec.services:}")
+    private String codecServices;
+
+    @Value("${logsy.storage.dead-letter-topic:db-topic.DLT}")
+    private String deadLetterTopic;
+
+    @Value("${logsy.storage.batch.max-poll-records:1000}")
+    private int maxPollRecords;
+
+    @Value("${logsy.storage.batch.fetch-min-bytes:65536}")
+    private int fetchMinBytes;
+
+    @Value("${logsy.storage.batch.flush-interval-ms:200}")
+    private int flushIntervalMs;
+
+    @Value("${logsy.storage.batch.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    @Value("${logsy.storage.parallel.threads:16}")
+    private int parallelThreads;
+
+    @Value("${logsy.storage.parallel.virtual-threads:false}")
+    private boolean parallelVirtualThreads;
+
+    @Value("${logsy.storage.parallel.max-in-flight:5000}")
+    private int parallelMaxInFlight;
+
+    @Bean
+    public ConsumerFactory<String, LogRecord> consumerFactory() {
+        return withMetrics(new DefaultKafkaConsumerFactory<>(consumerProps()));
+    }
+
+    // Unparseable records go out as the raw bytes they arrived with, so the producer never has to understand
+    // the payload it failed on; records Mongo refused were decoded already and go out as JSON.
+    @Bean
+    public KafkaTemplate<String, Object> deadLetterTemplate() {
+
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
+
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props, new StringSerializer(),
+                new DelegatingByTypeSerializer(Map.of(
+                        byte[].class, new ByteArraySerializer(),
+                        LogRecord.class, new JsonSerializer<>().noTypeInfo()))));
+    }
+
+    // partition -1 lets the producer pick one, so the DLT does not need as many partitions as db-topic
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterRecoverer(KafkaTemplate<String, Object> deadLetterTemplate) {
+        return new DeadLetterPublishingRecoverer(deadLetterTemplate, (record, e) -> new TopicPartition(deadLetterTopic, -1));
+    }
+
+    @Bean
+    public DeadLetters deadLetters(DeadLetterPublishingRecoverer deadLetterRecoverer) {
+        return new DeadLetters(deadLetterRecoverer, Counter.builder("logsy.storage.dead_letters")
+                .description("db-topic records that could not be parsed and went to the dead-letter topic")
+                .register(meterRegistry));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, LogRecord> kafkaListenerContainerFactory(ConsumerFactory<String, LogRecord> consumerFactory, DeadLetters deadLetters) {
+
+        ConcurrentKafkaListenerContainerFactory<String, LogRecord> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency);
+        // the container hands a record that failed to deserialize straight to this, without retries
+        factory.setCommonErrorHandler(new DefaultErrorHandler(deadLetters::publish, new FixedBackOff(0L, 0L)));
+
+        return factory;
+    }
+
+    // Batch size is one poll: up to max-poll-records, or whatever arrived within flush-interval-ms.
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, LogRecord> batchListenerContainerFactory(DeadLetters deadLetters) {
+
+        Map<String, Object> props = consumerProps();
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, flushIntervalMs);
+
+        ConcurrentKafkaListenerContainerFactory<String, LogRecord> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(withMetrics(new DefaultKafkaConsumerFactory<>(props)));
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(batchErrorHandler(deadLetters));
+
+        return factory;
+    }
 
+    // Worker pool for the parallel listener: records fan out by key, same key stays in order.
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    @ConditionalOnProperty(name = "logsy.storage.listener", havingValue = "parallel")
+    public KeyOrderedExecutor storageWorkers() {
+
+        Executor executor;
+        if (parallelVirtualThreads && Runtime.version().feature() >= 21) {
+            executor = new VirtualThreadTaskExecutor("storage-worker-");
+        } else {
+            if (parallelVirtualThreads) {
+                System.out.println("⚠️ virtual threads need Java 21+, using " + parallelThreads + " platform threads");
+            }
+            executor = Executors.newFixedThreadPool(parallelThreads);
+        }
+
+        return new KeyOrderedExecutor(executor, parallelMaxInFlight);
+    }
+
+    // A poll that failed because Mongo is unreachable, timing out or failing over is retried until Mongo is
+    // back, never skipped and committed. Anything else will fail the same way every time, so its records
+    // go to the dead-letter topic instead of blocking the partition. Unparseable records never get here,
+    // the listeners route them through DeadLetters themselves.
+    private DefaultErrorHandler batchErrorHandler(DeadLetters deadLetters) {
+
+        DefaultErrorHandler handler = new DefaultErrorHandler(deadLetters::publish,
+                new FixedBackOff(retryBackoffMs, FixedBackOff.UNLIMITED_ATTEMPTS));
+
+        // causes are checked too, the listener's exception arrives wrapped
+        handler.setClassifications(Map.of(
+                TransientDataAccessException.class, true,
+                RecoverableDataAccessException.class, true,
+                DataAccessResourceFailureException.class, true,
+                MongoSocketException.class, true,
+                MongoTimeoutException.class, true,
+                MongoNotPrimaryException.class, true,
+                MongoNodeIsRecoveringException.class, true,
+                MongoWriteConcernException.class, true), false);
+
+        return handler;
+    }
+
+    // Registers the Kafka client metrics, including kafka.consumer.fetch.manager.records.lag(.max), per consumer.
+    private <K, V> DefaultKafkaConsumerFactory<K, V> withMetrics(DefaultKafkaConsumerFactory<K, V> factory) {
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
+    }
+
+    private Map<String, Object> consumerProps() {
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrap);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, offsetReset);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, keyDeserializer);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, valueDeserilizer);
+        // a payload the configured deserializer rejects arrives as a null value plus an exception header
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, valueDeserilizer);
+        props.put(JsonRecordDeserializer.BLACKBIRD, blackbird);
+        props.put(CodecConfig.SERVICES, codecServices);
 
-        return new DefaultKafkaConsumerFactory<>(props);
+        return props;
     }
 
 }
@@ -1,26 +1,131 @@
 package storage_service.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import common_lib.domain.enums.Level;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import storage_service.domain.Logs;
-import storage_service.repository.logsRepository;
+import storage_service.domain.dto.LogsPage;
+import storage_service.domain.dto.LogsQuery;
+import storage_service.search.SearchIndex;
+import storage_service.search.Tokenizer;
+import storage_service.service.impl.LogsQueryServiceImpl;
 
+import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @RestController
 public class LogsController {
 
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private static final int MAX_PAGE = 5000;
+
+    @Autowired
+    private LogsQueryServiceImpl queryService;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
     @Autowired
-    private logsRepository db;
+    private ObjectMapper objectMapper;
+
+    // Body stays a plain JSON array for the dashboard; the next page is in X-Next-Cursor.
+    @GetMapping(path = "/logs", produces = "application/json")
+    public ResponseEntity<List<Logs>> getLogs(
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) List<Level> level,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String traceId,
+            @RequestParam(required = false) Boolean resolved,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "500") int limit) {
+
+        LogsQuery query = query(service, level, from, to, traceId, resolved, cursor, Math.max(1, Math.min(limit, MAX_PAGE)));
+        LogsPage page = queryService.page(query);
+
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            res.header(NEXT_CURSOR, page.getNextCursor());
+        }
+
+        return res.body(page.getLogs());
+    }
+
+    // Export: one document per line straight off the Mongo cursor (merged with the archive when the range reaches it),
+    // no page held in memory. limit=0 means everything.
+    @GetMapping(path = "/logs", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamLogs(
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) List<Level> level,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String traceId,
+            @RequestParam(required = false) Boolean resolved,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "0") int limit) {
+
+        LogsQuery query = query(service, level, from, to, traceId, resolved, cursor, Math.max(0, limit));
+        ObjectWriter writer = objectMapper.writerFor(Logs.class);
+
+        StreamingResponseBody body = out -> {
+            try (Stream<Logs> logs = queryService.stream(query)) {
+                Iterator<Logs> it = logs.iterator();
+                while (it.hasNext()) {
+                    out.write(writer.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                }
+            }
+        };
+
+        return ResponseEntity.ok().body(body);
+    }
+
+    // q: words must all appear; field:value narrows to a field, e.g. "timeout service:payments status:503"
+    @GetMapping(path = "/logs/search")
+    public ResponseEntity<List<Logs>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        if (!searchIndex.isEnabled()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
 
-    @GetMapping(path = "/logs")
-    public ResponseEntity<List<Logs>> getLogs() {
+        Set<String> terms = Tokenizer.query(q);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("query has no searchable terms");
+        }
 
-        List<Logs> logs = db.findAll();
+        List<SearchIndex.Hit> hits = searchIndex.search(terms, from, to, Math.max(1, Math.min(limit, MAX_PAGE)));
+
+        return ResponseEntity.ok(hits.isEmpty() ? List.of() : queryService.byHits(hits));
+    }
 
-        return ResponseEntity.ok(logs);
+    private static LogsQuery query(String service, List<Level> level, Instant from, Instant to,
+                                   String traceId, Boolean resolved, String cursor, int limit) {
+        return LogsQuery.builder()
+                .service(service)
+                .levels(level)
+                .from(from)
+                .to(to)
+                .traceId(traceId)
+                .resolved(resolved)
+                .cursor(cursor)
+                .limit(limit)
+                .build();
     }
 
 }
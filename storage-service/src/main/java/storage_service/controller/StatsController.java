@@ -0,0 +1,43 @@
+package storage_service.controller;
+
+import common_lib.domain.enums.Level;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import storage_service.domain.dto.StatsPointDto;
+import storage_service.rollup.Granularity;
+import storage_service.service.impl.StatsServiceImpl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+public class StatsController {
+
+    @Autowired
+    private StatsServiceImpl statsService;
+
+    // Counts per bucket/service/level from the rollups; without from, the last 60 buckets.
+    @GetMapping(path = "/stats")
+    public ResponseEntity<List<StatsPointDto>> getStats(
+            @RequestParam(defaultValue = "MINUTE") Granularity granularity,
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) List<Level> level,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : granularity.bucket(end).minus(granularity.length().multipliedBy(59));
+
+        if (Duration.between(start, end).dividedBy(granularity.length()) > 10_000) {
+            throw new IllegalArgumentException("range too wide for " + granularity + " buckets, use a coarser granularity");
+        }
+
+        return ResponseEntity.ok(statsService.stats(granularity, service, level, start, end));
+    }
+
+}
@@ -0,0 +1,45 @@
+package storage_service.controller;
+
+import common_lib.domain.enums.Level;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import storage_service.live.LiveTailHub;
+import storage_service.live.TailOverflow;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+public class TailController {
+
+    @Autowired
+    private LiveTailHub hub;
+
+    // Server-sent events for logs stored from now on: "logs" carries a JSON array, "dropped" a count of skipped logs.
+    // q matches the message case-insensitively.
+    @GetMapping(path = "/logs/tail", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> tail(
+            @RequestParam(required = false) String service,
+            @RequestParam(required = false) List<Level> level,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "DROP_OLDEST") TailOverflow overflow) {
+
+        if (!hub.isEnabled()) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        SseEmitter emitter = hub.subscribe(service, level == null ? null : Set.copyOf(level), q, overflow);
+        if (emitter == null) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+
+}
@@ -1,12 +1,16 @@
 package storage_service.domain;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
-import storage_service.domain.enums.levels;
 
 import lombok.Data;
 
+import java.time.Instant;
 import java.util.Map;
 
 @Data
@@ -16,9 +20,9 @@ public class Logs {
     @Id
     private String id;
 
-    private float timestamp;
+    private Instant timestamp;
     private String message;
-    private levels level;
+    private Level level;
     private String traceId;
     private String service;
 
@@ -31,4 +35,28 @@ public class Logs {
 
     private Boolean resolved;
 
+    // per-level retention, removed by the TTL index on this field; null means keep forever
+    @JsonIgnore
+    private Instant expireAt;
+
+    // producer-assigned; only feeds the deterministic id, never stored or returned
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String eventId;
+
+    // id, resolved and expireAt are storage's own; LogsParser fills them in
+    public static Logs from(LogRecord record) {
+        Logs logs = new Logs();
+        logs.setTimestamp(record.getTimestamp());
+        logs.setMessage(record.getMessage());
+        logs.setLevel(record.getLevel());
+        logs.setTraceId(record.getTraceId());
+        logs.setService(record.getService());
+        logs.setInstanceId(record.getInstanceId());
+        logs.setStackTrace(record.getStackTrace());
+        logs.setMetadata(record.getMetadata());
+        logs.setEventId(record.getEventId());
+        return logs;
+    }
+
 }
@@ -0,0 +1,39 @@
+package storage_service.domain;
+
+import common_lib.domain.enums.Level;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import storage_service.rollup.Granularity;
+
+import java.time.Instant;
+
+// One counter row per (granularity, bucket, service, level); the id is those four joined so flushes can $inc by id.
+@Data
+@Document(collection = "log_rollups")
+public class Rollup {
+
+    @Id
+    private String id;
+
+    private Granularity granularity;
+
+    private Instant bucket;
+
+    private String service;
+
+    private Level level;
+
+    // documents stored
+    private long count;
+
+    // sum of metadata.sampleWeight, i.e. the count before ingest-side sampling
+    private double weighted;
+
+    private Instant expireAt;
+
+    public static String id(Granularity granularity, Instant bucket, String service, Level level) {
+        return granularity + "|" + bucket.toEpochMilli() + "|" + service + "|" + level;
+    }
+
+}
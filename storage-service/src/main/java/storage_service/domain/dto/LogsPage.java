@@ -0,0 +1,18 @@
+package storage_service.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import storage_service.domain.Logs;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class LogsPage {
+
+    private List<Logs> logs;
+
+    // null on the last page
+    private String nextCursor;
+
+}
@@ -0,0 +1,31 @@
+package storage_service.domain.dto;
+
+import common_lib.domain.enums.Level;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+public class LogsQuery {
+
+    private String service;
+
+    private List<Level> levels;
+
+    // inclusive lower bound, exclusive upper bound
+    private Instant from;
+
+    private Instant to;
+
+    private String traceId;
+
+    private Boolean resolved;
+
+    private String cursor;
+
+    private int limit;
+
+}
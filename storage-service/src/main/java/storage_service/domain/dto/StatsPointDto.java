@@ -0,0 +1,28 @@
+package storage_service.domain.dto;
+
+import common_lib.domain.enums.Level;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StatsPointDto {
+
+    private Instant bucket;
+
+    private String service;
+
+    private Level level;
+
+    private long count;
+
+    // count scaled back up by the ingest sample weights
+    private double weighted;
+
+    private double ratePerSecond;
+
+}
@@ -1,8 +0,0 @@
-package storage_service.domain.enums;
-
-public enum levels {
-    INFO,
-    ERROR,
-    WARN,
-    FATAL
-}
@@ -0,0 +1,207 @@
+package storage_service.live;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common_lib.domain.enums.Level;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import storage_service.domain.Logs;
+import storage_service.service.LogsWriteListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans newly stored logs out to live-tail subscribers over server-sent events.
+ *
+ * The consumer threads only match the filter and append to the subscriber's bounded buffer;
+ * each subscriber has its own sender thread, so a client that reads slowly only fills and
+ * overflows its own buffer. Overflow drops per the subscriber's policy and is reported as one
+ * "dropped" event with the count; logs go out as "logs" events holding up to batch-size entries.
+ * A subscriber whose sender has not taken anything for evict-after-ms while overflowing is closed
+ * and its emitter completed, which ends the response and frees its sender thread. There are at
+ * most max-subscribers sender threads.
+ */
+@Component
+public class LiveTailHub implements LogsWriteListener {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${logsy.storage.tail.enabled:true}")
+    private boolean enabled;
+
+    @Value("${logsy.storage.tail.max-subscribers:100}")
+    private int maxSubscribers;
+
+    @Value("${logsy.storage.tail.buffer:1000}")
+    private int buffer;
+
+    @Value("${logsy.storage.tail.batch-size:200}")
+    private int batchSize;
+
+    @Value("${logsy.storage.tail.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${logsy.storage.tail.evict-after-ms:60000}")
+    private long evictAfterMs;
+
+    @Value("${logsy.storage.tail.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    private final List<TailSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger threads = new AtomicInteger();
+
+    // one thread per subscriber; a sender that is still winding down delays a new one instead of adding a thread
+    private ThreadPoolExecutor senders;
+
+    // completing an emitter waits for a write in progress, so it never runs on the scheduler
+    private final ExecutorService closer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "live-tail-closer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private Counter dropped;
+
+    private Counter delivered;
+
+    @PostConstruct
+    public void init() {
+        senders = new ThreadPoolExecutor(maxSubscribers, maxSubscribers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "live-tail-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        senders.allowCoreThreadTimeOut(true);
+        dropped = Counter.builder("logsy.storage.tail.dropped")
+                .description("logs a live-tail subscriber's buffer had no room for")
+                .register(meterRegistry);
+        delivered = Counter.builder("logsy.storage.tail.delivered")
+                .register(meterRegistry);
+        Gauge.builder("logsy.storage.tail.subscribers", subscribers, List::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // null when the hub is full
+    public SseEmitter subscribe(String service, Set<Level> levels, String text, TailOverflow overflow) {
+        return subscribe(new SseEmitter(timeoutMs), service, levels, text, overflow);
+    }
+
+    synchronized SseEmitter subscribe(SseEmitter emitter, String service, Set<Level> levels, String text, TailOverflow overflow) {
+
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+
+        TailSubscriber subscriber = new TailSubscriber(emitter, service, levels, text, overflow, buffer);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscribers.add(subscriber);
+        senders.execute(() -> send(subscriber));
+
+        return emitter;
+    }
+
+    @Override
+    public void onStored(Logs logs) {
+
+        if (!enabled || subscribers.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        for (TailSubscriber subscriber : subscribers) {
+            if (!subscriber.isClosed() && subscriber.matches(logs)) {
+                int lost = subscriber.offer(logs, now);
+                if (lost > 0) {
+                    dropped.increment(lost);
+                }
+            }
+        }
+    }
+
+    // Closes subscribers whose sender is stuck on a client that stopped reading.
+    @Scheduled(fixedDelayString = "${logsy.storage.tail.heartbeat-ms:15000}")
+    public void evictStalled() {
+        long now = System.currentTimeMillis();
+        for (TailSubscriber subscriber : subscribers) {
+            if (subscriber.droppingFor(now) > evictAfterMs) {
+                System.out.println("🐢 closing a live-tail subscriber that stopped reading");
+                remove(subscriber);
+                closer.execute(subscriber.emitter()::complete);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(this::remove);
+        senders.shutdownNow();
+        closer.shutdownNow();
+    }
+
+    private void send(TailSubscriber subscriber) {
+
+        SseEmitter emitter = subscriber.emitter();
+        try {
+            while (!subscriber.isClosed()) {
+                TailSubscriber.Batch batch = subscriber.take(batchSize, heartbeatMs);
+
+                if (batch == null) {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                    continue;
+                }
+                if (batch.dropped() > 0) {
+                    emitter.send(SseEmitter.event().name("dropped").data("{\"count\":" + batch.dropped() + "}"));
+                }
+                if (!batch.logs().isEmpty()) {
+                    // serialized here, on the sender, so the consumer thread never pays for it
+                    emitter.send(SseEmitter.event().name("logs").data(objectMapper.writeValueAsString(batch.logs())));
+                    delivered.increment(batch.logs().size());
+                }
+            }
+            emitter.complete();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        } catch (Exception e) {
+            // client went away or the response is already closed
+            emitter.completeWithError(e);
+        } finally {
+            remove(subscriber);
+        }
+    }
+
+    private void remove(TailSubscriber subscriber) {
+        subscriber.close();
+        subscribers.remove(subscriber);
+    }
+
+}
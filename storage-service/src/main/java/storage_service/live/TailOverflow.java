@@ -0,0 +1,9 @@
+package storage_service.live;
+
+// What a live-tail subscriber's full buffer gives up.
+public enum TailOverflow {
+    // live view: keep the latest logs
+    DROP_OLDEST,
+    // keep what is already buffered contiguous
+    DROP_NEWEST
+}
@@ -0,0 +1,149 @@
+package storage_service.live;
+
+import common_lib.domain.enums.Level;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import storage_service.domain.Logs;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * One live-tail client: its emitter, its filter and a bounded buffer between the consumer
+ * threads, which only ever {@link #offer} without waiting on the client, and the subscriber's own sender.
+ */
+final class TailSubscriber {
+
+    record Batch(List<Logs> logs, long dropped) {
+    }
+
+    private final SseEmitter emitter;
+
+    private final String service;
+
+    private final Set<Level> levels;
+
+    private final Pattern text;
+
+    private final TailOverflow overflow;
+
+    private final int capacity;
+
+    private final ArrayDeque<Logs> buffer;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition ready = lock.newCondition();
+
+    // guarded by lock
+    private long dropped;
+
+    private long droppingSince;
+
+    private volatile boolean closed;
+
+    TailSubscriber(SseEmitter emitter, String service, Set<Level> levels, String text, TailOverflow overflow, int capacity) {
+        this.emitter = emitter;
+        this.service = service;
+        this.levels = levels;
+        this.text = text == null || text.isBlank() ? null
+                : Pattern.compile(Pattern.quote(text.trim()), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        this.overflow = overflow;
+        this.capacity = capacity;
+        this.buffer = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    boolean matches(Logs logs) {
+        return (service == null || service.equals(logs.getService()))
+                && (levels == null || levels.isEmpty() || levels.contains(logs.getLevel()))
+                && (text == null || (logs.getMessage() != null && text.matcher(logs.getMessage()).find()));
+    }
+
+    // Returns how many logs were dropped to make room (0 or 1); never blocks on the client.
+    int offer(Logs logs, long now) {
+
+        lock.lock();
+        try {
+            int lost = 0;
+            if (buffer.size() >= capacity) {
+                lost = 1;
+                dropped++;
+                if (droppingSince == 0) {
+                    droppingSince = now;
+                }
+                if (overflow == TailOverflow.DROP_NEWEST) {
+                    return lost;
+                }
+                buffer.pollFirst();
+            }
+            buffer.addLast(logs);
+            ready.signal();
+            return lost;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // How long the buffer has been overflowing without the sender taking anything; 0 when it is not.
+    long droppingFor(long now) {
+        lock.lock();
+        try {
+            return droppingSince == 0 ? 0 : now - droppingSince;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Sender side: up to max logs plus the drop count since the last batch, or null after waitMs of nothing.
+    Batch take(int max, long waitMs) throws InterruptedException {
+
+        lock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+            while (buffer.isEmpty() && dropped == 0 && !closed) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = ready.awaitNanos(nanos);
+            }
+
+            List<Logs> logs = new ArrayList<>(Math.min(max, buffer.size()));
+            while (logs.size() < max && !buffer.isEmpty()) {
+                logs.add(buffer.pollFirst());
+            }
+
+            // a sender that keeps taking is slow, not stalled: it loses logs but is not evicted
+            Batch batch = new Batch(logs, dropped);
+            dropped = 0;
+            droppingSince = 0;
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        closed = true;
+        lock.lock();
+        try {
+            buffer.clear();
+            ready.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+}
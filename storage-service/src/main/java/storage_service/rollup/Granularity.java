@@ -0,0 +1,26 @@
+package storage_service.rollup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+public enum Granularity {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    Granularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public Instant bucket(Instant ts) {
+        return ts.truncatedTo(unit);
+    }
+
+    public Duration length() {
+        return unit.getDuration();
+    }
+
+}
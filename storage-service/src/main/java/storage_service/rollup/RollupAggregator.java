@@ -0,0 +1,185 @@
+package storage_service.rollup;
+
+import common_lib.domain.enums.Level;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import storage_service.domain.Logs;
+import storage_service.domain.Rollup;
+import storage_service.service.LogsWriteListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts stored logs per service, level and minute/hour/day in memory and periodically
+ * folds the deltas into log_rollups with $inc upserts. Adders are per key, so the write path
+ * only contends with other writes to the same service, level and minute. Writes and the removal
+ * of idle keys both go through the map's per-key compute, so a write never lands in a delta
+ * that has already been dropped.
+ */
+@Component
+public class RollupAggregator implements LogsWriteListener {
+
+    public record Key(Granularity granularity, Instant bucket, String service, Level level) {
+    }
+
+    public static final class Delta {
+
+        final LongAdder count = new LongAdder();
+
+        final DoubleAdder weighted = new DoubleAdder();
+
+        // flushes in a row that found nothing; idle keys are dropped after a few
+        int idleFlushes;
+
+        public long count() {
+            return count.sum();
+        }
+
+        public double weighted() {
+            return weighted.sum();
+        }
+    }
+
+    private record Flushed(Key key, long count, double weighted) {
+    }
+
+    private static final int DROP_AFTER_IDLE_FLUSHES = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${logsy.storage.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${logsy.storage.rollup.retention.minute:7d}")
+    private Duration minuteRetention;
+
+    @Value("${logsy.storage.rollup.retention.hour:90d}")
+    private Duration hourRetention;
+
+    // 0 keeps day rows forever
+    @Value("${logsy.storage.rollup.retention.day:0}")
+    private Duration dayRetention;
+
+    private final Map<Key, Delta> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onStored(Logs logs) {
+
+        if (!enabled || logs.getTimestamp() == null) {
+            return;
+        }
+
+        double weight = weightOf(logs);
+        String service = logs.getService() == null ? "unknown" : logs.getService();
+
+        for (Granularity granularity : Granularity.values()) {
+            add(new Key(granularity, granularity.bucket(logs.getTimestamp()), service, logs.getLevel()), 1, weight);
+        }
+    }
+
+    // unflushed deltas, for queries that want to be current to the second
+    public Map<Key, Delta> pending() {
+        return pending;
+    }
+
+    @Scheduled(fixedDelayString = "${logsy.storage.rollup.flush-interval-ms:5000}")
+    public synchronized void flush() {
+
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+
+        List<Flushed> flushed = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Rollup.class);
+
+        for (Map.Entry<Key, Delta> entry : pending.entrySet()) {
+            Delta delta = entry.getValue();
+            // anything added after the reset simply lands in the next flush
+            long count = delta.count.sumThenReset();
+            double weighted = delta.weighted.sumThenReset();
+
+            if (count == 0) {
+                if (++delta.idleFlushes >= DROP_AFTER_IDLE_FLUSHES) {
+                    // under the key's lock: a write that got in since the reset keeps the delta alive
+                    pending.computeIfPresent(entry.getKey(), (k, d) -> d == delta && d.count.sum() == 0 ? null : d);
+                }
+                continue;
+            }
+            delta.idleFlushes = 0;
+
+            Key key = entry.getKey();
+            flushed.add(new Flushed(key, count, weighted));
+
+            Update update = new Update()
+                    .inc("count", count)
+                    .inc("weighted", weighted)
+                    .setOnInsert("granularity", key.granularity())
+                    .setOnInsert("bucket", key.bucket())
+                    .setOnInsert("service", key.service())
+                    .setOnInsert("level", key.level());
+            Instant expireAt = expireAt(key);
+            if (expireAt != null) {
+                update.setOnInsert("expireAt", expireAt);
+            }
+
+            bulk.upsert(new Query(Criteria.where("id").is(Rollup.id(key.granularity(), key.bucket(), key.service(), key.level()))), update);
+        }
+
+        if (flushed.isEmpty()) {
+            return;
+        }
+
+        try {
+            bulk.execute();
+        } catch (Exception e) {
+            // put the deltas back so the next flush retries them
+            flushed.forEach(f -> add(f.key(), f.count(), f.weighted()));
+            System.out.println("❌ rollup flush failed, " + flushed.size() + " counters kept for retry: " + e.getMessage());
+        }
+    }
+
+    private void add(Key key, long count, double weighted) {
+        pending.compute(key, (k, delta) -> {
+            Delta d = delta == null ? new Delta() : delta;
+            d.count.add(count);
+            d.weighted.add(weighted);
+            return d;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private Instant expireAt(Key key) {
+        Duration retention = switch (key.granularity()) {
+            case MINUTE -> minuteRetention;
+            case HOUR -> hourRetention;
+            case DAY -> dayRetention;
+        };
+        return retention == null || retention.isZero() ? null : key.bucket().plus(key.granularity().length()).plus(retention);
+    }
+
+    private static double weightOf(Logs logs) {
+        Object weight = logs.getMetadata() == null ? null : logs.getMetadata().get("sampleWeight");
+        return weight instanceof Number n && n.doubleValue() > 0 ? n.doubleValue() : 1.0;
+    }
+
+}
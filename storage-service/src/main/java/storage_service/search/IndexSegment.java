@@ -0,0 +1,232 @@
+package storage_service.search;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable on-disk index segment, memory-mapped for reads.
+ *
+ * <pre>
+ * header   magic:int version:byte docCount:int minTs:long maxTs:long termCount:int postingsOffset:long dictOffset:long
+ * docs     docCount x (id:12 bytes, timestamp millis:long)
+ * postings per term, ascending doc numbers as delta varints
+ * dict     per term, sorted: len:varint utf8 docFreq:varint postingsStart:varint (relative to postingsOffset)
+ * </pre>
+ *
+ * Only the dictionary is held on the heap; docs and postings are read straight from the mapping.
+ */
+final class IndexSegment {
+
+    static final int ID_BYTES = 12;
+
+    private static final int MAGIC = 0x4C534958; // "LSIX"
+
+    private static final byte VERSION = 1;
+
+    private static final int HEADER = 4 + 1 + 4 + 8 + 8 + 4 + 8 + 8;
+
+    private static final int DOC_BYTES = ID_BYTES + 8;
+
+    final Path path;
+
+    final long seq;
+
+    final int docCount;
+
+    final long minTs;
+
+    final long maxTs;
+
+    private final MappedByteBuffer buffer;
+
+    private final long postingsOffset;
+
+    private final String[] terms;
+
+    private final int[] docFreq;
+
+    private final int[] postingsStart;
+
+    private IndexSegment(Path path, long seq, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.seq = seq;
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION) {
+            throw new IOException("not an index segment: " + path);
+        }
+
+        docCount = buffer.getInt(5);
+        minTs = buffer.getLong(9);
+        maxTs = buffer.getLong(17);
+        int termCount = buffer.getInt(25);
+        postingsOffset = buffer.getLong(29);
+        long dictOffset = buffer.getLong(37);
+
+        terms = new String[termCount];
+        docFreq = new int[termCount];
+        postingsStart = new int[termCount];
+
+        ByteBuffer dict = buffer.duplicate().position((int) dictOffset);
+        for (int i = 0; i < termCount; i++) {
+            byte[] term = new byte[readVarint(dict)];
+            dict.get(term);
+            terms[i] = new String(term, StandardCharsets.UTF_8);
+            docFreq[i] = readVarint(dict);
+            postingsStart[i] = readVarint(dict);
+        }
+    }
+
+    static IndexSegment open(Path path, long seq) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new IndexSegment(path, seq, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    int docFreq(String term) {
+        int i = Arrays.binarySearch(terms, term);
+        return i < 0 ? 0 : docFreq[i];
+    }
+
+    int[] postings(String term) {
+        int i = Arrays.binarySearch(terms, term);
+        if (i < 0) {
+            return new int[0];
+        }
+
+        int[] docs = new int[docFreq[i]];
+        ByteBuffer in = buffer.duplicate().position((int) (postingsOffset + postingsStart[i]));
+        int doc = 0;
+        for (int n = 0; n < docs.length; n++) {
+            doc += readVarint(in);
+            docs[n] = doc;
+        }
+        return docs;
+    }
+
+    byte[] id(int doc) {
+        byte[] id = new byte[ID_BYTES];
+        buffer.get(HEADER + doc * DOC_BYTES, id);
+        return id;
+    }
+
+    long timestamp(int doc) {
+        return buffer.getLong(HEADER + doc * DOC_BYTES + ID_BYTES);
+    }
+
+    static void write(Path path, List<byte[]> ids, long[] timestamps, SortedMap<String, IntList> postings) throws IOException {
+
+        int docCount = ids.size();
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+        for (int d = 0; d < docCount; d++) {
+            minTs = Math.min(minTs, timestamps[d]);
+            maxTs = Math.max(maxTs, timestamps[d]);
+        }
+
+        ByteArrayOutputStream postingBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream dictBytes = new ByteArrayOutputStream();
+
+        for (Map.Entry<String, IntList> entry : postings.entrySet()) {
+            IntList docs = entry.getValue();
+            byte[] term = entry.getKey().getBytes(StandardCharsets.UTF_8);
+
+            writeVarint(dictBytes, term.length);
+            dictBytes.write(term);
+            writeVarint(dictBytes, docs.size());
+            writeVarint(dictBytes, postingBytes.size());
+
+            int previous = 0;
+            for (int n = 0; n < docs.size(); n++) {
+                writeVarint(postingBytes, docs.get(n) - previous);
+                previous = docs.get(n);
+            }
+        }
+
+        long postingsOffset = HEADER + (long) docCount * DOC_BYTES;
+        long dictOffset = postingsOffset + postingBytes.size();
+        if (dictOffset + dictBytes.size() > Integer.MAX_VALUE) {
+            throw new IOException("segment would exceed 2GB, flush or merge smaller batches");
+        }
+
+        ByteBuffer head = ByteBuffer.allocate((int) postingsOffset);
+        head.putInt(MAGIC).put(VERSION).putInt(docCount).putLong(minTs).putLong(maxTs)
+                .putInt(postings.size()).putLong(postingsOffset).putLong(dictOffset);
+        for (int d = 0; d < docCount; d++) {
+            head.put(ids.get(d)).putLong(timestamps[d]);
+        }
+        head.flip();
+
+        // write aside and rename, so a crash never leaves a half written segment under a real name
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (head.hasRemaining()) {
+                channel.write(head);
+            }
+            channel.write(ByteBuffer.wrap(postingBytes.toByteArray()));
+            channel.write(ByteBuffer.wrap(dictBytes.toByteArray()));
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Segments are disjoint and in seq order, so merged postings are each segment's shifted by the docs before it.
+    static void merge(Path path, List<IndexSegment> segments) throws IOException {
+
+        int total = segments.stream().mapToInt(s -> s.docCount).sum();
+        List<byte[]> ids = new ArrayList<>(total);
+        long[] timestamps = new long[total];
+        SortedMap<String, IntList> postings = new TreeMap<>();
+
+        int base = 0;
+        for (IndexSegment segment : segments) {
+            for (int d = 0; d < segment.docCount; d++) {
+                ids.add(segment.id(d));
+                timestamps[base + d] = segment.timestamp(d);
+            }
+            for (String term : segment.terms) {
+                IntList merged = postings.computeIfAbsent(term, t -> new IntList());
+                for (int doc : segment.postings(term)) {
+                    merged.add(base + doc);
+                }
+            }
+            base += segment.docCount;
+        }
+
+        write(path, ids, timestamps, postings);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+}
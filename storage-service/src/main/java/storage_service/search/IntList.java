@@ -0,0 +1,39 @@
+package storage_service.search;
+
+import java.util.Arrays;
+
+// Growable int[] so postings don't box every doc number.
+final class IntList {
+
+    private int[] values;
+
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+}
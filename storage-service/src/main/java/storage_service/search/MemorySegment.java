@@ -0,0 +1,40 @@
+package storage_service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Write buffer for one time partition until it is flushed to an IndexSegment. Callers synchronize.
+final class MemorySegment {
+
+    final List<byte[]> ids = new ArrayList<>();
+
+    long[] timestamps = new long[64];
+
+    final Map<String, IntList> postings = new HashMap<>();
+
+    void add(byte[] id, long timestamp, Collection<String> terms) {
+        int doc = ids.size();
+        if (doc == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, doc * 2);
+        }
+        ids.add(id);
+        timestamps[doc] = timestamp;
+        for (String term : terms) {
+            postings.computeIfAbsent(term, t -> new IntList()).add(doc);
+        }
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    int[] postings(String term) {
+        IntList list = postings.get(term);
+        return list == null ? new int[0] : list.toArray();
+    }
+
+}
@@ -0,0 +1,444 @@
+package storage_service.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import storage_service.domain.Logs;
+import storage_service.service.LogsWriteListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Full-text index over stored logs, partitioned by UTC day under {@code logsy.storage.search.dir}.
+ * New documents go to an in-memory buffer per day, which is flushed to an immutable segment
+ * every flush interval (or every flush-docs documents). A background pass merges a day's
+ * segments once there are merge-factor of them and drops days past retention.
+ *
+ * The buffer is not persisted: documents written shortly before a crash are in Mongo but
+ * not searchable until reindexed.
+ */
+@Component
+public class SearchIndex implements LogsWriteListener {
+
+    public record Hit(String id, long timestamp) {
+    }
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${logsy.storage.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${logsy.storage.search.dir:./index}")
+    private String dir;
+
+    @Value("${logsy.storage.search.flush-docs:50000}")
+    private int flushDocs;
+
+    @Value("${logsy.storage.search.merge-factor:4}")
+    private int mergeFactor;
+
+    @Value("${logsy.storage.search.retention-days:30}")
+    private int retentionDays;
+
+    private Path root;
+
+    // guarded by this: the live buffers, and sealed ones waiting to be (re)written
+    private Map<LocalDate, MemorySegment> buffers = new HashMap<>();
+    private final Map<LocalDate, List<MemorySegment>> sealed = new HashMap<>();
+    private int buffered;
+    private long nextSeq;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // a flush asked for by onStored and not started yet
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    // copy-on-write: readers take the current map without locking
+    private volatile TreeMap<LocalDate, List<IndexSegment>> partitions = new TreeMap<>();
+
+    @PostConstruct
+    public void load() throws IOException {
+
+        if (!enabled) {
+            return;
+        }
+
+        root = Paths.get(dir);
+        Files.createDirectories(root);
+
+        TreeMap<LocalDate, List<IndexSegment>> loaded = new TreeMap<>();
+
+        try (Stream<Path> days = Files.list(root)) {
+            for (Path day : days.filter(Files::isDirectory).toList()) {
+                LocalDate date = LocalDate.parse(day.getFileName().toString());
+                List<IndexSegment> segments = new ArrayList<>();
+                try (Stream<Path> files = Files.list(day)) {
+                    for (Path file : files.sorted().toList()) {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(".tmp")) {
+                            Files.deleteIfExists(file);
+                        } else if (name.startsWith("seg-") && name.endsWith(".idx")) {
+                            long seq = Long.parseLong(name.substring(4, name.length() - 4));
+                            nextSeq = Math.max(nextSeq, seq + 1);
+                            try {
+                                segments.add(IndexSegment.open(file, seq));
+                            } catch (IOException e) {
+                                System.out.println("❌ skipping unreadable index segment " + file + ": " + e.getMessage());
+                            }
+                        }
+                    }
+                }
+                if (!segments.isEmpty()) {
+                    loaded.put(date, segments);
+                }
+            }
+        }
+
+        partitions = loaded;
+
+        int docs = loaded.values().stream().flatMap(List::stream).mapToInt(s -> s.docCount).sum();
+        System.out.println("🔎 search index loaded: " + loaded.size() + " days, " + docs + " docs");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void onStored(Logs logs) {
+
+        if (!enabled || logs.getId() == null || !ObjectId.isValid(logs.getId())) {
+            return;
+        }
+
+        Instant ts = logs.getTimestamp() != null ? logs.getTimestamp() : Instant.now();
+        Set<String> terms = Tokenizer.terms(logs.getMessage(), logs.getService(), logs.getLevel(), logs.getMetadata());
+        byte[] id = new ObjectId(logs.getId()).toByteArray();
+
+        boolean full;
+        synchronized (this) {
+            buffers.computeIfAbsent(day(ts.toEpochMilli()), d -> new MemorySegment()).add(id, ts.toEpochMilli(), terms);
+            full = ++buffered >= flushDocs;
+        }
+
+        // the consumer thread only asks for the flush, segments are written on the scheduler
+        if (full && flushQueued.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${logsy.storage.search.flush-interval-ms:10000}")
+    public void flush() {
+
+        if (!enabled || !flushLock.tryLock()) {
+            return;
+        }
+
+        try {
+            flushQueued.set(false);
+
+            List<Map.Entry<LocalDate, MemorySegment>> toWrite = new ArrayList<>();
+
+            synchronized (this) {
+                buffers.forEach((day, buffer) -> sealed.computeIfAbsent(day, d -> new ArrayList<>()).add(buffer));
+                buffers = new HashMap<>();
+                buffered = 0;
+                sealed.forEach((day, list) -> list.forEach(buffer -> toWrite.add(Map.entry(day, buffer))));
+            }
+
+            for (Map.Entry<LocalDate, MemorySegment> entry : toWrite) {
+                LocalDate day = entry.getKey();
+                MemorySegment buffer = entry.getValue();
+
+                try {
+                    long seq;
+                    synchronized (this) {
+                        seq = nextSeq++;
+                    }
+                    Path file = segmentPath(day, seq);
+                    Files.createDirectories(file.getParent());
+                    IndexSegment.write(file, buffer.ids, buffer.timestamps, new TreeMap<>(buffer.postings));
+                    IndexSegment segment = IndexSegment.open(file, seq);
+
+                    synchronized (this) {
+                        TreeMap<LocalDate, List<IndexSegment>> next = copy(partitions);
+                        next.computeIfAbsent(day, d -> new ArrayList<>()).add(segment);
+                        partitions = next;
+                        sealed.get(day).remove(buffer);
+                        if (sealed.get(day).isEmpty()) {
+                            sealed.remove(day);
+                        }
+                    }
+                } catch (IOException e) {
+                    // stays sealed (and searchable) and is retried on the next flush
+                    System.out.println("❌ search index flush failed for " + day + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${logsy.storage.search.merge-interval-ms:60000}")
+    public void merge() {
+
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate oldest = LocalDate.now(ZoneOffset.UTC).minusDays(retentionDays);
+
+        for (Map.Entry<LocalDate, List<IndexSegment>> entry : partitions.entrySet()) {
+
+            LocalDate day = entry.getKey();
+
+            if (day.isBefore(oldest)) {
+                synchronized (this) {
+                    TreeMap<LocalDate, List<IndexSegment>> next = copy(partitions);
+                    next.remove(day);
+                    partitions = next;
+                }
+                deleteDay(day);
+                continue;
+            }
+
+            // size tiered: only segments of roughly the same size are merged, so a day's data is
+            // rewritten O(log n) times instead of on every merge
+            Map<Integer, List<IndexSegment>> tiers = new TreeMap<>();
+            for (IndexSegment segment : entry.getValue()) {
+                tiers.computeIfAbsent(tier(segment.docCount), t -> new ArrayList<>()).add(segment);
+            }
+
+            for (List<IndexSegment> tier : tiers.values()) {
+                if (tier.size() >= mergeFactor) {
+                    mergeSegments(day, tier.subList(0, mergeFactor));
+                }
+            }
+        }
+    }
+
+    private void mergeSegments(LocalDate day, List<IndexSegment> segments) {
+
+        long seq;
+        synchronized (this) {
+            seq = nextSeq++;
+        }
+
+        try {
+            Path file = segmentPath(day, seq);
+            IndexSegment.merge(file, segments);
+            IndexSegment merged = IndexSegment.open(file, seq);
+
+            synchronized (this) {
+                TreeMap<LocalDate, List<IndexSegment>> next = copy(partitions);
+                List<IndexSegment> current = next.get(day);
+                current.removeAll(segments);
+                current.add(merged);
+                partitions = next;
+            }
+
+            for (IndexSegment old : segments) {
+                Files.deleteIfExists(old.path);
+            }
+
+            System.out.println("🔎 merged " + segments.size() + " segments for " + day + " (" + merged.docCount + " docs)");
+        } catch (IOException e) {
+            System.out.println("❌ search index merge failed for " + day + ": " + e.getMessage());
+        }
+    }
+
+    private int tier(int docCount) {
+        int tier = 0;
+        for (long size = mergeFactor; size <= docCount; size *= mergeFactor) {
+            tier++;
+        }
+        return tier;
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Documents containing every term, newest first. Only the newest limit hits are kept while
+     * scanning. Days are searched newest first and the scan stops once a whole day has been read
+     * and limit hits at or after it are collected.
+     */
+    public List<Hit> search(Set<String> terms, Instant from, Instant to, int limit) {
+
+        if (!enabled || terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        long fromMs = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMs = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        TopHits top = new TopHits(limit);
+        TreeMap<LocalDate, List<IndexSegment>> segments;
+
+        // segments and unflushed buffers are read together so a concurrent flush can't hide documents
+        synchronized (this) {
+            segments = partitions;
+            List<MemorySegment> unflushed = new ArrayList<>(buffers.values());
+            sealed.values().forEach(unflushed::addAll);
+            for (MemorySegment buffer : unflushed) {
+                int[] docs = intersect(terms.stream().map(buffer::postings).sorted(Comparator.comparingInt(p -> p.length)).toList());
+                for (int doc : docs) {
+                    top.offer(buffer.ids.get(doc), buffer.timestamps[doc], fromMs, toMs);
+                }
+            }
+        }
+
+        for (LocalDate day : segments.descendingKeySet()) {
+
+            if (from != null && day.isBefore(day(fromMs))) {
+                break;
+            }
+            if (to != null && day.isAfter(day(toMs))) {
+                continue;
+            }
+
+            for (IndexSegment segment : segments.get(day)) {
+                if (segment.maxTs < fromMs || segment.minTs >= toMs) {
+                    continue;
+                }
+                int[] docs = intersect(terms.stream()
+                        .sorted(Comparator.comparingInt(segment::docFreq))
+                        .map(segment::postings)
+                        .toList());
+                for (int doc : docs) {
+                    top.offer(segment.id(doc), segment.timestamp(doc), fromMs, toMs);
+                }
+            }
+
+            if (top.isFull() && top.oldest() >= day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli()) {
+                break;
+            }
+        }
+
+        return top.newestFirst();
+    }
+
+    // Min-heap on timestamp holding the newest limit hits seen so far.
+    private static final class TopHits {
+
+        private final int limit;
+        private final PriorityQueue<Hit> heap;
+        // ids in the heap: a doc can sit in two segments for a moment around a merge, or twice after a
+        // replayed poll; a copy of an evicted hit is never newer than the heap's oldest, so it can't come back
+        private final Set<String> ids = new HashSet<>();
+
+        private TopHits(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, Comparator.comparingLong(Hit::timestamp));
+        }
+
+        private void offer(byte[] id, long ts, long fromMs, long toMs) {
+
+            if (ts < fromMs || ts >= toMs || (isFull() && ts <= oldest())) {
+                return;
+            }
+
+            String hex = new ObjectId(id).toHexString();
+            if (!ids.add(hex)) {
+                return;
+            }
+
+            heap.add(new Hit(hex, ts));
+            if (heap.size() > limit) {
+                ids.remove(heap.poll().id());
+            }
+        }
+
+        private boolean isFull() {
+            return heap.size() >= limit;
+        }
+
+        private long oldest() {
+            return heap.peek().timestamp();
+        }
+
+        private List<Hit> newestFirst() {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(Comparator.comparingLong(Hit::timestamp).reversed());
+            return hits;
+        }
+    }
+
+    // smallest list first keeps every step bounded by the rarest term
+    static int[] intersect(List<int[]> postings) {
+        if (postings.isEmpty()) {
+            return new int[0];
+        }
+        int[] result = postings.get(0);
+        for (int i = 1; i < postings.size() && result.length > 0; i++) {
+            int[] other = postings.get(i);
+            int[] out = new int[Math.min(result.length, other.length)];
+            int a = 0, b = 0, n = 0;
+            while (a < result.length && b < other.length) {
+                if (result[a] < other[b]) {
+                    a++;
+                } else if (result[a] > other[b]) {
+                    b++;
+                } else {
+                    out[n++] = result[a];
+                    a++;
+                    b++;
+                }
+            }
+            result = Arrays.copyOf(out, n);
+        }
+        return result;
+    }
+
+    private static LocalDate day(long epochMilli) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneOffset.UTC);
+    }
+
+    private Path segmentPath(LocalDate day, long seq) {
+        return root.resolve(day.toString()).resolve(String.format("seg-%012d.idx", seq));
+    }
+
+    private void deleteDay(LocalDate day) {
+        try (Stream<Path> files = Files.list(root.resolve(day.toString()))) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(root.resolve(day.toString()));
+        } catch (IOException e) {
+            System.out.println("❌ could not drop expired index day " + day + ": " + e.getMessage());
+        }
+    }
+
+    private static TreeMap<LocalDate, List<IndexSegment>> copy(TreeMap<LocalDate, List<IndexSegment>> source) {
+        TreeMap<LocalDate, List<IndexSegment>> copy = new TreeMap<>();
+        source.forEach((day, segments) -> copy.put(day, new ArrayList<>(segments)));
+        return copy;
+    }
+
+}
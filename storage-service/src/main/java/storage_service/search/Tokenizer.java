@@ -0,0 +1,95 @@
+package storage_service.search;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Turns text into index terms: lowercase runs of letters and digits, 2 to 64 chars long.
+ * Fields other than the message are indexed as "field:token" (service:payments, level:error,
+ * status:500), and the search endpoint parses "field:value" the same way.
+ */
+public final class Tokenizer {
+
+    private static final int MIN_LENGTH = 2;
+
+    private static final int MAX_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    public static void tokens(String text, Consumer<String> out) {
+        if (text == null) {
+            return;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                int len = i - start;
+                if (len >= MIN_LENGTH && len <= MAX_LENGTH) {
+                    out.accept(text.substring(start, i).toLowerCase());
+                }
+                start = -1;
+            }
+        }
+    }
+
+    public static Set<String> terms(String message, String service, Object level, Map<String, Object> metadata) {
+
+        Set<String> terms = new LinkedHashSet<>();
+
+        tokens(message, terms::add);
+        field("service", service, terms);
+        field("level", level == null ? null : level.toString(), terms);
+
+        if (metadata != null) {
+            metadata.forEach((key, value) -> metadata(key, value, terms));
+        }
+
+        return terms;
+    }
+
+    // "timeout service:payments status:500" -> timeout, service:payments, status:500
+    public static Set<String> query(String q) {
+
+        Set<String> terms = new LinkedHashSet<>();
+        if (q == null) {
+            return terms;
+        }
+
+        for (String part : q.trim().split("\\s+")) {
+            int colon = part.indexOf(':');
+            if (colon > 0) {
+                field(part.substring(0, colon), part.substring(colon + 1), terms);
+            } else {
+                tokens(part, terms::add);
+            }
+        }
+
+        return terms;
+    }
+
+    private static void metadata(String key, Object value, Set<String> terms) {
+        if (value instanceof Map<?, ?> nested) {
+            nested.forEach((k, v) -> metadata(key + "." + k, v, terms));
+        } else if (value instanceof Iterable<?> items) {
+            items.forEach(v -> metadata(key, v, terms));
+        } else if (value != null) {
+            String text = value.toString();
+            // values are searchable on their own and scoped to their key
+            tokens(text, terms::add);
+            field(key, text, terms);
+        }
+    }
+
+    private static void field(String field, String value, Set<String> terms) {
+        String prefix = field.toLowerCase() + ":";
+        tokens(value, token -> terms.add(prefix + token));
+    }
+
+}
@@ -0,0 +1,9 @@
+package storage_service.service;
+
+import storage_service.domain.Logs;
+
+// Notified by every listener mode once a document is safely in Mongo.
+public interface LogsWriteListener {
+    public void onStored(Logs logs);
+
+}
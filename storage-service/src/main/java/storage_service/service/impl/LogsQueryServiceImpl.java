@@ -0,0 +1,214 @@
+package storage_service.service.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import storage_service.archive.ColdArchive;
+import storage_service.cache.HotTailCache;
+import storage_service.domain.Logs;
+import storage_service.domain.dto.LogsPage;
+import storage_service.domain.dto.LogsQuery;
+import storage_service.search.SearchIndex;
+import storage_service.service.logsQueryService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Newest first, keyset paginated on (timestamp, id) so deep pages cost the same as the first one.
+// Ranges reaching past what Mongo still holds are merged with the cold archive on the same key.
+@Service
+public class LogsQueryServiceImpl implements logsQueryService {
+
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private HotTailCache hotTail;
+
+    @Autowired
+    private ColdArchive archive;
+
+    @Override
+    public LogsPage page(LogsQuery query) {
+
+        Cursor cursor = query.getCursor() == null ? null : decode(query.getCursor());
+        Instant cursorTs = cursor == null ? null : cursor.timestamp();
+        String cursorId = cursor == null ? null : cursor.id();
+
+        // one extra row tells us whether there is a next page
+        int wanted = query.getLimit() + 1;
+        List<Logs> logs = hotTail.page(query, cursorTs, cursorId);
+        if (logs == null) {
+            logs = mongoTemplate.find(build(query).limit(wanted), Logs.class);
+
+            // a full page that stays newer than anything archived needs no archive read
+            Instant floor = logs.size() == wanted ? logs.get(wanted - 1).getTimestamp() : null;
+            if (archive.overlaps(query.getFrom(), floor)) {
+                Iterator<Logs> merged = merge(logs.iterator(), archive.scan(query, cursorTs, cursorId));
+                logs = new ArrayList<>(wanted);
+                while (logs.size() < wanted && merged.hasNext()) {
+                    logs.add(merged.next());
+                }
+            }
+        }
+
+        String next = null;
+        if (logs.size() > query.getLimit()) {
+            logs = new ArrayList<>(logs.subList(0, query.getLimit()));
+            next = encode(logs.get(logs.size() - 1));
+        }
+
+        return new LogsPage(logs, next);
+    }
+
+    @Override
+    public Stream<Logs> stream(LogsQuery query) {
+        Query q = build(query).cursorBatchSize(STREAM_BATCH_SIZE);
+        if (!archive.overlaps(query.getFrom(), null)) {
+            if (query.getLimit() > 0) {
+                q.limit(query.getLimit());
+            }
+            return mongoTemplate.stream(q, Logs.class);
+        }
+
+        Cursor cursor = query.getCursor() == null ? null : decode(query.getCursor());
+        Stream<Logs> recent = mongoTemplate.stream(q, Logs.class);
+        Iterator<Logs> merged = merge(recent.iterator(), archive.scan(query,
+                cursor == null ? null : cursor.timestamp(), cursor == null ? null : cursor.id()));
+
+        Stream<Logs> logs = StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(recent::close);
+        return query.getLimit() > 0 ? logs.limit(query.getLimit()) : logs;
+    }
+
+    // keeps the order of ids; ids whose document has expired or been deleted are skipped
+    @Override
+    public List<Logs> byIds(List<String> ids) {
+        Map<String, Logs> found = find(ids);
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    // as byIds, but hits already archived are read back from the archive by their timestamp
+    @Override
+    public List<Logs> byHits(List<SearchIndex.Hit> hits) {
+
+        List<String> ids = hits.stream().map(SearchIndex.Hit::id).toList();
+        Map<String, Logs> found = find(ids);
+
+        List<SearchIndex.Hit> missing = hits.stream().filter(h -> !found.containsKey(h.id())).toList();
+        if (!missing.isEmpty()) {
+            found.putAll(archive.byHits(missing));
+        }
+
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    private Map<String, Logs> find(List<String> ids) {
+        return mongoTemplate.find(new Query(Criteria.where("id").in(ids)), Logs.class).stream()
+                .collect(Collectors.toMap(Logs::getId, Function.identity(), (a, b) -> a));
+    }
+
+    // Two newest-first iterators as one; a row archived while still in Mongo comes out once.
+    private static Iterator<Logs> merge(Iterator<Logs> a, Iterator<Logs> b) {
+        return new Iterator<>() {
+
+            private Logs nextA = a.hasNext() ? a.next() : null;
+
+            private Logs nextB = b.hasNext() ? b.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextA != null || nextB != null;
+            }
+
+            @Override
+            public Logs next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int order = nextA == null ? 1 : nextB == null ? -1 : ColdArchive.NEWEST_FIRST.compare(nextA, nextB);
+                Logs out = order <= 0 ? nextA : nextB;
+                if (order <= 0) {
+                    nextA = a.hasNext() ? a.next() : null;
+                }
+                if (order >= 0) {
+                    nextB = b.hasNext() ? b.next() : null;
+                }
+                return out;
+            }
+        };
+    }
+
+    private Query build(LogsQuery query) {
+
+        List<Criteria> and = new ArrayList<>();
+
+        if (query.getService() != null) {
+            and.add(Criteria.where("service").is(query.getService()));
+        }
+        if (query.getLevels() != null && !query.getLevels().isEmpty()) {
+            and.add(Criteria.where("level").in(query.getLevels()));
+        }
+        if (query.getTraceId() != null) {
+            and.add(Criteria.where("traceId").is(query.getTraceId()));
+        }
+        if (query.getResolved() != null) {
+            and.add(Criteria.where("resolved").is(query.getResolved()));
+        }
+        if (query.getFrom() != null) {
+            and.add(Criteria.where("timestamp").gte(query.getFrom()));
+        }
+        if (query.getTo() != null) {
+            and.add(Criteria.where("timestamp").lt(query.getTo()));
+        }
+        if (query.getCursor() != null) {
+            Cursor cursor = decode(query.getCursor());
+            and.add(new Criteria().orOperator(
+                    Criteria.where("timestamp").lt(cursor.timestamp()),
+                    new Criteria().andOperator(
+                            Criteria.where("timestamp").is(cursor.timestamp()),
+                            Criteria.where("id").lt(cursor.id()))));
+        }
+
+        Query q = and.isEmpty() ? new Query() : new Query(new Criteria().andOperator(and));
+        return q.with(Sort.by(Sort.Direction.DESC, "timestamp", "id"));
+    }
+
+    private static String encode(Logs last) {
+        // Mongo keeps millisecond precision, so that is all the cursor needs
+        String raw = last.getTimestamp().toEpochMilli() + ":" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            return new Cursor(Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep))), raw.substring(sep + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+
+    private record Cursor(Instant timestamp, String id) {
+    }
+
+}
@@ -0,0 +1,77 @@
+package storage_service.service.impl;
+
+import common_lib.domain.enums.Level;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import storage_service.domain.Rollup;
+import storage_service.domain.dto.StatsPointDto;
+import storage_service.rollup.Granularity;
+import storage_service.rollup.RollupAggregator;
+import storage_service.service.statsService;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads the rollup rows and adds the deltas not flushed yet, so the newest bucket is current.
+@Service
+public class StatsServiceImpl implements statsService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private RollupAggregator aggregator;
+
+    @Override
+    public List<StatsPointDto> stats(Granularity granularity, String service, List<Level> levels, Instant from, Instant to) {
+
+        List<Criteria> and = new ArrayList<>();
+        and.add(Criteria.where("granularity").is(granularity));
+        and.add(Criteria.where("bucket").gte(from).lt(to));
+        if (service != null) {
+            and.add(Criteria.where("service").is(service));
+        }
+        if (levels != null && !levels.isEmpty()) {
+            and.add(Criteria.where("level").in(levels));
+        }
+
+        Map<String, StatsPointDto> points = new LinkedHashMap<>();
+        for (Rollup rollup : mongoTemplate.find(new Query(new Criteria().andOperator(and)), Rollup.class)) {
+            points.put(rollup.getId(), new StatsPointDto(rollup.getBucket(), rollup.getService(), rollup.getLevel(),
+                    rollup.getCount(), rollup.getWeighted(), 0));
+        }
+
+        aggregator.pending().forEach((key, delta) -> {
+            if (key.granularity() != granularity || key.bucket().isBefore(from) || !key.bucket().isBefore(to)
+                    || (service != null && !service.equals(key.service()))
+                    || (levels != null && !levels.isEmpty() && !levels.contains(key.level()))) {
+                return;
+            }
+            long count = delta.count();
+            if (count == 0) {
+                return;
+            }
+            StatsPointDto point = points.computeIfAbsent(Rollup.id(key.granularity(), key.bucket(), key.service(), key.level()),
+                    id -> new StatsPointDto(key.bucket(), key.service(), key.level(), 0, 0, 0));
+            point.setCount(point.getCount() + count);
+            point.setWeighted(point.getWeighted() + delta.weighted());
+        });
+
+        double seconds = granularity.length().toSeconds();
+        List<StatsPointDto> out = new ArrayList<>(points.values());
+        out.forEach(p -> p.setRatePerSecond(p.getWeighted() / seconds));
+        out.sort(Comparator.comparing(StatsPointDto::getBucket)
+                .thenComparing(StatsPointDto::getService)
+                .thenComparing(p -> String.valueOf(p.getLevel())));
+
+        return out;
+    }
+
+}
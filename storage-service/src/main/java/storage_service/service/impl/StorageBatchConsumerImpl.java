@@ -0,0 +1,164 @@
+package storage_service.service.impl;
+
+import com.mongodb.bulk.BulkWriteError;
+import common_lib.domain.LogRecord;
+import common_lib.kafka.DeadLetters;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+import storage_service.domain.Logs;
+import storage_service.service.storageBatchConsumer;
+import storage_service.service.LogsWriteListener;
+import storage_service.utils.LogsParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// One unordered bulk insert per poll; offsets are only committed once Mongo has taken the whole poll.
+// Records already stored (same deterministic id) are skipped, so replaying a topic range is safe.
+@Service
+@ConditionalOnProperty(name = "logsy.storage.listener", havingValue = "batch", matchIfMissing = true)
+public class StorageBatchConsumerImpl implements storageBatchConsumer {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    // server-side write errors that go away on their own: stepdowns, shutdowns, timeouts
+    private static final Set<Integer> TRANSIENT_CODES = Set.of(
+            6, 7, 50, 89, 91, 189, 262, 9001, 10107, 11600, 11602, 13435, 13436);
+
+    // a poll that failed transiently is usually retried by the same consumer within seconds;
+    // the cap only matters when a rebalance hands its partition elsewhere first
+    private static final int MAX_UNCONFIRMED = 100_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private LogsParser parser;
+
+    @Autowired
+    private DeadLetters deadLetters;
+
+    @Autowired
+    private List<LogsWriteListener> writeListeners;
+
+    // ids a transiently failed attempt may have written without telling the listeners
+    private final Set<String> unconfirmed = Collections.newSetFromMap(Collections.synchronizedMap(
+            new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > MAX_UNCONFIRMED;
+                }
+            }));
+
+    @Override
+    @KafkaListener(
+            topics = "${spring.kafka.consumer.topic}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchListenerContainerFactory"
+    )
+    public void consume(List<ConsumerRecord<String, LogRecord>> records, Acknowledgment ack) {
+
+        List<Logs> batch = new ArrayList<>(records.size());
+        List<ConsumerRecord<String, LogRecord>> sources = new ArrayList<>(records.size());
+
+        for (ConsumerRecord<String, LogRecord> record : records) {
+            if (!deadLetters.route(record)) {
+                batch.add(parser.prepare(record.value()));
+                sources.add(record);
+            }
+        }
+
+        Set<Integer> skipped = Set.of();
+        Set<Integer> duplicates = new HashSet<>();
+
+        if (!batch.isEmpty()) {
+            // throwing here leaves the offsets alone; the container's error handler re-seeks and retries
+            // the poll while Mongo is unavailable, and dead-letters it if the failure is not transient
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Logs.class)
+                        .insert(batch)
+                        .execute();
+            } catch (BulkOperationException e) {
+                skipped = skipped(e, batch);
+                for (BulkWriteError error : e.getErrors()) {
+                    if (error.getCode() == DUPLICATE_KEY) {
+                        duplicates.add(error.getIndex());
+                    } else {
+                        // Mongo will refuse this document every time; the rest of the poll is stored
+                        deadLetters.publish(sources.get(error.getIndex()), new DataIntegrityViolationException(
+                                "write error " + error.getCode() + ": " + error.getMessage(), e));
+                    }
+                }
+            }
+
+            // A duplicate stored by an earlier, successful delivery was indexed and counted back then. One
+            // written by an attempt that then failed transiently never reached the listeners, so it goes now.
+            for (int i = 0; i < batch.size(); i++) {
+                Logs logs = batch.get(i);
+                boolean unnotified = unconfirmed.remove(logs.getId());
+                if (!skipped.contains(i) || (unnotified && duplicates.contains(i))) {
+                    writeListeners.forEach(l -> l.onStored(logs));
+                }
+            }
+        }
+
+        ack.acknowledge();
+
+        int rejected = skipped.size() - duplicates.size();
+        System.out.println("Saved " + (batch.size() - skipped.size()) + "/" + records.size() + " ✅"
+                + (duplicates.isEmpty() ? "" : " (" + duplicates.size() + " already stored)")
+                + (rejected == 0 ? "" : " (" + rejected + " dead-lettered)"));
+    }
+
+    // Ids are derived from the records, so a duplicate key means a redelivered or replayed record.
+    // The unordered insert has still written the rest. A transient error fails the whole poll so it is
+    // retried; what that attempt may have written is remembered, because the retry sees it as duplicates.
+    private Set<Integer> skipped(BulkOperationException e, List<Logs> batch) {
+
+        if (e.getErrors().isEmpty()) {
+            // only a write concern error: the documents may or may not be durable yet
+            remember(batch, Set.of());
+            throw new TransientDataAccessResourceException("bulk insert not acknowledged: " + e.getMessage(), e);
+        }
+
+        Set<Integer> skipped = new HashSet<>();
+        Set<Integer> duplicates = new HashSet<>();
+        for (BulkWriteError error : e.getErrors()) {
+            skipped.add(error.getIndex());
+            if (error.getCode() == DUPLICATE_KEY) {
+                duplicates.add(error.getIndex());
+            }
+        }
+        for (BulkWriteError error : e.getErrors()) {
+            if (TRANSIENT_CODES.contains(error.getCode())) {
+                remember(batch, duplicates);
+                throw new TransientDataAccessResourceException("bulk insert interrupted: " + error.getMessage(), e);
+            }
+        }
+        return skipped;
+    }
+
+    // duplicates in the failed attempt were already stored, and notified, before it
+    private void remember(List<Logs> batch, Set<Integer> duplicates) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (!duplicates.contains(i)) {
+                unconfirmed.add(batch.get(i).getId());
+            }
+        }
+    }
+
+}
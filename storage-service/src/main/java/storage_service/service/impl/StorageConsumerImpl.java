@@ -1,40 +1,49 @@
 package storage_service.service.impl;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import common_lib.domain.LogRecord;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 import storage_service.domain.Logs;
-import storage_service.domain.enums.levels;
 import storage_service.service.storageConsumer;
 import storage_service.repository.logsRepository;
+import storage_service.service.LogsWriteListener;
+import storage_service.utils.LogsParser;
+
+import java.util.List;
 
 @Service
+@ConditionalOnProperty(name = "logsy.storage.listener", havingValue = "record")
 public class StorageConsumerImpl implements storageConsumer {
 
     @Autowired
     private logsRepository repository;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private LogsParser parser;
+
+    @Autowired
+    private List<LogsWriteListener> writeListeners;
 
     @Override
     @KafkaListener(
             topics = "${spring.kafka.consumer.topic}",
             groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void consume(String rawlogs) {
+    public void consume(LogRecord received) {
 
         try{
-            Logs logs = objectMapper.readValue(rawlogs, Logs.class);
-            
-            if (logs.getLevel() == levels.ERROR || logs.getLevel() == levels.FATAL) {
-                logs.setResolved(false);
-            }
+            Logs logs = parser.prepare(received);
 
-            repository.save(logs);
+            repository.insert(logs);
+            writeListeners.forEach(l -> l.onStored(logs));
 
             System.out.println("Saved ✅");
 
+        } catch(DuplicateKeyException e) {
+            System.out.println("Already stored, skipped ♻️");
         } catch(Exception e) {
             System.out.println("❌ error: " + e.getMessage());
         }
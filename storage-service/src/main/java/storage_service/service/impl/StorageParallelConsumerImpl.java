@@ -0,0 +1,86 @@
+package storage_service.service.impl;
+
+import common_lib.concurrent.KeyOrderedExecutor;
+import common_lib.domain.LogRecord;
+import common_lib.kafka.DeadLetters;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+import storage_service.domain.Logs;
+import storage_service.repository.logsRepository;
+import storage_service.service.storageBatchConsumer;
+import storage_service.service.LogsWriteListener;
+import storage_service.utils.LogsParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Per-record saves spread over a worker pool; records sharing a key (the producing service) keep their order.
+// The poll is only acknowledged once every save in it finished, so a crash replays rather than loses.
+@Service
+@ConditionalOnProperty(name = "logsy.storage.listener", havingValue = "parallel")
+public class StorageParallelConsumerImpl implements storageBatchConsumer {
+
+    @Autowired
+    private logsRepository repository;
+
+    @Autowired
+    private LogsParser parser;
+
+    @Autowired
+    private KeyOrderedExecutor workers;
+
+    @Autowired
+    private DeadLetters deadLetters;
+
+    @Autowired
+    private List<LogsWriteListener> writeListeners;
+
+    @Override
+    @KafkaListener(
+            topics = "${spring.kafka.consumer.topic}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchListenerContainerFactory"
+    )
+    public void consume(List<ConsumerRecord<String, LogRecord>> records, Acknowledgment ack) {
+
+        List<CompletableFuture<Void>> saves = new ArrayList<>(records.size());
+
+        try {
+            for (ConsumerRecord<String, LogRecord> record : records) {
+                if (deadLetters.route(record)) {
+                    continue;
+                }
+                Object key = record.key() != null ? record.key() : record.partition();
+                saves.add(workers.submit(key, () -> save(record)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while dispatching poll", e);
+        }
+
+        // a failed save fails the poll; the error handler re-seeks and it is retried
+        CompletableFuture.allOf(saves.toArray(CompletableFuture[]::new)).join();
+
+        ack.acknowledge();
+    }
+
+    private void save(ConsumerRecord<String, LogRecord> record) {
+
+        Logs logs = parser.prepare(record.value());
+
+        try {
+            repository.insert(logs);
+        } catch (DuplicateKeyException e) {
+            // redelivered or replayed: stored, indexed and counted the first time
+            return;
+        }
+        writeListeners.forEach(l -> l.onStored(logs));
+    }
+
+}
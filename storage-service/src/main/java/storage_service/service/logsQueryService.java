@@ -0,0 +1,20 @@
+package storage_service.service;
+
+import storage_service.domain.Logs;
+import storage_service.domain.dto.LogsPage;
+import storage_service.domain.dto.LogsQuery;
+import storage_service.search.SearchIndex;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface logsQueryService {
+    public LogsPage page(LogsQuery query);
+
+    public Stream<Logs> stream(LogsQuery query);
+
+    public List<Logs> byIds(List<String> ids);
+
+    public List<Logs> byHits(List<SearchIndex.Hit> hits);
+
+}
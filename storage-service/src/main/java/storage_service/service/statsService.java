@@ -0,0 +1,13 @@
+package storage_service.service;
+
+import common_lib.domain.enums.Level;
+import storage_service.domain.dto.StatsPointDto;
+import storage_service.rollup.Granularity;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface statsService {
+    public List<StatsPointDto> stats(Granularity granularity, String service, List<Level> levels, Instant from, Instant to);
+
+}
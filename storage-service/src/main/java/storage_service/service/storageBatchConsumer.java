@@ -0,0 +1,12 @@
+package storage_service.service;
+
+import common_lib.domain.LogRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.List;
+
+public interface storageBatchConsumer {
+    public void consume(List<ConsumerRecord<String, LogRecord>> records, Acknowledgment ack);
+
+}
@@ -1,6 +1,8 @@
 package storage_service.service;
 
+import common_lib.domain.LogRecord;
+
 public interface storageConsumer {
-    public void consume(String log);
+    public void consume(LogRecord log);
 
 }
@@ -0,0 +1,72 @@
+package storage_service.utils;
+
+import storage_service.domain.Logs;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Deterministic document ids, so a record that is consumed again (a replayed topic range, a
+ * redelivered poll) maps to the document already stored instead of a second copy.
+ *
+ * The id keeps the ObjectId shape the search index and archive expect: 4 bytes of the log's own
+ * timestamp in seconds, so inserts still land at the right edge of the _id index, then 8 bytes of
+ * SHA-256 over the service and the producer's event id, or over service, instance, timestamp and
+ * message when the producer sent none.
+ */
+public final class LogsIds {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private LogsIds() {
+    }
+
+    // expects the timestamp to be set already
+    public static String of(Logs logs) {
+
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+
+        if (logs.getEventId() != null && !logs.getEventId().isBlank()) {
+            update(digest, 'e', logs.getService());
+            update(digest, 'e', logs.getEventId());
+        } else {
+            // two identical lines from one instance in the same millisecond collapse into one document
+            update(digest, 'c', logs.getService());
+            update(digest, 'c', logs.getInstanceId());
+            update(digest, 'c', Long.toString(logs.getTimestamp().toEpochMilli()));
+            update(digest, 'c', logs.getMessage());
+        }
+
+        byte[] hash = digest.digest();
+        ByteBuffer id = ByteBuffer.allocate(12);
+        id.putInt((int) logs.getTimestamp().getEpochSecond());
+        id.put(hash, 0, 8);
+        return HEX.formatHex(id.array());
+    }
+
+    // tagged and length-prefixed so ("ab", "c") and ("a", "bc") hash differently
+    private static void update(MessageDigest digest, char tag, String value) {
+        digest.update((byte) tag);
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+}
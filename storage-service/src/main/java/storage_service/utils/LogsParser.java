@@ -0,0 +1,64 @@
+package storage_service.utils;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import common_lib.kafka.JsonRecordDeserializer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import storage_service.config.RetentionProperties;
+import storage_service.domain.Logs;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+// Shared by the per-record and batch listeners so both store the same document.
+@Component
+public class LogsParser {
+
+    @Autowired
+    private RetentionProperties retention;
+
+    private final ObjectReader reader = JsonRecordDeserializer.reader(LogRecord.class, false);
+
+    public Logs parse(String rawlogs) throws IOException {
+        return prepare(reader.<LogRecord>readValue(rawlogs));
+    }
+
+    public Logs parse(byte[] rawlogs) throws IOException {
+        return prepare(reader.<LogRecord>readValue(rawlogs));
+    }
+
+    // the listeners get LogRecord from LogRecordDeserializer, binary or JSON, and only need this part
+    public Logs prepare(LogRecord record) {
+        return prepare(Logs.from(record));
+    }
+
+    public Logs prepare(Logs logs) {
+
+        if (logs.getLevel() == Level.ERROR || logs.getLevel() == Level.FATAL) {
+            logs.setResolved(false);
+        }
+
+        // Mongo keeps milliseconds; truncating here keeps the caches and index in step with it
+        logs.setTimestamp(logs.getTimestamp() == null
+                ? Instant.now().truncatedTo(ChronoUnit.MILLIS)
+                : logs.getTimestamp().truncatedTo(ChronoUnit.MILLIS));
+
+        // assigned here rather than by Mongo so the search index knows the id on every write path,
+        // and derived from the record so consuming it again yields the same id
+        if (logs.getId() == null) {
+            logs.setId(LogsIds.of(logs));
+        }
+
+        Duration ttl = retention.forLevel(logs.getLevel());
+        if (ttl != null) {
+            logs.setExpireAt(logs.getTimestamp().plus(ttl));
+        }
+
+        return logs;
+    }
+
+}
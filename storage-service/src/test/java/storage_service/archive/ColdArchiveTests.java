@@ -0,0 +1,161 @@
+package storage_service.archive;
+
+import common_lib.domain.enums.Level;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import storage_service.domain.Logs;
+import storage_service.domain.dto.LogsQuery;
+import storage_service.search.SearchIndex;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+class ColdArchiveTests {
+
+	@TempDir
+	Path dir;
+
+	private final LocalDate day = LocalDate.of(2026, 9, 1);
+
+	@Test
+	void archivesADayAndReadsItBackThroughTheFilters() throws Exception {
+		MongoTemplate mongo = Mockito.mock(MongoTemplate.class);
+		List<Logs> docs = docs();
+		Mockito.when(mongo.stream(any(Query.class), eq(Logs.class))).thenAnswer(inv -> docs.stream());
+
+		ColdArchive archive = open(mongo);
+		assertEquals(1000, archive.archiveDay(day));
+		// one remove per block: payments has 600 rows in 100-row blocks, orders 400
+		Mockito.verify(mongo, Mockito.times(10)).remove(any(Query.class), eq(Logs.class));
+
+		List<Logs> all = drain(archive.scan(query().build(), null, null));
+		assertEquals(1000, all.size());
+		assertEquals(docs.stream().sorted(ColdArchive.NEWEST_FIRST).map(Logs::getId).toList(), all.stream().map(Logs::getId).toList());
+
+		Logs first = all.get(0);
+		assertEquals("request 999 handled", first.getMessage());
+		assertEquals(Map.of("status", 200), first.getMetadata());
+
+		assertEquals(600, drain(archive.scan(query().service("payments").build(), null, null)).size());
+		assertEquals(100, drain(archive.scan(query().levels(List.of(Level.ERROR)).build(), null, null)).size());
+		assertEquals(100, drain(archive.scan(query().resolved(false).build(), null, null)).size());
+		assertEquals(10, drain(archive.scan(query().traceId("trace-7").build(), null, null)).size());
+		assertEquals(0, drain(archive.scan(query().traceId("trace-none").build(), null, null)).size());
+
+		Instant start = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+		List<Logs> ranged = drain(archive.scan(query().from(start.plusSeconds(100)).to(start.plusSeconds(200)).build(), null, null));
+		assertEquals(100, ranged.size());
+
+		// keyset: everything strictly after the cursor row, in the same order
+		Logs cursor = all.get(499);
+		List<Logs> after = drain(archive.scan(query().build(), cursor.getTimestamp(), cursor.getId()));
+		assertEquals(all.subList(500, 1000).stream().map(Logs::getId).toList(), after.stream().map(Logs::getId).toList());
+
+		Logs wanted = all.get(321);
+		Map<String, Logs> hits = archive.byHits(List.of(new SearchIndex.Hit(wanted.getId(), wanted.getTimestamp().toEpochMilli()),
+				new SearchIndex.Hit(new ObjectId().toHexString(), wanted.getTimestamp().toEpochMilli())));
+		assertEquals(1, hits.size());
+		assertEquals(wanted.getMessage(), hits.get(wanted.getId()).getMessage());
+
+		ColdArchive reopened = open(mongo);
+		assertEquals(1000, drain(reopened.scan(query().build(), null, null)).size());
+		assertEquals(all.get(0).getTimestamp().toEpochMilli(), reopened.newest());
+		assertTrue(reopened.overlaps(null, all.get(0).getTimestamp()));
+		assertFalse(reopened.overlaps(all.get(0).getTimestamp().plusMillis(1), null));
+	}
+
+	@Test
+	void expiredRowsAreHidden() throws Exception {
+		Path file = dir.resolve("seg");
+		Instant now = Instant.now();
+		try (ArchiveSegment.Writer writer = new ArchiveSegment.Writer(dir.resolve("seg.tmp"), "payments", 10)) {
+			for (int i = 0; i < 5; i++) {
+				Logs logs = logs(now.minusSeconds(i), "payments", i);
+				logs.setExpireAt(i % 2 == 0 ? now.minusSeconds(1) : null);
+				writer.add(logs);
+			}
+			writer.finish(file);
+		}
+
+		ArchiveSegment segment = ArchiveSegment.open(file);
+		ArchiveFilter filter = new ArchiveFilter(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, null, null, null, null, now.toEpochMilli());
+		assertEquals(2, drain(segment.scan(filter)).size());
+		assertFalse(segment.expired(now.toEpochMilli()));
+		assertNull(segment.find("missing", now.toEpochMilli(), now.toEpochMilli()));
+	}
+
+	@Test
+	void refusesToStartWithoutAnExplicitDir() {
+		ColdArchive archive = new ColdArchive();
+		ReflectionTestUtils.setField(archive, "enabled", true);
+		ReflectionTestUtils.setField(archive, "dir", "");
+		assertThrows(IllegalStateException.class, archive::load);
+	}
+
+	private ColdArchive open(MongoTemplate mongo) throws Exception {
+		ColdArchive archive = new ColdArchive();
+		ReflectionTestUtils.setField(archive, "mongoTemplate", mongo);
+		ReflectionTestUtils.setField(archive, "enabled", true);
+		ReflectionTestUtils.setField(archive, "dir", dir.toString());
+		ReflectionTestUtils.setField(archive, "after", Duration.ofDays(7));
+		ReflectionTestUtils.setField(archive, "blockRows", 100);
+		archive.load();
+		return archive;
+	}
+
+	// as Mongo streams them: service ascending, then newest first
+	private List<Logs> docs() {
+		Instant start = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+		List<Logs> docs = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			docs.add(logs(start.plusSeconds(i), i % 5 < 3 ? "payments" : "orders", i));
+		}
+		docs.sort(Comparator.comparing(Logs::getService).thenComparing(ColdArchive.NEWEST_FIRST));
+		return docs;
+	}
+
+	private static Logs logs(Instant ts, String service, int i) {
+		Logs logs = new Logs();
+		logs.setId(new ObjectId().toHexString());
+		logs.setTimestamp(ts);
+		logs.setService(service);
+		logs.setLevel(i % 10 == 0 ? Level.ERROR : Level.INFO);
+		logs.setResolved(i % 10 == 0 ? Boolean.FALSE : null);
+		logs.setTraceId(i % 100 == 7 ? "trace-7" : "trace-" + i);
+		logs.setMessage("request " + i + " handled");
+		logs.setMetadata(Map.of("status", 200));
+		return logs;
+	}
+
+	private static LogsQuery.LogsQueryBuilder query() {
+		return LogsQuery.builder().limit(100);
+	}
+
+	private static List<Logs> drain(Iterator<Logs> it) {
+		List<Logs> out = new ArrayList<>();
+		it.forEachRemaining(out::add);
+		return out;
+	}
+
+}
@@ -0,0 +1,91 @@
+package storage_service.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import common_lib.codec.LogRecordCodec;
+import common_lib.codec.LogRecordDeserializer;
+import common_lib.domain.LogRecord;
+import common_lib.kafka.JsonRecordDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record cost of turning a db-topic value into a LogRecord: the old StringDeserializer +
+ * ObjectMapper.readValue(String) path against JsonRecordDeserializer on the raw bytes, with and without Blackbird,
+ * and LogRecordDeserializer on the same record in LogRecordCodec binary form.
+ *
+ * Run with bench/run-deserializer-bench.sh; add -prof gc for bytes allocated per record (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogsDeserializerBenchmark {
+
+    private static final String TOPIC = "db-topic";
+
+    // what the listeners used to do, with the mapper already shared
+    private final StringDeserializer strings = new StringDeserializer();
+    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final JsonRecordDeserializer<LogRecord> plain = new JsonRecordDeserializer<>();
+    private final JsonRecordDeserializer<LogRecord> blackbird = new JsonRecordDeserializer<>();
+
+    private final LogRecordDeserializer records = new LogRecordDeserializer();
+
+    private byte[] payload;
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        plain.configure(Map.of(JsonRecordDeserializer.VALUE_TYPE, LogRecord.class), false);
+        blackbird.configure(Map.of(JsonRecordDeserializer.VALUE_TYPE, LogRecord.class, JsonRecordDeserializer.BLACKBIRD, true), false);
+
+        // shaped like the ingestor's output: decimal epoch seconds, a trace id and some metadata
+        payload = ("{\"timestamp\":1792318530.123456,\"level\":\"ERROR\","
+                + "\"message\":\"Payment authorization failed for order 81723: upstream gateway timeout after 3000 ms\","
+                + "\"service\":\"payments\",\"instanceId\":\"payments-7f9c8d-2\","
+                + "\"traceId\":\"4bf92f3577b34da6a3ce929d0e0e4736\","
+                + "\"metadata\":{\"userId\":918273,\"region\":\"eu-west-1\",\"retry\":true},"
+                + "\"stackTrace\":null}").getBytes(StandardCharsets.UTF_8);
+
+        records.configure(Map.of(), false);
+        binary = new LogRecordCodec().encode(plain.deserialize(TOPIC, payload));
+    }
+
+    @Benchmark
+    public LogRecord stringReadValue() throws Exception {
+        return mapper.readValue(strings.deserialize(TOPIC, payload), LogRecord.class);
+    }
+
+    @Benchmark
+    public LogRecord bytesReader() {
+        return plain.deserialize(TOPIC, payload);
+    }
+
+    @Benchmark
+    public LogRecord bytesReaderBlackbird() {
+        return blackbird.deserialize(TOPIC, payload);
+    }
+
+    @Benchmark
+    public LogRecord binaryCodec() {
+        return records.deserialize(TOPIC, binary);
+    }
+
+}
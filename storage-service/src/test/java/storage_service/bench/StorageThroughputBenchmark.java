@@ -0,0 +1,107 @@
+package storage_service.bench;
+
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import storage_service.StorageServiceApplication;
+import storage_service.domain.Logs;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares db-topic -> Mongo throughput of the per-record listener against the batch listener.
+ * An embedded KRaft broker is preloaded with the same records for each mode, then the storage
+ * service is started against it and timed until every record is in the collection.
+ *
+ * Needs a reachable MongoDB (-Dbench.mongo-uri, defaults to localhost). Run with bench/run-storage-bench.sh.
+ */
+public class StorageThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+
+        int records = Integer.getInteger("bench.records", 100_000);
+        String mongoUri = System.getProperty("bench.mongo-uri", "mongodb://localhost:27017/logsy_bench");
+        String[] modes = System.getProperty("bench.modes", "record,batch").split(",");
+
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 6);
+        broker.afterPropertiesSet();
+
+        try {
+            for (String mode : modes) {
+                String topic = "bench-" + mode;
+                broker.addTopics(topic);
+                produce(broker.getBrokersAsString(), topic, records);
+                run(mode, broker.getBrokersAsString(), topic, mongoUri, records);
+            }
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static void produce(String brokers, String topic, int records) {
+
+        Map<String, Object> props = KafkaTestUtils.producerProps(brokers);
+        props.put("linger.ms", 20);
+
+        try (KafkaProducer<String, String> producer = new KafkaProducer<>(props, new StringSerializer(), new StringSerializer())) {
+            for (int i = 0; i < records; i++) {
+                String service = "svc-" + (i % 20);
+                String level = i % 50 == 0 ? "ERROR" : "INFO";
+                String json = "{\"timestamp\":1704067200.0,\"level\":\"" + level + "\",\"message\":\"request " + i
+                        + " handled in " + (i % 300) + "ms\",\"service\":\"" + service + "\",\"traceId\":\"t-" + i
+                        + "\",\"metadata\":{\"path\":\"/api/orders\",\"status\":200}}";
+                producer.send(new ProducerRecord<>(topic, service, json));
+            }
+            producer.flush();
+        }
+    }
+
+    private static void run(String mode, String brokers, String topic, String mongoUri, int records) throws Exception {
+
+        SpringApplicationBuilder app = new SpringApplicationBuilder(StorageServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.kafka.bootstrap-servers=" + brokers,
+                        "spring.kafka.consumer.topic=" + topic,
+                        "spring.kafka.consumer.group-id=bench-" + mode + "-" + System.nanoTime(),
+                        "spring.kafka.consumer.auto-offset-reset=earliest",
+                        "spring.data.mongodb.uri=" + mongoUri,
+                        "logsy.storage.listener=" + mode,
+                        "logging.level.root=WARN");
+
+        // the listeners print per message/poll; keep that out of the measurement
+        PrintStream out = System.out;
+
+        try (ConfigurableApplicationContext ctx = app.run()) {
+
+            MongoTemplate mongo = ctx.getBean(MongoTemplate.class);
+            mongo.dropCollection(Logs.class);
+
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            long start = System.nanoTime();
+            long stored;
+            while ((stored = mongo.count(new Query(), Logs.class)) < records) {
+                if (System.nanoTime() - start > TimeUnit.MINUTES.toNanos(10)) {
+                    break;
+                }
+                Thread.sleep(50);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.setOut(out);
+
+            System.out.printf("%-6s records=%d stored=%d  %.1fs  %.0f docs/s%n", mode, records, stored, seconds, stored / seconds);
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package storage_service.cache;
+
+import common_lib.domain.enums.Level;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import storage_service.archive.ColdArchive;
+import storage_service.domain.Logs;
+import storage_service.domain.dto.LogsPage;
+import storage_service.domain.dto.LogsQuery;
+import storage_service.service.impl.LogsQueryServiceImpl;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+class HotTailCacheTests {
+
+	// after the cache's startup, so every ring starts out complete
+	private final Instant t0 = Instant.now().plusSeconds(60).truncatedTo(ChronoUnit.MILLIS);
+
+	@Test
+	void ringsEvictTheirOldestAndTheGlobalCapEvictsTheOldestOverall() {
+		HotTailCache cache = cache(3, Long.MAX_VALUE);
+		for (int i = 0; i < 5; i++) {
+			cache.onStored(logs("payments", "p" + i, t0.plusSeconds(i)));
+		}
+
+		assertEquals(List.of("p4", "p3", "p2"), ids(cache.page(query("payments", t0.plusSeconds(2)), null, null)));
+		// p0 and p1 are gone, so a window reaching back to them is not answered from memory
+		assertNull(cache.page(query("payments", t0.plusSeconds(1)), null, null));
+
+		// room for four documents in total: the fifth pushes out the oldest one, whichever service holds it
+		long size = ReflectionTestUtils.invokeMethod(HotTailCache.class, "estimate", logs("orders", "o0", t0));
+		HotTailCache capped = cache(100, 4 * size);
+		capped.onStored(logs("orders", "o0", t0));
+		capped.onStored(logs("search", "s1", t0.plusSeconds(1)));
+		capped.onStored(logs("orders", "o2", t0.plusSeconds(2)));
+		capped.onStored(logs("search", "s3", t0.plusSeconds(3)));
+		capped.onStored(logs("search", "s4", t0.plusSeconds(4)));
+
+		assertNull(capped.page(query("orders", t0), null, null));
+		assertEquals(List.of("o2"), ids(capped.page(query("orders", t0.plusSeconds(2)), null, null)));
+		assertEquals(List.of("s4", "s3", "s1"), ids(capped.page(query("search", t0), null, null)));
+	}
+
+	@Test
+	void completeFromIsJustPastTheNewestEvictedTimestamp() {
+		HotTailCache cache = cache(2, Long.MAX_VALUE);
+		cache.onStored(logs("payments", "a", t0));
+		cache.onStored(logs("payments", "b", t0));
+		cache.onStored(logs("payments", "c", t0.plusSeconds(1)));
+
+		// "a" was evicted: "b" shares its timestamp, but a window starting there would miss "a"
+		assertNull(cache.page(query("payments", t0), null, null));
+		assertEquals(List.of("c"), ids(cache.page(query("payments", t0.plusNanos(1)), null, null)));
+	}
+
+	@Test
+	void pagingFallsThroughToMongoOnceEvictionPassesTheWindow() {
+		HotTailCache cache = cache(3, Long.MAX_VALUE);
+		for (int i = 0; i < 3; i++) {
+			cache.onStored(logs("payments", "p" + i, t0.plusSeconds(i)));
+		}
+
+		MongoTemplate mongo = Mockito.mock(MongoTemplate.class);
+		ColdArchive archive = Mockito.mock(ColdArchive.class);
+		LogsQueryServiceImpl service = new LogsQueryServiceImpl();
+		ReflectionTestUtils.setField(service, "mongoTemplate", mongo);
+		ReflectionTestUtils.setField(service, "hotTail", cache);
+		ReflectionTestUtils.setField(service, "archive", archive);
+
+		LogsPage first = service.page(query("payments", t0, 2, null));
+		assertEquals(List.of("p2", "p1"), ids(first.getLogs()));
+		assertNotNull(first.getNextCursor());
+		Mockito.verifyNoInteractions(mongo);
+
+		// newer logs push p0 out before the next page is read; Mongo still has it
+		cache.onStored(logs("payments", "p3", t0.plusSeconds(3)));
+		Mockito.when(mongo.find(any(Query.class), eq(Logs.class))).thenReturn(List.of(logs("payments", "p0", t0)));
+
+		LogsPage second = service.page(query("payments", t0, 2, first.getNextCursor()));
+		assertEquals(List.of("p0"), ids(second.getLogs()));
+		assertNull(second.getNextCursor());
+		Mockito.verify(mongo).find(any(Query.class), eq(Logs.class));
+	}
+
+	private static HotTailCache cache(int perServiceEntries, long maxBytes) {
+		HotTailCache cache = new HotTailCache();
+		ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(cache, "enabled", true);
+		ReflectionTestUtils.setField(cache, "perServiceEntries", perServiceEntries);
+		ReflectionTestUtils.setField(cache, "maxBytes", maxBytes);
+		cache.registerMetrics();
+		return cache;
+	}
+
+	private static LogsQuery query(String service, Instant from) {
+		return query(service, from, 100, null);
+	}
+
+	private static LogsQuery query(String service, Instant from, int limit, String cursor) {
+		return LogsQuery.builder().service(service).from(from).limit(limit).cursor(cursor).build();
+	}
+
+	private static Logs logs(String service, String id, Instant ts) {
+		Logs logs = new Logs();
+		logs.setId(id);
+		logs.setService(service);
+		logs.setTimestamp(ts);
+		logs.setLevel(Level.INFO);
+		logs.setMessage("cart updated");
+		return logs;
+	}
+
+	private static List<String> ids(List<Logs> logs) {
+		return new ArrayList<>(logs.stream().map(Logs::getId).toList());
+	}
+
+}
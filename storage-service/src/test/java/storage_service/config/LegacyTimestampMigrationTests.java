@@ -0,0 +1,36 @@
+package storage_service.config;
+
+import common_lib.domain.enums.Level;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LegacyTimestampMigrationTests {
+
+	@Test
+	void expireAtFollowsTheLevelRetention() {
+		RetentionProperties retention = new RetentionProperties();
+		retention.getTtl().put(Level.INFO, Duration.ofDays(14));
+		retention.getTtl().put(Level.FATAL, Duration.ZERO);
+
+		Document expireAt = migration(retention).expireAt();
+
+		// an expireAt that is already there wins, FATAL (kept forever) falls through to no field at all
+		assertEquals("{\"$ifNull\": [\"$expireAt\", {\"$switch\": {\"branches\": [{\"case\": {\"$eq\": [\"$level\", \"INFO\"]}, "
+				+ "\"then\": {\"$add\": [{\"$toDate\": {\"$multiply\": [\"$timestamp\", 1000]}}, 1209600000]}}], "
+				+ "\"default\": \"$$REMOVE\"}}]}", expireAt.toJson());
+		assertEquals(List.of("$expireAt", "$$REMOVE"), migration(new RetentionProperties()).expireAt().getList("$ifNull", Object.class));
+	}
+
+	private static LegacyTimestampMigration migration(RetentionProperties retention) {
+		LegacyTimestampMigration migration = new LegacyTimestampMigration();
+		ReflectionTestUtils.setField(migration, "retention", retention);
+		return migration;
+	}
+
+}
@@ -0,0 +1,121 @@
+package storage_service.live;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import storage_service.domain.Logs;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveTailHubTests {
+
+	private final LiveTailHub hub = new LiveTailHub();
+
+	@AfterEach
+	void shutdown() {
+		hub.shutdown();
+	}
+
+	@Test
+	void aSubscriberThatStopsReadingBlocksNobodyAndIsEvicted() throws Exception {
+		ReflectionTestUtils.setField(hub, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(hub, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(hub, "enabled", true);
+		ReflectionTestUtils.setField(hub, "maxSubscribers", 2);
+		ReflectionTestUtils.setField(hub, "buffer", 10);
+		ReflectionTestUtils.setField(hub, "batchSize", 10);
+		ReflectionTestUtils.setField(hub, "heartbeatMs", 50L);
+		ReflectionTestUtils.setField(hub, "evictAfterMs", 100L);
+		hub.init();
+
+		StuckEmitter stuck = new StuckEmitter();
+		ReadingEmitter reading = new ReadingEmitter("log 9999");
+		assertNotNull(hub.subscribe(stuck, null, null, null, TailOverflow.DROP_OLDEST));
+		assertNotNull(hub.subscribe(reading, null, null, null, TailOverflow.DROP_OLDEST));
+		assertNull(hub.subscribe(new ReadingEmitter(""), null, null, null, TailOverflow.DROP_OLDEST));
+
+		hub.onStored(logs("first"));
+		// let the stuck sender take it and hang in its write
+		Thread.sleep(100);
+
+		// the consumer side never waits on either client
+		assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+			for (int i = 0; i < 10000; i++) {
+				hub.onStored(logs("log " + i));
+			}
+		});
+		assertTrue(reading.sawLast.await(2, TimeUnit.SECONDS));
+
+		Thread.sleep(150);
+		hub.evictStalled();
+		assertTrue(stuck.completed.await(2, TimeUnit.SECONDS));
+
+		// its slot and its sender thread are free again
+		ReadingEmitter next = new ReadingEmitter("after eviction");
+		assertNotNull(hub.subscribe(next, null, null, null, TailOverflow.DROP_OLDEST));
+		hub.onStored(logs("after eviction"));
+		assertTrue(next.sawLast.await(2, TimeUnit.SECONDS));
+	}
+
+	private static Logs logs(String message) {
+		Logs logs = new Logs();
+		logs.setService("payments");
+		logs.setMessage(message);
+		return logs;
+	}
+
+	// a client that stopped reading: the write hangs until the response is completed
+	private static final class StuckEmitter extends SseEmitter {
+
+		final CountDownLatch completed = new CountDownLatch(1);
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			try {
+				completed.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			throw new IOException("response completed");
+		}
+
+		@Override
+		public void complete() {
+			completed.countDown();
+		}
+
+	}
+
+	private static final class ReadingEmitter extends SseEmitter {
+
+		final CountDownLatch sawLast = new CountDownLatch(1);
+
+		private final String last;
+
+		ReadingEmitter(String last) {
+			this.last = last;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) {
+			String data = builder.build().stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining());
+			if (data.contains("\"" + last + "\"")) {
+				sawLast.countDown();
+			}
+		}
+
+	}
+
+}
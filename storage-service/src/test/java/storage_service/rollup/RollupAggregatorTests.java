@@ -0,0 +1,136 @@
+package storage_service.rollup;
+
+import common_lib.domain.enums.Level;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import storage_service.domain.Logs;
+import storage_service.domain.Rollup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+class RollupAggregatorTests {
+
+	private static final Instant TS = Instant.parse("2026-10-18T10:15:30Z");
+
+	// total $inc count per rollup id, as Mongo would hold it
+	private final Map<String, LongAdder> stored = new ConcurrentHashMap<>();
+
+	@Test
+	void countsPerGranularityAndFoldsWeightsIntoUpserts() {
+		RollupAggregator aggregator = aggregator();
+
+		aggregator.onStored(logs("payments", Level.INFO, TS, null));
+		aggregator.onStored(logs("payments", Level.INFO, TS.plusSeconds(10), Map.of("sampleWeight", 4.0)));
+		aggregator.onStored(logs("payments", Level.ERROR, TS, null));
+
+		aggregator.flush();
+
+		assertEquals(2, stored.get(Rollup.id(Granularity.MINUTE, Instant.parse("2026-10-18T10:15:00Z"), "payments", Level.INFO)).sum());
+		assertEquals(2, stored.get(Rollup.id(Granularity.HOUR, Instant.parse("2026-10-18T10:00:00Z"), "payments", Level.INFO)).sum());
+		assertEquals(1, stored.get(Rollup.id(Granularity.DAY, Instant.parse("2026-10-18T00:00:00Z"), "payments", Level.ERROR)).sum());
+		assertTrue(aggregator.pending().values().stream().allMatch(d -> d.count() == 0));
+
+		// idle keys are dropped after a few empty flushes
+		for (int i = 0; i < 3; i++) {
+			aggregator.flush();
+		}
+		assertTrue(aggregator.pending().isEmpty());
+	}
+
+	@Test
+	void writesRacingIdleRemovalAreNeverLost() throws Exception {
+		RollupAggregator aggregator = aggregator();
+		int writers = 4;
+		int perWriter = 20_000;
+
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		AtomicBoolean writing = new AtomicBoolean(true);
+		for (int w = 0; w < writers; w++) {
+			pool.submit(() -> {
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < perWriter; i++) {
+					// sparse keys, so they keep going idle and being dropped while others write to them
+					aggregator.onStored(logs("svc-" + random.nextInt(500), Level.INFO, TS, null));
+				}
+			});
+		}
+		pool.shutdown();
+
+		Thread flusher = new Thread(() -> {
+			while (writing.get()) {
+				aggregator.flush();
+			}
+		});
+		flusher.start();
+		assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+		writing.set(false);
+		flusher.join();
+		aggregator.flush();
+
+		long minuteTotal = stored.entrySet().stream()
+				.filter(e -> e.getKey().startsWith(Granularity.MINUTE + "|"))
+				.mapToLong(e -> e.getValue().sum())
+				.sum();
+		assertEquals((long) writers * perWriter, minuteTotal);
+	}
+
+	private RollupAggregator aggregator() {
+		BulkOperations bulk = Mockito.mock(BulkOperations.class);
+		List<Document> upserts = new ArrayList<>();
+		Mockito.when(bulk.upsert(any(Query.class), any(Update.class))).thenAnswer(invocation -> {
+			Query query = invocation.getArgument(0);
+			Update update = invocation.getArgument(1);
+			upserts.add(new Document("id", query.getQueryObject().get("id"))
+					.append("count", ((Document) update.getUpdateObject().get("$inc")).get("count")));
+			return bulk;
+		});
+		Mockito.when(bulk.execute()).thenAnswer(invocation -> {
+			upserts.forEach(u -> stored.computeIfAbsent(u.getString("id"), id -> new LongAdder()).add(u.getLong("count")));
+			upserts.clear();
+			return null;
+		});
+
+		MongoTemplate mongo = Mockito.mock(MongoTemplate.class);
+		Mockito.when(mongo.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Rollup.class))).thenReturn(bulk);
+
+		RollupAggregator aggregator = new RollupAggregator();
+		ReflectionTestUtils.setField(aggregator, "mongoTemplate", mongo);
+		ReflectionTestUtils.setField(aggregator, "enabled", true);
+		ReflectionTestUtils.setField(aggregator, "minuteRetention", Duration.ofDays(7));
+		ReflectionTestUtils.setField(aggregator, "hourRetention", Duration.ofDays(90));
+		ReflectionTestUtils.setField(aggregator, "dayRetention", Duration.ZERO);
+		return aggregator;
+	}
+
+	static Logs logs(String service, Level level, Instant ts, Map<String, Object> metadata) {
+		Logs logs = new Logs();
+		logs.setService(service);
+		logs.setLevel(level);
+		logs.setTimestamp(ts);
+		logs.setMetadata(metadata);
+		return logs;
+	}
+
+}
@@ -0,0 +1,87 @@
+package storage_service.search;
+
+import common_lib.domain.enums.Level;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import storage_service.domain.Logs;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void findsDocumentsAcrossBuffersFlushesMergesAndRestarts() throws Exception {
+		SearchIndex index = open();
+		Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+		String timeout = null;
+		for (int i = 0; i < 40; i++) {
+			Logs logs = logs(now.minusSeconds(i), i % 2 == 0 ? "payments" : "orders",
+					i % 5 == 0 ? "upstream timeout after 3000 ms" : "request handled", Map.of("status", i % 5 == 0 ? 504 : 200));
+			index.onStored(logs);
+			if (i == 0) {
+				timeout = logs.getId();
+			}
+			if (i % 8 == 7) {
+				index.flush();
+			}
+		}
+
+		// still partly buffered
+		assertEquals(8, index.search(Tokenizer.query("timeout"), null, null, 100).size());
+
+		index.flush();
+		index.merge();
+		assertEquals(8, index.search(Tokenizer.query("timeout status:504"), null, null, 100).size());
+		assertEquals(4, index.search(Tokenizer.query("timeout service:payments"), null, null, 100).size());
+		assertEquals(0, index.search(Tokenizer.query("timeout status:200"), null, null, 100).size());
+
+		List<SearchIndex.Hit> newest = index.search(Tokenizer.query("timeout"), null, null, 1);
+		assertEquals(List.of(timeout), newest.stream().map(SearchIndex.Hit::id).toList());
+		List<SearchIndex.Hit> top3 = index.search(Tokenizer.query("timeout"), null, null, 3);
+		assertEquals(List.of(now.toEpochMilli(), now.minusSeconds(5).toEpochMilli(), now.minusSeconds(10).toEpochMilli()),
+				top3.stream().map(SearchIndex.Hit::timestamp).toList());
+
+		List<SearchIndex.Hit> ranged = index.search(Tokenizer.query("level:info"), now.minusSeconds(5), now.plusSeconds(1), 100);
+		assertTrue(ranged.stream().allMatch(h -> h.timestamp() > now.minusSeconds(6).toEpochMilli()));
+		assertEquals(6, ranged.size());
+
+		SearchIndex reopened = open();
+		assertEquals(32, reopened.search(Tokenizer.query("request handled"), null, null, 100).size());
+	}
+
+	private SearchIndex open() throws Exception {
+		SearchIndex index = new SearchIndex();
+		ReflectionTestUtils.setField(index, "enabled", true);
+		ReflectionTestUtils.setField(index, "dir", dir.toString());
+		ReflectionTestUtils.setField(index, "flushDocs", 1000);
+		ReflectionTestUtils.setField(index, "mergeFactor", 4);
+		ReflectionTestUtils.setField(index, "retentionDays", 30);
+		index.load();
+		return index;
+	}
+
+	private static Logs logs(Instant ts, String service, String message, Map<String, Object> metadata) {
+		Logs logs = new Logs();
+		logs.setId(new ObjectId().toHexString());
+		logs.setTimestamp(ts);
+		logs.setService(service);
+		logs.setLevel(Level.INFO);
+		logs.setMessage(message);
+		logs.setMetadata(metadata);
+		return logs;
+	}
+
+}
@@ -0,0 +1,76 @@
+package storage_service.service.impl;
+
+import common_lib.domain.enums.Level;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import storage_service.domain.Logs;
+import storage_service.domain.Rollup;
+import storage_service.domain.dto.StatsPointDto;
+import storage_service.rollup.Granularity;
+import storage_service.rollup.RollupAggregator;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+class StatsServiceImplTests {
+
+	private static final Instant TEN = Instant.parse("2026-10-18T10:00:00Z");
+
+	@Test
+	void addsUnflushedDeltasToStoredRowsWithinTheFilter() {
+		RollupAggregator aggregator = new RollupAggregator();
+		ReflectionTestUtils.setField(aggregator, "enabled", true);
+		// not flushed yet: one more INFO in the stored bucket, a new bucket, and rows the filter excludes
+		aggregator.onStored(logs("payments", Level.INFO, TEN.plusSeconds(5), Map.of("sampleWeight", 10)));
+		aggregator.onStored(logs("payments", Level.INFO, TEN.plusSeconds(65), null));
+		aggregator.onStored(logs("orders", Level.INFO, TEN.plusSeconds(5), null));
+		aggregator.onStored(logs("payments", Level.INFO, TEN.plusSeconds(3600), null));
+
+		MongoTemplate mongo = Mockito.mock(MongoTemplate.class);
+		Mockito.when(mongo.find(any(Query.class), eq(Rollup.class))).thenReturn(List.of(rollup(TEN, 30, 60.0)));
+
+		StatsServiceImpl stats = new StatsServiceImpl();
+		ReflectionTestUtils.setField(stats, "mongoTemplate", mongo);
+		ReflectionTestUtils.setField(stats, "aggregator", aggregator);
+
+		List<StatsPointDto> points = stats.stats(Granularity.MINUTE, "payments", List.of(Level.INFO), TEN, TEN.plusSeconds(3600));
+
+		assertEquals(2, points.size());
+		assertEquals(TEN, points.get(0).getBucket());
+		assertEquals(31, points.get(0).getCount());
+		assertEquals(70.0, points.get(0).getWeighted());
+		assertEquals(70.0 / 60, points.get(0).getRatePerSecond(), 1e-9);
+		assertEquals(TEN.plusSeconds(60), points.get(1).getBucket());
+		assertEquals(1, points.get(1).getCount());
+	}
+
+	private static Rollup rollup(Instant bucket, long count, double weighted) {
+		Rollup rollup = new Rollup();
+		rollup.setId(Rollup.id(Granularity.MINUTE, bucket, "payments", Level.INFO));
+		rollup.setGranularity(Granularity.MINUTE);
+		rollup.setBucket(bucket);
+		rollup.setService("payments");
+		rollup.setLevel(Level.INFO);
+		rollup.setCount(count);
+		rollup.setWeighted(weighted);
+		return rollup;
+	}
+
+	private static Logs logs(String service, Level level, Instant ts, Map<String, Object> metadata) {
+		Logs logs = new Logs();
+		logs.setService(service);
+		logs.setLevel(level);
+		logs.setTimestamp(ts);
+		logs.setMetadata(metadata);
+		return logs;
+	}
+
+}
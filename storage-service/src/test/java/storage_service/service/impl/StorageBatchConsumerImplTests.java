@@ -0,0 +1,191 @@
+package storage_service.service.impl;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.WriteConcernError;
+import common_lib.codec.LogRecordCodec;
+import common_lib.codec.LogRecordDeserializer;
+import common_lib.domain.LogRecord;
+import common_lib.domain.enums.Level;
+import common_lib.kafka.DeadLetters;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+import storage_service.config.RetentionProperties;
+import storage_service.domain.Logs;
+import storage_service.service.LogsWriteListener;
+import storage_service.utils.LogsParser;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+
+class StorageBatchConsumerImplTests {
+
+	private final Instant ts = Instant.parse("2026-09-01T10:00:00.123456Z");
+
+	private final DeadLetters deadLetters = Mockito.mock(DeadLetters.class);
+
+	@Test
+	void idsAreDerivedFromTheRecord() throws Exception {
+		LogsParser parser = parser();
+		String json = "{\"timestamp\":\"2026-09-01T10:00:00.123456Z\",\"level\":\"INFO\",\"message\":\"ok\",\"service\":\"payments\",\"eventId\":\"e-1\"}";
+
+		Logs first = parser.parse(json);
+		assertEquals(first.getId(), parser.parse(json).getId());
+		assertTrue(ObjectId.isValid(first.getId()));
+		assertEquals(ts.getEpochSecond(), new ObjectId(first.getId()).getTimestamp());
+
+		assertNotEquals(first.getId(), parser.parse(json.replace("e-1", "e-2")).getId());
+		// the binary form of the same record lands on the same document
+		byte[] binary = new LogRecordCodec().encode(LogRecord.builder().timestamp(ts).level(Level.INFO)
+				.message("ok").service("payments").eventId("e-1").build());
+		assertEquals(first.getId(), parser.prepare(new LogRecordDeserializer().deserialize("db-topic", binary)).getId());
+		// without an event id the content decides
+		Logs a = parser.prepare(logs("ok", null));
+		assertEquals(a.getId(), parser.prepare(logs("ok", null)).getId());
+		assertNotEquals(a.getId(), parser.prepare(logs("ko", null)).getId());
+	}
+
+	@Test
+	void duplicatesAreSkippedRejectsDeadLetteredTransientErrorsFailThePoll() {
+		MongoTemplate mongo = Mockito.mock(MongoTemplate.class);
+		BulkOperations bulk = Mockito.mock(BulkOperations.class);
+		Mockito.when(mongo.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Logs.class))).thenReturn(bulk);
+		Mockito.when(bulk.insert(anyList())).thenReturn(bulk);
+		Mockito.when(bulk.execute()).thenThrow(failure(11000));
+
+		List<Logs> stored = new ArrayList<>();
+		StorageBatchConsumerImpl consumer = consumer(mongo, stored::add);
+		Acknowledgment ack = Mockito.mock(Acknowledgment.class);
+
+		consumer.consume(List.of(record("a"), record("b"), record("c")), ack);
+		assertEquals(List.of("a", "c"), stored.stream().map(Logs::getMessage).toList());
+		Mockito.verify(ack).acknowledge();
+
+		// document validation fails the same way every time
+		stored.clear();
+		ConsumerRecord<String, LogRecord> rejected = record("e");
+		Mockito.doThrow(failure(121)).when(bulk).execute();
+		consumer.consume(List.of(record("d"), rejected), ack);
+		assertEquals(List.of("d"), stored.stream().map(Logs::getMessage).toList());
+		Mockito.verify(deadLetters).publish(eq(rejected), any(DataIntegrityViolationException.class));
+		Mockito.verify(ack, Mockito.times(2)).acknowledge();
+
+		// a stepdown mid-insert is retried as a whole
+		Mockito.doThrow(failure(189)).when(bulk).execute();
+		assertThrows(TransientDataAccessResourceException.class, () -> consumer.consume(List.of(record("f"), record("g")), ack));
+		Mockito.verify(ack, Mockito.times(2)).acknowledge();
+	}
+
+	@Test
+	void documentsWrittenByAFailedAttemptReachTheListenersOnRetry() {
+		MongoTemplate mongo = Mockito.mock(MongoTemplate.class);
+		BulkOperations bulk = Mockito.mock(BulkOperations.class);
+		Mockito.when(mongo.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Logs.class))).thenReturn(bulk);
+		Mockito.when(bulk.insert(anyList())).thenReturn(bulk);
+
+		List<Logs> stored = new ArrayList<>();
+		StorageBatchConsumerImpl consumer = consumer(mongo, stored::add);
+		Acknowledgment ack = Mockito.mock(Acknowledgment.class);
+
+		// the write concern timed out: both documents were written, nobody was told
+		Mockito.doThrow(writeConcernFailure()).when(bulk).execute();
+		assertThrows(TransientDataAccessResourceException.class, () -> consumer.consume(List.of(record("a"), record("b")), ack));
+		assertTrue(stored.isEmpty());
+
+		// the retry finds both stored already
+		Mockito.doThrow(duplicates(0, 1)).when(bulk).execute();
+		consumer.consume(List.of(record("a"), record("b")), ack);
+		assertEquals(List.of("a", "b"), stored.stream().map(Logs::getMessage).toList());
+
+		// a later replay of the same range is a plain duplicate again
+		stored.clear();
+		consumer.consume(List.of(record("a"), record("b")), ack);
+		assertTrue(stored.isEmpty());
+
+		// a stepdown after "c" was written and while "d" was pending; "e" was stored by an earlier poll
+		Mockito.doThrow(failure(new BulkWriteError(189, "E189", new BsonDocument(), 1),
+				new BulkWriteError(11000, "E11000", new BsonDocument(), 2))).when(bulk).execute();
+		assertThrows(TransientDataAccessResourceException.class, () -> consumer.consume(List.of(record("c"), record("d"), record("e")), ack));
+		Mockito.doThrow(duplicates(0, 2)).when(bulk).execute();
+		consumer.consume(List.of(record("c"), record("d"), record("e")), ack);
+		assertEquals(List.of("c", "d"), stored.stream().map(Logs::getMessage).toList());
+	}
+
+	private StorageBatchConsumerImpl consumer(MongoTemplate mongo, LogsWriteListener listener) {
+		Mockito.when(deadLetters.route(any())).thenReturn(false);
+
+		StorageBatchConsumerImpl consumer = new StorageBatchConsumerImpl();
+		ReflectionTestUtils.setField(consumer, "mongoTemplate", mongo);
+		ReflectionTestUtils.setField(consumer, "parser", parser());
+		ReflectionTestUtils.setField(consumer, "deadLetters", deadLetters);
+		ReflectionTestUtils.setField(consumer, "writeListeners", List.of(listener));
+		return consumer;
+	}
+
+	// the record at index 1 is already stored
+	private static BulkOperationException failure(int code) {
+		return failure(new BulkWriteError(code, "E" + code, new BsonDocument(), 1));
+	}
+
+	private static BulkOperationException duplicates(int... indexes) {
+		return failure(Arrays.stream(indexes)
+				.mapToObj(i -> new BulkWriteError(11000, "E11000", new BsonDocument(), i))
+				.toArray(BulkWriteError[]::new));
+	}
+
+	private static BulkOperationException failure(BulkWriteError... errors) {
+		return new BulkOperationException("bulk failed", new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+				List.of(errors), null, new ServerAddress(), Set.of()));
+	}
+
+	private static BulkOperationException writeConcernFailure() {
+		WriteConcernError error = new WriteConcernError(64, "WriteConcernFailed", "waiting for replication timed out", new BsonDocument());
+		return new BulkOperationException("bulk failed", new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+				List.of(), error, new ServerAddress(), Set.of()));
+	}
+
+	private ConsumerRecord<String, LogRecord> record(String message) {
+		return new ConsumerRecord<>("db-topic", 0, 0, "payments", LogRecord.builder()
+				.timestamp(ts).level(Level.INFO).service("payments").message(message).build());
+	}
+
+	private Logs logs(String message, String eventId) {
+		Logs logs = new Logs();
+		logs.setTimestamp(ts);
+		logs.setLevel(Level.INFO);
+		logs.setService("payments");
+		logs.setMessage(message);
+		logs.setEventId(eventId);
+		return logs;
+	}
+
+	private static LogsParser parser() {
+		LogsParser parser = new LogsParser();
+		ReflectionTestUtils.setField(parser, "retention", new RetentionProperties());
+		return parser;
+	}
+
+}